@@ -7,13 +7,19 @@ import com.quattage.mechano.foundation.network.AnchorStatRequestC2SPacket;
 import com.quattage.mechano.foundation.network.AnchorVertexDataSyncS2CPacket;
 import com.quattage.mechano.content.block.power.alternator.rotor.ARSetS2CPacket;
 import com.quattage.mechano.content.block.power.alternator.slipRingShaft.SlipRingUpdateS2CPacket;
+import com.quattage.mechano.foundation.electricity.grid.network.GridSyncBundleS2CPacket;
 import com.quattage.mechano.foundation.electricity.grid.network.GridEdgeUpdateSyncS2CPacket;
 import com.quattage.mechano.foundation.electricity.grid.network.GridPathUpdateSyncS2CPacket;
 import com.quattage.mechano.foundation.electricity.grid.network.GridVertUpdateSyncS2CPacket;
 import com.quattage.mechano.foundation.network.AnchorSelectC2SPacket;
+import com.quattage.mechano.foundation.network.GridPathSubscribeC2SPacket;
 import com.quattage.mechano.foundation.network.WattSyncS2CPacket;
+import com.quattage.mechano.foundation.network.WattSyncBundleS2CPacket;
 
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraftforge.network.NetworkDirection;
 import net.minecraftforge.network.NetworkRegistry;
 import net.minecraftforge.network.PacketDistributor;
@@ -47,6 +53,12 @@ public class MechanoPackets {
             .consumerMainThread(WattSyncS2CPacket::handle)
             .add();
 
+        NETWORK.messageBuilder(WattSyncBundleS2CPacket.class, nextId(), NetworkDirection.PLAY_TO_CLIENT)
+            .decoder(WattSyncBundleS2CPacket::new)
+            .encoder(WattSyncBundleS2CPacket::toBytes)
+            .consumerMainThread(WattSyncBundleS2CPacket::handle)
+            .add();
+
         NETWORK.messageBuilder(WattModeSyncS2CPacket.class, nextId(), NetworkDirection.PLAY_TO_CLIENT)
             .decoder(WattModeSyncS2CPacket::new)
             .encoder(WattModeSyncS2CPacket::toBytes)
@@ -71,12 +83,24 @@ public class MechanoPackets {
             .consumerMainThread(GridPathUpdateSyncS2CPacket::handle)
             .add();
 
+        NETWORK.messageBuilder(GridSyncBundleS2CPacket.class, nextId(), NetworkDirection.PLAY_TO_CLIENT)
+            .decoder(GridSyncBundleS2CPacket::new)
+            .encoder(GridSyncBundleS2CPacket::toBytes)
+            .consumerMainThread(GridSyncBundleS2CPacket::handle)
+            .add();
+
         NETWORK.messageBuilder(AnchorStatRequestC2SPacket.class, nextId(), NetworkDirection.PLAY_TO_CLIENT)
             .decoder(AnchorStatRequestC2SPacket::new)
             .encoder(AnchorStatRequestC2SPacket::toBytes)
             .consumerMainThread(AnchorStatRequestC2SPacket::handle)
             .add();
 
+        NETWORK.messageBuilder(GridPathSubscribeC2SPacket.class, nextId(), NetworkDirection.PLAY_TO_SERVER)
+            .decoder(GridPathSubscribeC2SPacket::new)
+            .encoder(GridPathSubscribeC2SPacket::toBytes)
+            .consumerMainThread(GridPathSubscribeC2SPacket::handle)
+            .add();
+
         NETWORK.messageBuilder(AnchorVertexDataSyncS2CPacket.class, nextId(), NetworkDirection.PLAY_TO_CLIENT)
             .decoder(AnchorVertexDataSyncS2CPacket::new)
             .encoder(AnchorVertexDataSyncS2CPacket::toBytes)
@@ -131,6 +155,16 @@ public class MechanoPackets {
         NETWORK.send(PacketDistributor.ALL.noArg(), message);
     }
 
+    public static <T extends Packetable> void sendToDimension(T message, ResourceKey<Level> dimension) {
+        if(message == null) return;
+        NETWORK.send(PacketDistributor.DIMENSION.with(() -> dimension), message);
+    }
+
+    public static <T extends Packetable> void sendToTrackingChunk(T message, LevelChunk chunk) {
+        if(message == null) return;
+        NETWORK.send(PacketDistributor.TRACKING_CHUNK.with(() -> chunk), message);
+    }
+
     private static int nextId() {
         return packetId++;
     }
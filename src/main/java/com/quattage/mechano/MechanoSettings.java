@@ -32,6 +32,42 @@ public class MechanoSettings {
 
     public static byte GRID_WORKER_THREADS = 6;
 
+    // whether new paths are solved on the grid worker pool and committed on a later tick
+    public static boolean ASYNC_PATHFINDING = true;
+
+    // whether synchronous pathfinding runs over a primitive CSR copy of each grid instead of the GridVertex objects
+    public static boolean COMPACT_GRID_GRAPH = false;
+
+    // whether power flow is allocated with a max-flow solve rather than split proportionally across each sender's paths
+    public static boolean MAX_FLOW_ALLOCATION = false;
+
+    // whether solved paths are saved with each subgrid so they don't have to be found again when the world loads
+    public static boolean PERSIST_GRID_PATHS = true;
+
+    // whether subgrids are saved in region files and only kept in memory while a chunk near them is loaded
+    public static boolean REGIONAL_GRID_STORAGE = true;
+
+    // whether each subgrid's power flow is allocated on the grid worker pool rather than on the server thread
+    public static boolean PARALLEL_FLOW_SOLVING = true;
+
+    // how many ticks a sleeping electric BlockEntity waits before checking its neighbors again on its own
+    public static short ELECTRIC_SLEEP_RECHECK_TICKS = 20;
+
+    // minimum number of ticks between stored watt syncs for a single electric BlockEntity
+    public static short WATT_SYNC_INTERVAL = 5;
+
+    // stored watt changes smaller than this aren't synced to clients (roughly 1 FE)
+    public static float WATT_SYNC_EPSILON = 0.015f;
+
+    // permission level that lets a player receive GridPaths without holding the DebugButter
+    public static byte PATH_VIEW_PERMISSION = 2;
+
+    // minimum number of ticks between full path syncs for a single player, however often they subscribe
+    public static short PATH_SYNC_COOLDOWN = 40;
+
+    // roughly how much memory cached static wire models are allowed to use on the client, in KiB
+    public static int WIRE_MODEL_CACHE_KB = 8192;
+
 
     protected static void init(IEventBus modBus) {
         
@@ -9,10 +9,12 @@ import com.quattage.mechano.Mechano;
 import com.quattage.mechano.MechanoPackets;
 import com.quattage.mechano.foundation.behavior.GridEdgeDebugBehavior;
 import com.quattage.mechano.foundation.block.anchor.AnchorPoint;
+import com.quattage.mechano.foundation.electricity.ElectricActivityScheduler;
 import com.quattage.mechano.foundation.electricity.grid.GlobalTransferGrid;
 import com.quattage.mechano.foundation.electricity.grid.LocalTransferGrid;
 import com.quattage.mechano.foundation.electricity.grid.TransferPathManager;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
 import com.quattage.mechano.foundation.electricity.grid.network.GridPathUpdateSyncS2CPacket;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncPacketType;
@@ -166,6 +168,8 @@ public class DebugButter extends Item {
             }
 
             String message = "\n§7-----§r  Displaying data from §l§a" + count + "§r LocalTransferGrid(s):  §7-----§r";
+            message += "\n\n§r§7  • Battery: §r§b§3" + (wbe.getWattBatteryHandler().isSleeping() ? "sleeping" : "ticking") + "§r§7 (§r§b§3" + ElectricActivityScheduler.getActiveCount() 
+                + " §r§7ticking, §r§b§3" + ElectricActivityScheduler.getSleepingCount() + " §r§7sleeping on this server)";
         
             for(int x = 0; x < grids.size(); x++) {
                 message += "\n\n§r§7  • Grid §r§b§3" + (x + 1) + "§r§7:";
@@ -190,6 +194,11 @@ public class DebugButter extends Item {
                 final String pathFilled = (expected == actual ? ("§r§a§l" + expected + "§r§a/§r§a§l" + expected) : ("§r§c§l"+ actual + "§r§c/§r§c§l" + expected));
 
                 message += "§r§7\n     -   Paths: §r§b§3" + paths.getUniquePathCount() + " §r§7unique, §r§b§3" + declaringCount + " §r§7declarators, " + pathFilled + " §r§7total";
+                message += "§r§7\n     -   Last mutation: §r§b§3" + sub.getLastPathsExamined() + " §r§7examined, §r§b§3" + sub.getLastPathsRecomputed() + " §r§7recomputed (§r§b§3" + sub.getTotalPathsRecomputed() + " §r§7total)";
+                final GridEdge busiest = sub.getBusiestEdge();
+                if(busiest == null) message += "§r§7\n     -   Busiest wire: §r§b§3none";
+                else message += "§r§7\n     -   Busiest wire: §r§b§3" + busiest.getOriginVertex().posAsString() + " §r§7-> §r§b§3" + busiest.getDestinationVertex().posAsString() 
+                    + "§r§7 at §r§b§3" + Math.round(busiest.getAverageUtilisation() * 100) + "% §r§7avg (§r§b§3" + Math.round(busiest.getPeakWatts()) + "W §r§7peak of §r§b§3" + Math.round(busiest.getMaximumWatts()) + "W§r§7)";
                 message += "§r§7\n     -   Owner: '§r§b§3" + sub.getParent().getDimensionName() + "§r§7'";
                 message += "§r§7\n     -   §r§b§9Unordered Vertex Info: §r§7" + sub.toFormattedString(context.getClickedPos());
             }
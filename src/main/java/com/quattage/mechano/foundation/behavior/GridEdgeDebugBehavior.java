@@ -31,6 +31,7 @@ import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GIDPair;
 import com.quattage.mechano.foundation.electricity.impl.WireAnchorBlockEntity;
 import com.quattage.mechano.foundation.helper.VectorHelper;
+import com.quattage.mechano.foundation.network.GridPathSubscribeC2SPacket;
 import com.quattage.mechano.foundation.network.GridPathViewMaskS2CPacket;
 import com.simibubi.create.CreateClient;
 import com.simibubi.create.foundation.utility.Pair;
@@ -42,6 +43,9 @@ public class GridEdgeDebugBehavior extends ClientBehavior {
 
     private static Set<GID> mask = null;
 
+    // paths are only sent to clients that ask for them, so this behavior subscribes while it's active
+    private static boolean subscribed = false;
+
     public GridEdgeDebugBehavior(String name) {
         super(name);
     }
@@ -49,7 +53,13 @@ public class GridEdgeDebugBehavior extends ClientBehavior {
     @Override
     public boolean shouldTick(ClientLevel world, Player player, ItemStack mainHand, ItemStack offHand,
             Vec3 lookingPosition, BlockPos lookingBlockPos) {
-        return mainHand.getItem() instanceof DebugButter;
+        boolean active = mainHand.getItem() instanceof DebugButter;
+        if(active != subscribed) {
+            subscribed = active;
+            MechanoPackets.sendToServer(new GridPathSubscribeC2SPacket(active));
+            if(!active) GridClientCache.ofInstance().clearPaths();
+        }
+        return active;
     }
 
     @Override
@@ -93,6 +103,13 @@ public class GridEdgeDebugBehavior extends ClientBehavior {
         }
     }
 
+    /**
+     * Forgets this client's path subscription. Called when leaving a server, since the next server won't know about it.
+     */
+    public static void clearSubscription() {
+        subscribed = false;
+    }
+
     private void spawnParticles(Level world, SimpleParticleType type, BlockPos pos, int count) {
         Random r = new Random();
         for(int x = 0; x < count; x++) {
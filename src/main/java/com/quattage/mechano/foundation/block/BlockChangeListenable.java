@@ -2,7 +2,12 @@ package com.quattage.mechano.foundation.block;
 
 import javax.annotation.Nullable;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import com.quattage.mechano.Mechano;
+
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 
@@ -89,6 +94,43 @@ public interface BlockChangeListenable {
      */
     default void onAfterBlockPlaced(Level world, BlockPos pos, BlockState pastState, BlockState currentState) {};
 
+    /**
+     * Informs every {@link AdjacentChangeListenable <code>AdjacentChangeListenable</code>} BlockEntity next to the given position
+     * that the block at that position has changed. Unloaded neighbors are skipped rather than loaded.
+     * @param world World to operate within
+     * @param pos BlockPos of the block that changed
+     */
+    public static void notifyAdjacent(Level world, BlockPos pos) {
+        for(Direction dir : AdjacentChangeListenable.DIRECTIONS) {
+            BlockPos adjacent = pos.relative(dir);
+            if(!world.isLoaded(adjacent)) continue;
+            if(world.getBlockEntity(adjacent) instanceof AdjacentChangeListenable acl) {
+                try {
+                    acl.onAdjacentBlockChanged(world, pos, dir.getOpposite());
+                } catch (Exception e) {
+                    Mechano.LOGGER.error("Exception encountered processing adjacent block change: " + ExceptionUtils.getStackTrace(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Implemented by BlockEntities that need to know when a block next to them gains, loses, or replaces
+     * a BlockEntity. Invoked by {@link com.quattage.mechano.foundation.mixin.BlockUpdateMixin BlockUpdateMixin}
+     * on the logical server only, and only when the old or new BlockState at the changed position has a BlockEntity.
+     */
+    public interface AdjacentChangeListenable {
+
+        static final Direction[] DIRECTIONS = Direction.values();
+
+        /**
+         * @param world World to operate within
+         * @param changedPos BlockPos of the block that changed
+         * @param towards Direction from the implementing BlockEntity towards the changed block
+         */
+        void onAdjacentBlockChanged(Level world, BlockPos changedPos, Direction towards);
+    }
+
     public interface BlockPreUpdatable {
         abstract BlockState mechano_getPreState();
         abstract BlockChangeListenable mechano_getPreBCL();
@@ -102,7 +102,7 @@ public class EmbeddiumWireCompat {
 
                 int[] lightmap = WirePipeline.deriveLightmap(accessor, startPos, endPos);
                 WirePipeline.INSTANCE.renderStatic(
-                    new BakedModelHashKey(startPos, endPos), 
+                    new BakedModelHashKey(startPos, endPos, 1f, edge.getTypeID()), 
                     builder, matrixStack, wireOrigin, 
                     lightmap[0], lightmap[1], lightmap[2], lightmap[3], 
                     WireTextureProvider.getWireSprite(WireSpool.ofType(edge.getTypeID()))
@@ -172,12 +172,13 @@ public class AnchorPointBank<T extends BlockEntity> {
 
     public void destroy() {
         if(net == null) return;
-        for(AnchorPoint anchor : anchorPoints) {
-            GridVertex part = anchor.getParticipant();
-            if(part == null) net.findAndDestroyVertex(anchor.getID(), true);
-            else net.destroyVertex(part, true);
-            anchor.nullifyParticipant();
-        }
+        // blocks with several anchors are removed as one batch, so the grid is only split & re-pathed once
+        net.batch(batch -> {
+            for(AnchorPoint anchor : anchorPoints) {
+                batch.destroyVertex(anchor.getID());
+                anchor.nullifyParticipant();
+            }
+        });
     }
 
     public void forEachPath(Consumer<GridPath> operation) {
@@ -0,0 +1,61 @@
+package com.quattage.mechano.foundation.electricity;
+
+import com.quattage.mechano.MechanoSettings;
+
+/**
+ * Keeps track of which {@link WattBatteryHandler <code>WattBatteryHandlers</code>} are active and which are sleeping. <p>
+ * A handler falls asleep when a tick of {@link WattBatteryHandler#tickWatts() <code>tickWatts()</code>} couldn't move any energy,
+ * and skips its work until something wakes it up again. Handlers are woken when their stored watts change, when a neighbor or
+ * one of its capabilities changes, and when their mode changes. Since ForgeEnergy neighbors can't tell anyone when they've made room,
+ * sleeping handlers also wake on their own every {@link MechanoSettings#ELECTRIC_SLEEP_RECHECK_TICKS <code>ELECTRIC_SLEEP_RECHECK_TICKS</code>}. <p>
+ * Only server-side handlers are counted, and the counts are shown when a WireAnchorBlockEntity is inspected with the DebugButter.
+ */
+public class ElectricActivityScheduler {
+
+    private static int active = 0;
+    private static int sleeping = 0;
+
+    private ElectricActivityScheduler() {}
+
+    protected static void onRegistered(boolean isSleeping) {
+        if(isSleeping) sleeping++;
+        else active++;
+    }
+
+    protected static void onUnregistered(boolean wasSleeping) {
+        if(wasSleeping) sleeping = Math.max(0, sleeping - 1);
+        else active = Math.max(0, active - 1);
+    }
+
+    protected static void onSlept() {
+        active = Math.max(0, active - 1);
+        sleeping++;
+    }
+
+    protected static void onWoken() {
+        sleeping = Math.max(0, sleeping - 1);
+        active++;
+    }
+
+    /**
+     * @return The number of loaded server-side WattBatteryHandlers that are currently ticking
+     */
+    public static int getActiveCount() {
+        return active;
+    }
+
+    /**
+     * @return The number of loaded server-side WattBatteryHandlers that are currently sleeping
+     */
+    public static int getSleepingCount() {
+        return sleeping;
+    }
+
+    /**
+     * Resets both counts. Called when the server stops, since every handler is unloaded along with it.
+     */
+    public static void reset() {
+        active = 0;
+        sleeping = 0;
+    }
+}
@@ -5,11 +5,13 @@ import javax.annotation.Nullable;
 
 import com.quattage.mechano.Mechano;
 import com.quattage.mechano.MechanoSounds;
+import com.quattage.mechano.foundation.block.BlockChangeListenable.AdjacentChangeListenable;
 import com.quattage.mechano.foundation.electricity.impl.WireAnchorBlockEntity;
 import com.quattage.mechano.foundation.helper.builder.WattBatteryHandlerBuilder;
 import com.simibubi.create.AllSoundEvents.SoundEntry;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
@@ -19,7 +21,7 @@ import net.minecraft.world.level.block.state.BlockState;
  * It is required that any class which instantiates and uses a WattBatteryHandler 
  * implement the WattBatteryHandlable interface
  */
-public interface WattBatteryHandlable {
+public interface WattBatteryHandlable extends AdjacentChangeListenable {
 
     /**
      * Typically called in an implementing class's constructor to initiate a fluent chain in a subclass. 
@@ -44,6 +46,15 @@ public interface WattBatteryHandlable {
 
     abstract WattBatteryHandler<? extends WattBatteryHandlable> getWattBatteryHandler();
 
+    /**
+     * Forgets the capabilities the WattBatteryHandler has cached for adjacent blocks, so that they're looked up 
+     * again before they're next used.
+     */
+    @Override
+    default void onAdjacentBlockChanged(Level world, BlockPos changedPos, Direction towards) {
+        getWattBatteryHandler().invalidateAdjacents();
+    }
+
     /**
      * Sets the default mode of an implementing energy store.
      * To be called by implementing Block classes to
@@ -2,6 +2,7 @@ package com.quattage.mechano.foundation.electricity;
 
 import com.quattage.mechano.Mechano;
 import com.quattage.mechano.MechanoPackets;
+import com.quattage.mechano.MechanoSettings;
 import com.quattage.mechano.foundation.block.orientation.CombinedOrientation;
 import com.quattage.mechano.foundation.block.orientation.DirectionTransformer;
 import com.quattage.mechano.foundation.electricity.PowerJunction.ExternalInteractStatus;
@@ -11,23 +12,26 @@ import com.quattage.mechano.foundation.electricity.watt.DirectionalWattProvidabl
 import com.quattage.mechano.foundation.electricity.watt.WattSendSummary;
 import com.quattage.mechano.foundation.electricity.watt.WattStorable;
 import com.quattage.mechano.foundation.electricity.watt.WattBatteryBuilder.WattBatteryUnbuilt;
+import com.quattage.mechano.foundation.electricity.watt.unit.PackedWatts;
 import com.quattage.mechano.foundation.electricity.watt.unit.WattUnit;
 import com.quattage.mechano.foundation.electricity.watt.unit.WattUnitConversions;
 import com.quattage.mechano.foundation.helper.NullSortedArray;
 import com.quattage.mechano.foundation.network.WattModeSyncS2CPacket;
-import com.quattage.mechano.foundation.network.WattSyncS2CPacket;
 import com.simibubi.create.foundation.blockEntity.SmartBlockEntity;
 
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.energy.IEnergyStorage;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -44,6 +48,21 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
     public boolean canChangeMode = true;
     private final PowerJunction[] interactions;
 
+    // capabilities of adjacent blocks, rebuilt only when a neighbor changes
+    private final OptionalWattOrFE[] adjacents;
+    private final LazyOptional<?>[] listenedCaps;
+    private final float[] demandCache;
+    private int adjacentCount = 0;
+    private boolean adjacentsDirty = true;
+
+    private boolean sleeping = false;
+    private boolean registered = false;
+    private int ticksAsleep = 0;
+
+    // managed by the WattSyncScheduler
+    private float lastSyncedWatts = Float.NaN;
+    private long lastSyncTick = Long.MIN_VALUE / 2;
+
 
     private final WattStorable battery;
     private final T target;
@@ -53,6 +72,11 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
         this.target = target;
         this.interactions = interactions;
         this.battery = unbuilt.buildAndAttach(this);
+
+        int junctions = interactions == null ? 0 : interactions.length;
+        this.adjacents = new OptionalWattOrFE[junctions];
+        this.listenedCaps = new LazyOptional<?>[junctions * 2];
+        this.demandCache = new float[junctions];
     }
 
     /***
@@ -103,16 +127,98 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
      */
     public void tickWatts() {
 
-        if(!shouldExtractExternally()) return;
+        // only handlers that actually tick are counted
+        if(!registered) {
+            registered = true;
+            ElectricActivityScheduler.onRegistered(sleeping);
+        }
+
+        if(sleeping) {
+            if(++ticksAsleep < MechanoSettings.ELECTRIC_SLEEP_RECHECK_TICKS) return;
+            wake();
+        }
 
-        // TODO build this list with neighbor updates rather than every tick
-        final List<OptionalWattOrFE> adjacents = new ArrayList<>();
-        for(PowerJunction inter : interactions) {
-            OptionalWattOrFE opt = inter.getConnectedCapability(target);
-            if(opt.isPresent()) adjacents.add(opt);
+        if(!shouldExtractExternally()) {
+            sleep();
+            return;
         }
 
-        distributeEnergyTo(adjacents);
+        if(adjacentsDirty) resolveAdjacents();
+        float storedBefore = battery.getStoredWatts();
+        distributeEnergyTo(adjacents, adjacentCount);
+
+        // nothing could be sent, so there's no point trying again until something changes
+        if(battery.getStoredWatts() == storedBefore && !adjacentsDirty) sleep();
+    }
+
+    /**
+     * @return <code>TRUE</code> if this WattBatteryHandler is skipping its ticks until something changes.
+     * See {@link ElectricActivityScheduler <code>ElectricActivityScheduler</code>}
+     */
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    /**
+     * Makes this WattBatteryHandler resume ticking, if it was sleeping.
+     */
+    public void wake() {
+        ticksAsleep = 0;
+        if(!sleeping) return;
+        sleeping = false;
+        if(registered) ElectricActivityScheduler.onWoken();
+    }
+
+    private void sleep() {
+        ticksAsleep = 0;
+        if(sleeping) return;
+        sleeping = true;
+        if(registered) ElectricActivityScheduler.onSlept();
+    }
+
+    /**
+     * Marks the capabilities cached for adjacent blocks as stale, so that they're looked up again on the next tick.
+     * Called whenever a neighboring BlockEntity's capabilities are invalidated, whenever a neighboring 
+     * BlockEntity is placed or removed, and whenever this handler is rotated.
+     */
+    public void invalidateAdjacents() {
+        adjacentsDirty = true;
+        wake();
+    }
+
+    /**
+     * Looks up the capabilities of every block that this WattBatteryHandler's PowerJunctions face, and
+     * caches the ones that are present so that ticking doesn't have to touch the world. <p>
+     * A listener is attached to every capability found, so the cache is invalidated as soon as one of them goes away.
+     * Listeners are only attached once per capability, since a LazyOptional can't remove them again.
+     */
+    private void resolveAdjacents() {
+        adjacentsDirty = false;
+        adjacentCount = 0;
+        if(interactions == null || getWorld() == null) return;
+
+        for(int x = 0; x < interactions.length; x++) {
+            Direction dir = interactions[x].getDirection();
+            BlockPos pos = target.getBlockPos().relative(dir);
+            if(!getWorld().isLoaded(pos)) continue;
+
+            BlockEntity be = getWorld().getBlockEntity(pos);
+            if(be == null) continue;
+
+            LazyOptional<IEnergyStorage> fe = be.getCapability(ForgeCapabilities.ENERGY, dir.getOpposite());
+            LazyOptional<WattStorable> watts = be.getCapability(Mechano.CAPABILITIES.WATT_CAPABILITY);
+            listenTo(fe, x * 2);
+            listenTo(watts, x * 2 + 1);
+
+            OptionalWattOrFE opt = new OptionalWattOrFE(be, pos, fe.orElse(null), watts.orElse(null));
+            if(opt.isPresent()) adjacents[adjacentCount++] = opt;
+        }
+    }
+
+    private void listenTo(LazyOptional<?> cap, int slot) {
+        if(!cap.isPresent() || listenedCaps[slot] == cap) return;
+        listenedCaps[slot] = cap;
+        cap.addListener(invalidated -> invalidateAdjacents());
     }
     
     /**
@@ -121,20 +227,32 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
      * @param batteries Set of <code>OptionalWattOrFe</code> objects to distribute between
      */
     public void distributeEnergyTo(final List<OptionalWattOrFE> batteries) {
-
         if(batteries == null || batteries.isEmpty()) return;
+        distributeEnergyTo(batteries.toArray(new OptionalWattOrFE[0]), batteries.size());
+    }
+
+    /**
+     * Emits energy to the first <code>count</code> destination handlers in the given array.
+     * Prioritizes even distribution of energy to all destinations whenever possible.
+     * @param batteries Array of <code>OptionalWattOrFe</code> objects to distribute between
+     * @param count Number of entries in <code>batteries</code> to use
+     */
+    public void distributeEnergyTo(final OptionalWattOrFE[] batteries, int count) {
+
+        if(batteries == null || count == 0) return;
 
         float totalDemand = 0;
-        final float[] demands = new float[batteries.size()];
+        final float[] demands = count <= demandCache.length ? demandCache : new float[count];
 
-        for(int x = 0; x < batteries.size(); x++) {
-            OptionalWattOrFE acceptorOpt = batteries.get(x);
+        for(int x = 0; x < count; x++) {
+            OptionalWattOrFE acceptorOpt = batteries[x];
+            demands[x] = 0;
 
             if(acceptorOpt.getFECap() != null) {
                 demands[x] = WattUnitConversions.toWattsSimple(acceptorOpt.getFECap().receiveEnergy(Integer.MAX_VALUE, true));
                 totalDemand = Math.min(totalDemand + demands[x], Float.MAX_VALUE);
             } else if(acceptorOpt.getWattCap() != null) {
-                demands[x] = acceptorOpt.getWattCap().receiveWatts(WattUnit.MAX, true).getWatts();
+                demands[x] = PackedWatts.getWatts(acceptorOpt.getWattCap().receiveWatts(PackedWatts.MAX, true));
                 totalDemand = Math.min(totalDemand + demands[x], Float.MAX_VALUE);
             }
         }
@@ -142,71 +260,22 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
         if(totalDemand == 0) return;
         final float wattsToDistribute = Math.min(Math.min(battery.getMaxDischarge(), battery.getStoredWatts()), totalDemand);
 
-        for(int x = 0; x < batteries.size(); x++) {
+        for(int x = 0; x < count; x++) {
 
             if(demands[x] <= 0) continue;
-            OptionalWattOrFE acceptorOpt = batteries.get(x);
+            OptionalWattOrFE acceptorOpt = batteries[x];
 
             // Watts added to this iteration's energy store are multiplied by the distribution ratio
             float wattsToAccept = wattsToDistribute * ((float)demands[x] / totalDemand);
             wattsToAccept = Math.min(wattsToAccept, demands[x]);
 
             if(acceptorOpt.getFECap() != null) {
-                acceptorOpt.getFECap().receiveEnergy(WattUnitConversions.toFE(battery.extractWatts(WattUnit.of(battery.getFlux(), wattsToAccept), false)), false);
+                acceptorOpt.getFECap().receiveEnergy(WattUnitConversions.toFE(PackedWatts.getWatts(battery.extractWatts(PackedWatts.of(battery.getFlux(), wattsToAccept), false))), false);
             } else if(acceptorOpt.getWattCap() != null) {
-                acceptorOpt.getWattCap().receiveWatts(battery.extractWatts(WattUnit.of(battery.getFlux(), wattsToAccept), false), false);
+                acceptorOpt.getWattCap().receiveWatts(battery.extractWatts(PackedWatts.of(battery.getFlux(), wattsToAccept), false), false);
             }
             
             if(battery.getStoredWatts() <= 0) break;
-            x++;
-        }
-    }
-
-    /**
-     * Emits energy (specifically in this case, only Watts) to the destination handlers contained within a list
-     * of {@link WattSendSummary} objects. Used to send energy across traversed paths.
-     * Prioritizes even distribution of energy to all destinations whenever possible
-     * @param sends List of <code>WattSendSummary</code> objects containing paths to send across.
-     */
-    public synchronized void distributeWattsTo(final List<WattSendSummary> sends) {
-
-        float totalDemand = 0;
-        final float[] demands = new float[sends.size()];
-
-        int x = 0;
-        for(WattSendSummary acceptor : sends) {
-            float maxPathRate = acceptor.getAddressedPath().getMaxTransferRate();
-            if(WattUnit.hasNoPotential(maxPathRate)) 
-                demands[x] = 0;
-            else {
-                demands[x] = acceptor.getDestination().getEnergyHolder().receiveWatts(WattUnit.of(battery.getFlux(), maxPathRate), true).getWatts();
-                totalDemand += demands[x];
-            }
-            x++;
-        }
-
-        if(totalDemand == 0) return;
-        final float wattsToDistribute = Math.min(Math.min(battery.getMaxDischarge(), battery.getStoredWatts()), totalDemand);
-
-        x = 0;
-        for(WattSendSummary acceptor : sends) {
-            if(WattUnit.hasNoPotential(demands[x])) continue;
-        
-            // Watts added to this iteration's energy store are multiplied by the distribution ratio for even splitting
-            float wattsToAccept = Math.min(wattsToDistribute * (demands[x] / totalDemand), demands[x]);
-
-            WattUnit receieved = acceptor.getDestination().getEnergyHolder().receiveWatts(
-                battery.extractWatts(
-                        WattUnit.of(battery.getFlux(), acceptor.getAddressedPath().getMaxTransferRate())
-                            .getLowerStats(
-                                WattUnit.of(battery.getFlux().copy(), wattsToAccept)), 
-                    false
-                ), false
-            );
-
-            acceptor.getAddressedPath().addLoad(receieved.copy());
-            if(battery.getStoredWatts() <= 0) break;
-            x++;
         }
     }
 
@@ -255,13 +324,54 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
     }
 
     /**
-     * Called every time energy is added or removed from this WattBatteryHandler.
+     * Called every time energy is added or removed from this WattBatteryHandler. <p>
+     * On the server, the parent's chunk is marked as needing to be saved right away, so no change is ever lost to
+     * an unload or a save. Only the sync packet and the comparator update are left to the {@link WattSyncScheduler <code>WattSyncScheduler</code>}.
      */
     @Override
     public void onWattsUpdated(float oldStoredWatts, float newStoredWatts) {
+        wake();
         target.onWattsUpdated();
-        target.setChanged();
-        MechanoPackets.sendToAllClients(WattSyncS2CPacket.ofSource(battery, target.getBlockPos()));
+        if(getWorld() == null || getWorld().isClientSide()) {
+            target.setChanged();
+            return;
+        }
+        getWorld().blockEntityChanged(target.getBlockPos());
+        WattSyncScheduler.queue(this);
+    }
+
+    protected boolean isRemoved() {
+        return target.isRemoved();
+    }
+
+    protected BlockPos getBlockPos() {
+        return target.getBlockPos();
+    }
+
+    protected long getLastSyncTick() {
+        return lastSyncTick;
+    }
+
+    /**
+     * Called by the {@link WattSyncScheduler <code>WattSyncScheduler</code>} when this handler's sync interval has passed.
+     * Updates any comparators reading the parent block, and decides whether clients need to hear about the new stored watts.
+     * @param now Current game time
+     * @return <code>TRUE</code> if the stored watts have moved far enough since the last sync to be sent again.
+     * Reaching empty or full is always sent, so clients never show a battery as nearly empty when it's really empty.
+     */
+    protected boolean markSynced(long now) {
+        lastSyncTick = now;
+        BlockState state = target.getBlockState();
+        if(!state.isAir()) getWorld().updateNeighbourForOutputSignal(target.getBlockPos(), state.getBlock());
+
+        float stored = battery.getStoredWatts();
+        boolean atLimit = stored <= 0 || stored >= battery.getCapacity();
+        if(Float.isNaN(lastSyncedWatts) || Math.abs(stored - lastSyncedWatts) >= MechanoSettings.WATT_SYNC_EPSILON
+            || (atLimit && stored != lastSyncedWatts)) {
+            lastSyncedWatts = stored;
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -289,6 +399,10 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
      */
     public void invalidate() {
         energyHandler.invalidate();
+        if(registered) {
+            registered = false;
+            ElectricActivityScheduler.onUnregistered(sleeping);
+        }
     }
 
     /**
@@ -303,6 +417,7 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
         CombinedOrientation target = DirectionTransformer.extract(state);
         for(PowerJunction interaction : interactions)
             interaction.rotateToFace(target);
+        invalidateAdjacents();
         return this;
     }
 
@@ -316,6 +431,7 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
         battery.readFrom(in);
         mode = ExternalInteractMode.values()[in.getByte("mo")];
         canChangeMode = in.getBoolean("ccm");
+        wake();
     }
 
     /***
@@ -397,6 +513,7 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
         if(force || canChangeMode && this.mode != mode) {
             this.mode = mode;
             this.canChangeMode = !force;
+            wake();
             if(!(target instanceof WireAnchorBlockEntity wbe)) return;
             wbe.getAnchorBank().sync(target.getLevel());
             wbe.setChanged();
@@ -415,6 +532,7 @@ public class WattBatteryHandler<T extends SmartBlockEntity & WattBatteryHandlabl
         if(status.isLocked() || canChangeMode && this.mode != status.toCoorespondingMode()) {
             this.mode = status.toCoorespondingMode();
             this.canChangeMode = !status.isLocked();
+            wake();
             if(!(target instanceof WireAnchorBlockEntity wbe)) return;
             wbe.getAnchorBank().sync(target.getLevel());
             wbe.setChanged();
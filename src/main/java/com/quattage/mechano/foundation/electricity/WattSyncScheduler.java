@@ -0,0 +1,105 @@
+package com.quattage.mechano.foundation.electricity;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.quattage.mechano.Mechano;
+import com.quattage.mechano.MechanoPackets;
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.foundation.network.WattSyncBundleS2CPacket;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+/**
+ * The WattSyncScheduler throttles how often the stored watts of each {@link WattBatteryHandler <code>WattBatteryHandler</code>}
+ * are sent to clients. <p>
+ * Rather than sending a packet every time watts are received or extracted, handlers are queued here, and once per tick
+ * every queued handler whose last sync was at least {@link MechanoSettings#WATT_SYNC_INTERVAL <code>WATT_SYNC_INTERVAL</code>} ticks
+ * ago is flushed. Handlers whose stored watts haven't moved by more than {@link MechanoSettings#WATT_SYNC_EPSILON <code>WATT_SYNC_EPSILON</code>}
+ * aren't sent at all. Everything sent from the same chunk is bundled into one {@link WattSyncBundleS2CPacket <code>WattSyncBundleS2CPacket</code>},
+ * which only goes to players tracking that chunk. <p>
+ * Comparator updates are deferred to the flush as well. Marking the parent's chunk as changed is not, since a chunk that
+ * unloads or saves before the flush would otherwise lose the new stored watts.
+ */
+@EventBusSubscriber(modid = Mechano.MOD_ID)
+public class WattSyncScheduler {
+
+    private static final Map<ResourceKey<Level>, ReferenceLinkedOpenHashSet<WattBatteryHandler<?>>> queued = new HashMap<>();
+
+    private WattSyncScheduler() {}
+
+    /**
+     * Queues the given WattBatteryHandler to be synced once its interval has passed.
+     * Does nothing on the client.
+     */
+    public static void queue(WattBatteryHandler<?> handler) {
+        final Level world = handler.getWorld();
+        if(world == null || world.isClientSide()) return;
+        queued.computeIfAbsent(world.dimension(), dim -> new ReferenceLinkedOpenHashSet<>()).add(handler);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if(event.phase != TickEvent.Phase.END) return;
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(server == null) return;
+
+        for(Map.Entry<ResourceKey<Level>, ReferenceLinkedOpenHashSet<WattBatteryHandler<?>>> entry : queued.entrySet()) {
+            if(entry.getValue().isEmpty()) continue;
+            ServerLevel world = server.getLevel(entry.getKey());
+            if(world == null) entry.getValue().clear();
+            else flush(world, entry.getValue());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        queued.clear();
+    }
+
+    private static void flush(ServerLevel world, ReferenceLinkedOpenHashSet<WattBatteryHandler<?>> handlers) {
+
+        final long now = world.getGameTime();
+        final Long2ObjectOpenHashMap<WattSyncBundleS2CPacket.Builder> bundles = new Long2ObjectOpenHashMap<>();
+
+        final Iterator<WattBatteryHandler<?>> iterator = handlers.iterator();
+        while(iterator.hasNext()) {
+            WattBatteryHandler<?> handler = iterator.next();
+            if(handler.isRemoved()) {
+                iterator.remove();
+                continue;
+            }
+
+            // handlers that synced too recently stay queued until their interval has passed
+            if(now - handler.getLastSyncTick() < MechanoSettings.WATT_SYNC_INTERVAL) continue;
+            iterator.remove();
+            if(!handler.markSynced(now)) continue;
+
+            BlockPos pos = handler.getBlockPos();
+            bundles.computeIfAbsent(ChunkPos.asLong(pos), chunk -> new WattSyncBundleS2CPacket.Builder(new ChunkPos(pos)))
+                .add(pos, handler.getEnergyHolder().getStoredWatts());
+        }
+
+        for(Long2ObjectMap.Entry<WattSyncBundleS2CPacket.Builder> bundle : bundles.long2ObjectEntrySet()) {
+            long chunkPos = bundle.getLongKey();
+            LevelChunk chunk = world.getChunkSource().getChunkNow(ChunkPos.getX(chunkPos), ChunkPos.getZ(chunkPos));
+            if(chunk == null) continue;
+            MechanoPackets.sendToTrackingChunk(bundle.getValue().build(), chunk);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * The CompactGridGraph is a read-only, compressed sparse row (CSR) copy of a LocalTransferGrid. <p>
+ * Every GridVertex is given an int index, and adjacency is stored in flat primitive arrays, where the edges leaving
+ * vertex <code>v</code> occupy indices <code>firstEdge(v)</code> up to (but not including) <code>lastEdge(v)</code>.
+ * Each wire appears twice, once from each side. <p>
+ * No GridVertex or GridEdge is referenced by this graph. Each edge instead remembers where it sits in its source vertex's
+ * {@link GridVertex#links <code>links</code>}, so the GridEdge it was built from can be looked up again on the server thread. <p>
+ * Traversals over this graph (such as {@link CompactGridGraph#shortestPaths(int, float[], int[], LongHeapPriorityQueue) <code>shortestPaths()</code>})
+ * operate entirely on primitive arrays provided by the caller, so they don't allocate anything.
+ * Since this object is never modified after it is built, it can be freely shared between threads.
+ */
+public class CompactGridGraph {
+
+    private final Object2IntOpenHashMap<GID> indices;
+
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] slots;
+    private final float[] distances;
+    private final float[] capacities;
+
+    private CompactGridGraph(LocalTransferGrid grid) {
+
+        final int size = grid.size();
+        this.indices = new Object2IntOpenHashMap<>(size);
+        this.indices.defaultReturnValue(-1);
+        this.offsets = new int[size + 1];
+
+        final GridVertex[] verts = new GridVertex[size];
+        int edgeCount = 0;
+        int x = 0;
+        for(GridVertex vert : grid.allVerts()) {
+            verts[x] = vert;
+            indices.put(vert.getID(), x);
+            edgeCount += vert.links.size();
+            x++;
+        }
+
+        final int[] sources = new int[edgeCount];
+        final int[] targets = new int[edgeCount];
+        final int[] slots = new int[edgeCount];
+        final float[] distances = new float[edgeCount];
+        final float[] capacities = new float[edgeCount];
+
+        int e = 0;
+        for(int v = 0; v < size; v++) {
+            offsets[v] = e;
+            final GridVertex vert = verts[v];
+            for(int slot = 0; slot < vert.links.size(); slot++) {
+                final GridEdge link = vert.links.get(slot);
+                if(!link.canTransfer()) continue;
+                int target = indices.getInt(link.getDestinationVertex().getID());
+                if(target < 0) continue;
+                sources[e] = v;
+                targets[e] = target;
+                slots[e] = slot;
+                distances[e] = link.getDistance();
+                capacities[e] = link.getMaximumWatts();
+                e++;
+            }
+        }
+        offsets[size] = e;
+
+        // edges that can't transfer are skipped, so the arrays may have room to spare
+        this.sources = e == edgeCount ? sources : Arrays.copyOf(sources, e);
+        this.targets = e == edgeCount ? targets : Arrays.copyOf(targets, e);
+        this.slots = e == edgeCount ? slots : Arrays.copyOf(slots, e);
+        this.distances = e == edgeCount ? distances : Arrays.copyOf(distances, e);
+        this.capacities = e == edgeCount ? capacities : Arrays.copyOf(capacities, e);
+    }
+
+    private CompactGridGraph(int[] offsets, int[] sources, int[] targets, float[] distances, float[] capacities) {
+        this.indices = new Object2IntOpenHashMap<>();
+        this.indices.defaultReturnValue(-1);
+        this.offsets = offsets;
+        this.sources = sources;
+        this.targets = targets;
+        this.slots = new int[targets.length];
+        this.distances = distances;
+        this.capacities = capacities;
+    }
+
+    /**
+     * Builds a CompactGridGraph straight from a list of wires, without any LocalTransferGrid behind it.
+     * Only meant for tests and benchmarks, since the resulting graph has no GIDs and can't look up GridEdges.
+     * @param size The amount of vertices
+     * @param ends Two vertex indices for every wire, one for each end
+     * @param distances The length of every wire
+     * @param capacities The maximum watts every wire can carry
+     * @return A new CompactGridGraph, where each wire appears once from each side
+     */
+    static CompactGridGraph ofWires(int size, int[] ends, float[] distances, float[] capacities) {
+        final int wires = distances.length;
+        if(ends.length != wires * 2 || capacities.length != wires)
+            throw new IllegalArgumentException("Error building CompactGridGraph - Every wire needs two ends, a distance, and a capacity!");
+
+        final int[] offsets = new int[size + 1];
+        for(int end : ends) offsets[end + 1]++;
+        for(int v = 0; v < size; v++) offsets[v + 1] += offsets[v];
+
+        final int[] fill = Arrays.copyOf(offsets, size);
+        final int[] sources = new int[wires * 2];
+        final int[] targets = new int[wires * 2];
+        final float[] edgeDistances = new float[wires * 2];
+        final float[] edgeCapacities = new float[wires * 2];
+        for(int w = 0; w < wires; w++) {
+            for(int side = 0; side < 2; side++) {
+                int from = ends[w * 2 + side];
+                int e = fill[from]++;
+                sources[e] = from;
+                targets[e] = ends[w * 2 + 1 - side];
+                edgeDistances[e] = distances[w];
+                edgeCapacities[e] = capacities[w];
+            }
+        }
+        return new CompactGridGraph(offsets, sources, targets, edgeDistances, edgeCapacities);
+    }
+
+    /**
+     * Builds a CompactGridGraph from the current state of the given LocalTransferGrid.
+     * Must be called on the server thread.
+     * @param grid LocalTransferGrid to copy
+     * @return A new CompactGridGraph
+     */
+    public static CompactGridGraph of(LocalTransferGrid grid) {
+        if(grid == null) throw new NullPointerException("Error building CompactGridGraph - The provided LocalTransferGrid is null!");
+        return new CompactGridGraph(grid);
+    }
+
+    /**
+     * Finds the shortest distance from <code>source</code> to every vertex in this graph using Dijkstra's algorithm.
+     * No objects are allocated by this call, all state is stored in the provided arrays.
+     * @param source Index of the vertex to start from
+     * @param dist Array of at least {@link CompactGridGraph#size() <code>size()</code>} floats. Populated with each vertex's distance
+     * from the source, or <code>Float.MAX_VALUE</code> if the vertex can't be reached.
+     * @param predEdge Array of at least {@link CompactGridGraph#size() <code>size()</code>} ints. Populated with the index of the edge
+     * used to reach each vertex, or <code>-1</code> if the vertex can't be reached (or is the source).
+     * @param open Heap to use during the search. Its contents are cleared.
+     */
+    public void shortestPaths(int source, float[] dist, int[] predEdge, LongHeapPriorityQueue open) {
+
+        final int size = size();
+        Arrays.fill(dist, 0, size, Float.MAX_VALUE);
+        Arrays.fill(predEdge, 0, size, -1);
+        dist[source] = 0;
+        open.clear();
+        open.enqueue(pack(0, source));
+
+        while(!open.isEmpty()) {
+            long entry = open.dequeueLong();
+            int local = (int)entry;
+            float localDist = Float.intBitsToFloat((int)(entry >>> 32));
+
+            // stale entry, a shorter distance was already found for this vertex
+            if(localDist > dist[local]) continue;
+
+            for(int e = offsets[local]; e < offsets[local + 1]; e++) {
+                int neighbor = targets[e];
+                float tentative = localDist + distances[e];
+                if(tentative < dist[neighbor]) {
+                    dist[neighbor] = tentative;
+                    predEdge[neighbor] = e;
+                    open.enqueue(pack(tentative, neighbor));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the edges between <code>target</code> and the vertex that a search was started from, using the predecessor edges
+     * populated by {@link CompactGridGraph#shortestPaths(int, float[], int[], LongHeapPriorityQueue) <code>shortestPaths()</code>}.
+     * @param target Index of the vertex to unwind from
+     * @param predEdge Predecessor edges from the search
+     * @return The amount of edges along the path, or <code>0</code> if the target was never reached (or is the origin).
+     */
+    public int countHops(int target, int[] predEdge) {
+        int hops = 0;
+        for(int current = target; predEdge[current] >= 0; current = sources[predEdge[current]])
+            hops++;
+        return hops;
+    }
+
+    /**
+     * Builds a GridPath leading from <code>target</code> back to the vertex that a search was started from, using the
+     * predecessor edges populated by {@link CompactGridGraph#shortestPaths(int, float[], int[], LongHeapPriorityQueue) <code>shortestPaths()</code>}.
+     * Every leap is looked up on the live GridVertex it starts from, so this must be called on the server thread,
+     * before the LocalTransferGrid this graph was built from has changed.
+     * @param target GridVertex to unwind from
+     * @param predEdge Predecessor edges from the search
+     * @return A new GridPath, or null if the target was never reached (or is the origin).
+     */
+    @Nullable
+    public GridPath unwindPath(GridVertex target, int[] predEdge) {
+        int current = indexOf(target.getID());
+        if(current < 0) return null;
+
+        final int hops = countHops(current, predEdge);
+        if(hops == 0) return null;
+
+        final GridEdge[] members = new GridEdge[hops];
+        float lowestWatts = Float.MAX_VALUE;
+        GridVertex local = target;
+        for(int x = 0; x < hops; x++) {
+            current = sources[predEdge[current]];
+            GridEdge leap = findLeap(local, current);
+            if(leap == null) return null;
+            members[x] = leap;
+            lowestWatts = Math.min(lowestWatts, leap.getMaximumWatts());
+            local = leap.getDestinationVertex();
+        }
+        return new GridPath(members, lowestWatts);
+    }
+
+    /**
+     * Finds the link leaving the given GridVertex that leads to the vertex at index <code>to</code>.
+     * Must be called on the server thread.
+     * @param from GridVertex to search the links of
+     * @param to Index of the destination vertex
+     * @return The GridEdge, or null if <code>from</code> has no such link
+     */
+    @Nullable
+    public GridEdge findLeap(GridVertex from, int to) {
+        for(int x = 0; x < from.links.size(); x++) {
+            GridEdge link = from.links.get(x);
+            if(indices.getInt(link.getDestinationVertex().getID()) == to) return link;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the GridEdge that edge <code>e</code> of this graph was built from. Must be called on the server thread.
+     * @param e Index of the edge
+     * @param source The live GridVertex at index {@link CompactGridGraph#getEdgeSource(int) <code>getEdgeSource(e)</code>}
+     * @return The GridEdge, or null if it no longer exists.
+     */
+    @Nullable
+    public GridEdge getEdge(int e, GridVertex source) {
+        final int slot = slots[e];
+        if(slot < source.links.size()) {
+            GridEdge link = source.links.get(slot);
+            if(indices.getInt(link.getDestinationVertex().getID()) == targets[e]) return link;
+        }
+        // the vertex has been relinked since this graph was built, so its slot can't be trusted
+        return findLeap(source, targets[e]);
+    }
+
+    /**
+     * Collects every GridVertex of the given LocalTransferGrid by its index in this graph. The result must not be
+     * held on to across changes to the grid. Must be called on the server thread.
+     * @param grid The LocalTransferGrid this graph was built from
+     * @return An array of {@link CompactGridGraph#size() <code>size()</code>} vertices
+     */
+    public GridVertex[] collectVertices(LocalTransferGrid grid) {
+        final GridVertex[] out = new GridVertex[size()];
+        for(GridVertex vert : grid.allVerts()) {
+            int v = indices.getInt(vert.getID());
+            if(v >= 0) out[v] = vert;
+        }
+        return out;
+    }
+
+    // distances are never negative, so their raw bits sort in the same order as the floats themselves
+    private static long pack(float dist, int vert) {
+        return ((long)Float.floatToIntBits(dist) << 32) | (vert & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return The amount of vertices in this graph
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return The amount of directed edges in this graph (twice the amount of wires)
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return The index of the vertex at the given GID, or <code>-1</code> if it isn't in this graph.
+     */
+    public int indexOf(GID id) {
+        return indices.getInt(id);
+    }
+
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    public int lastEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    public int getEdgeSource(int e) {
+        return sources[e];
+    }
+
+    public int getEdgeTarget(int e) {
+        return targets[e];
+    }
+
+    public float getEdgeDistance(int e) {
+        return distances[e];
+    }
+
+    public float getEdgeCapacity(int e) {
+        return capacities[e];
+    }
+
+    /**
+     * Finds the edge that runs opposite to the given edge (the other half of the same wire) by searching
+     * the edges of its target vertex.
+     * @return The index of the twin edge, or <code>-1</code> if it isn't in this graph.
+     */
+    public int getEdgeTwin(int e) {
+        final int target = targets[e];
+        final int source = sources[e];
+        for(int x = offsets[target]; x < offsets[target + 1]; x++)
+            if(targets[x] == source) return x;
+        return -1;
+    }
+}
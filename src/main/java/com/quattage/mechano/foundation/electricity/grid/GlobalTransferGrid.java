@@ -2,26 +2,38 @@
 package com.quattage.mechano.foundation.electricity.grid;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
 
 import com.quattage.mechano.Mechano;
+import com.quattage.mechano.MechanoSettings;
 import com.quattage.mechano.foundation.block.anchor.AnchorPoint;
+import com.quattage.mechano.foundation.electricity.grid.GridFlowSolver.FlowProblem;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridClientEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncHelper;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncPacketType;
 import com.quattage.mechano.foundation.electricity.impl.WireAnchorBlockEntity;
 import com.simibubi.create.foundation.utility.Pair;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.common.util.LazyOptional;
@@ -35,7 +47,16 @@ import net.minecraftforge.common.util.LazyOptional;
 public class GlobalTransferGrid {
 
     private final ArrayList<LocalTransferGrid> subgrids = new ArrayList<LocalTransferGrid>();
+
+    // maps every GID in this GlobalTransferGrid to the LocalTransferGrid that owns it, and every chunk to the GIDs
+    // inside of it, so lookups don't have to iterate over every subgrid
+    private final GridIndex<LocalTransferGrid> index = new GridIndex<>();
+
+    // chunks that have loaded since the last tick and hold vertices that may still be awaiting their hosts
+    private final LongOpenHashSet pendingHostChunks = new LongOpenHashSet();
     private final Level world;
+    private final GridRegionStorage storage;
+    private long lastSaveNanos = 0;
 
     public GlobalTransferGrid(Level world) {
         if(world == null)
@@ -43,6 +64,7 @@ public class GlobalTransferGrid {
         if(world.isClientSide)
             throw new IllegalStateException("Error instantiating new GlobalTransferGrid - GlobalTransferGrid cannot be registered on the client!");
         this.world = world;
+        this.storage = new GridRegionStorage(this);
     }
 
     public static GlobalTransferGrid of(Level world) {
@@ -58,31 +80,154 @@ public class GlobalTransferGrid {
     protected void readFrom(CompoundTag in) {
         CompoundTag net = in.getCompound(getDimensionName());
 
+        // grids saved before regional storage are loaded all at once, and are split into regions on the next save
+        if(!net.contains("all", Tag.TAG_LIST)) {
+            storage.readFrom(net);
+            Mechano.LOGGER.info("Global network in [" + getDimensionName() + "] has " + storage.getStoredCount() + " stored TransferNetworks, which will load alongside their chunks");
+            return;
+        }
+
         ListTag subs = net.getList("all", Tag.TAG_COMPOUND);
         Mechano.LOGGER.warn("Global network in [" + getDimensionName() + "] is reading " + subs.size() + " TransferNetworks from NBT");
 
         for(int x = 0; x < subs.size(); x++) {
             CompoundTag subsystem = subs.getCompound(x);
-            Mechano.LOGGER.info("Adding a LocalTransferGrid containing the following data:\n" + subsystem);
-            LocalTransferGrid sysToAdd = new LocalTransferGrid(this, subsystem, world);
-            if(!sysToAdd.isEmpty()) subgrids.add(sysToAdd); 
+            adopt(new LocalTransferGrid(this, subsystem, world));
         }
+
+        // subgrids that couldn't be read back out of their region files when this was saved are still waiting there
+        storage.readUnloaded(net);
     }
 
+    /**
+     * Writes this GlobalTransferGrid to NBT. With {@link MechanoSettings#REGIONAL_GRID_STORAGE <code>REGIONAL_GRID_STORAGE</code>}, 
+     * subgrids are written to their region files by the {@link GridRegionStorage <code>GridRegionStorage</code>}, and only a summary 
+     * of them is written here. Subgrids that don't have any loaded chunks left are dropped from memory afterwards. <p>
+     * Either way, only subgrids that have changed since the last save are serialized again.
+     */
     public CompoundTag writeTo(CompoundTag in) {
+        final long start = System.nanoTime();
+        final int resident = subgrids.size();
         CompoundTag out = new CompoundTag();
-        out.put("all", writeAllSubsystems());
+
+        int written;
+        if(MechanoSettings.REGIONAL_GRID_STORAGE && storage.isAvailable()) {
+            written = storage.save(subgrids);
+            if(written >= 0) evictUnloaded();
+            storage.writeTo(out);
+        } else {
+            written = 0;
+            for(LocalTransferGrid grid : subgrids)
+                if(grid.isDirty()) written++;
+
+            // subgrids that are only on disk have to be carried over, or switching away from regional storage would lose them
+            final ListTag all = writeAllSubsystems();
+            if(storage.collectUnloaded(all) < 0) storage.writeTo(out, true);
+            out.put("all", all);
+        }
+    
         in.put(getDimensionName(), out);
+
+        lastSaveNanos = System.nanoTime() - start;
+        if(written != 0) {
+            Mechano.LOGGER.info("Saved GlobalTransferGrid(" + getDimensionName() + ") in " + String.format("%.2f", lastSaveNanos / 1000000d) 
+                + "ms - wrote " + (written < 0 ? "nothing (failed)" : written + " of " + resident + " subgrids"));
+        }
         return in;
     }
 
     private ListTag writeAllSubsystems() {
         ListTag out = new ListTag();
         for(LocalTransferGrid grid : subgrids)
-            out.add(grid.writeTo(new CompoundTag()));
+            out.add(grid.serialize());
         return out;
     }
 
+    /**
+     * @return How long the most recent call to {@link GlobalTransferGrid#writeTo(CompoundTag) <code>writeTo()</code>} took, in nanoseconds
+     */
+    public long getLastSaveNanos() {
+        return lastSaveNanos;
+    }
+
+    /**
+     * Adds a LocalTransferGrid that was read from storage to this GlobalTransferGrid. Empty grids are ignored.
+     */
+    protected void adopt(LocalTransferGrid grid) {
+        if(grid.isEmpty()) return;
+        subgrids.add(grid); 
+        indexGrid(grid);
+    }
+
+    /**
+     * Loads every stored subgrid near a chunk that has loaded since the last call. 
+     * Called at the start of every tick, and before anything that could link to a subgrid that isn't loaded yet.
+     */
+    public void loadPendingRegions() {
+        storage.loadPending();
+        resolvePendingHosts();
+    }
+
+    /**
+     * Called whenever a chunk in this GlobalTransferGrid's world loads. Nothing is read or resolved until the start of the next tick.
+     */
+    protected void onChunkLoaded(ChunkPos chunk) {
+        storage.onChunkLoaded(chunk);
+        if(index.hasChunk(chunk.toLong())) pendingHostChunks.add(chunk.toLong());
+    }
+
+    // vertices that were read while their chunk wasn't loaded are given their hosts once it is
+    private void resolvePendingHosts() {
+        if(pendingHostChunks.isEmpty()) return;
+
+        final List<GridVertex> missing = new ArrayList<>();
+        for(long chunk : pendingHostChunks) {
+            final Set<GID> inChunk = index.getInChunk(chunk);
+            if(inChunk == null) continue;
+
+            for(GID id : inChunk) {
+                final GridVertex vert = getVertAt(id);
+                if(vert == null || !vert.isAwaitingHost()) continue;
+                if(!vert.resolveHost(world)) {
+                    missing.add(vert);
+                    continue;
+                }
+                if(vert.hasNoHost()) continue;
+
+                vert.doSimplifiedSync();
+                // members that were unreachable while the grid was pathed are pathed now
+                final Set<GridPath> paths = vert.getConnectedPaths();
+                if(vert.isMember() && (paths == null || paths.isEmpty())) vert.getOrFindParent().requestPathsFrom(vert);
+            }
+        }
+        pendingHostChunks.clear();
+
+        for(GridVertex vert : missing) {
+            Mechano.LOGGER.warn("GridVertex at " + vert.getID() + " no longer has a WireAnchorBlockEntity, removing it");
+            findAndDestroyVertex(vert.getID(), true);
+        }
+    }
+
+    // drops every subgrid that was just saved and no longer has any loaded chunks, keeping only the storage's summary of it
+    private void evictUnloaded() {
+        final Set<LocalTransferGrid> evicted = new ObjectOpenHashSet<>();
+        for(LocalTransferGrid grid : subgrids) {
+            if(grid.isSolvePending() || grid.isDirty() || !storage.isFullyUnloaded(grid)) continue;
+            evicted.add(grid);
+            storage.release(grid);
+            for(GridVertex vert : grid.allVerts())
+                unindexVert(vert.getID(), grid);
+        }
+
+        if(evicted.isEmpty()) return;
+        subgrids.removeIf(evicted::contains);
+        Mechano.LOGGER.info("Unloaded " + evicted.size() + " TransferNetworks from GlobalTransferGrid(" + getDimensionName() + ")");
+    }
+
+    public GridRegionStorage getStorage() {
+        return storage;
+    }
+
     public String getDimensionName() { 
         if(world == null) return "NONE";
         return world.dimension().location().toString();
@@ -100,8 +245,36 @@ public class GlobalTransferGrid {
      * @param idB
      */
     public LinkResult link(Entity linker, GID idA, GID idB, int typeID) {
-        Pair<Integer, LocalTransferGrid> sysA = getSystemContaining(idA);
-        Pair<Integer, LocalTransferGrid> sysB = getSystemContaining(idB);
+        return link(linker, idA, idB, typeID, null);
+    }
+
+    /**
+     * Performs a series of links, unlinks, and removals as a single operation. Every mutation is applied first,
+     * then grids are split (only where needed) in one pass, paths are solved once per affected LocalTransferGrid, 
+     * and every resulting update is sent to players alongside the rest of the tick's changes. <p>
+     * This should be preferred whenever many changes are made at once, such as when schematics are placed or contraptions are moved.
+     * <pre>
+     * grid.batch(b -> {
+     *     b.link(player, idA, idB, typeID);
+     *     b.unlink(idC, idD);
+     * });
+     * </pre>
+     * @param mutations Consumer that populates the batch
+     */
+    public void batch(Consumer<GridBatch> mutations) {
+        if(mutations == null) throw new NullPointerException("Error performing GlobalTransferGrid batch - Mutations cannot be null!");
+        final GridBatch batch = new GridBatch(this);
+        mutations.accept(batch);
+        batch.apply();
+    }
+
+    protected LinkResult link(Entity linker, GID idA, GID idB, int typeID, @Nullable GridBatch batch) {
+        final boolean shouldPath = batch == null;
+
+        // either end could belong to a subgrid whose chunk loaded this tick
+        loadPendingRegions();
+        LocalTransferGrid sysA = getGridContaining(idA);
+        LocalTransferGrid sysB = getGridContaining(idB);
 
         if(idA.equals(idB)) return LinkResult.GENERIC;
         //if(getLinkBetween(idA, idB) != null) return AnchorInteractType.LINK_EXISTS;
@@ -119,36 +292,43 @@ public class GlobalTransferGrid {
 
             newSystem.addVert(vA);
             newSystem.addVert(vB);
-            newSystem.linkVerts(vA, vB, typeID, true);
+            newSystem.linkVerts(vA, vB, typeID, shouldPath);
             subgrids.add(newSystem);
+            indexVert(idA, newSystem);
+            indexVert(idB, newSystem);
 
         } else if(sysA != null && sysB == null) {
             
-            sysA.getSecond().addVert(new GridVertex(wbeB, sysA.getSecond(), idB));
-            sysA.getSecond().linkVerts(idA, idB, typeID, true);
+            sysA.addVert(new GridVertex(wbeB, sysA, idB));
+            indexVert(idB, sysA);
+            sysA.linkVerts(idA, idB, typeID, shouldPath);
 
         } else if(sysA == null && sysB != null) {
-            sysB.getSecond().addVert(new GridVertex(wbeA, sysB.getSecond(), idA));
-            sysB.getSecond().linkVerts(idA, idB, typeID, true);
+            sysB.addVert(new GridVertex(wbeA, sysB, idA));
+            indexVert(idA, sysB);
+            sysB.linkVerts(idA, idB, typeID, shouldPath);
 
-        } else if(sysA.getFirst() == sysB.getFirst()) {
-            if(!sysA.getSecond().linkVerts(idA, idB, typeID, true))
+        } else if(sysA == sysB) {
+            if(!sysA.linkVerts(idA, idB, typeID, shouldPath))
                 return LinkResult.ALREADY_EXISTS;
 
-        } else if(sysA.getFirst() != sysB.getFirst()) {
+        } else {
 
-            subgrids.remove((int)sysA.getFirst());
-            subgrids.remove(sysB.getSecond());
-            LocalTransferGrid merged = LocalTransferGrid.ofMerged(this, true, sysA.getSecond(), sysB.getSecond());
-            merged.linkVerts(idA, idB, typeID, false);
-            merged.findAllPaths(true); 
+            // union by size - only the smaller grid's vertices need to be moved and re-indexed
+            LocalTransferGrid larger = sysA.size() >= sysB.size() ? sysA : sysB;
+            LocalTransferGrid smaller = larger == sysA ? sysB : sysA;
 
-            subgrids.add(merged);
+            subgrids.remove(smaller);
+            larger.absorb(smaller, true);
+            indexGrid(larger, smaller);
+            larger.linkVerts(idA, idB, typeID, shouldPath);
         }
 
+        if(batch != null) batch.markDirty(idA);
+
         String entity = linker instanceof Player p ? p.getName().getString() : linker.toString();
         Mechano.LOGGER.info("Link (" + idA + " -> " + idB + ") established by player '" + entity + "'' in GlobalTransferGrid(" + getDimensionName() + ")");
-        GridSyncHelper.informPlayerEdgeUpdate(GridSyncPacketType.ADD_NEW, new GridClientEdge(idA, idB, typeID));
+        GridSyncHelper.informPlayerEdgeUpdate(world, GridSyncPacketType.ADD_NEW, new GridClientEdge(idA, idB, typeID));
         return LinkResult.SUCCESS;
     }
 
@@ -158,9 +338,13 @@ public class GlobalTransferGrid {
      * @param linkOne
      * @param linkTwo
      * @param clean (Defaults to true, reccomended) If true, the network
-     * will be declusterized at the end of the unlinking operation.
+     * will be split at the end of the unlinking operation if the removed link disconnected it.
      */
     public void unlink(GID linkOne, GID linkTwo, boolean clean) {
+        unlink(linkOne, linkTwo, clean, null);
+    }
+
+    protected void unlink(GID linkOne, GID linkTwo, boolean clean, @Nullable GridBatch batch) {
         GridVertex vertOne = getVertAt(linkOne);
         GridVertex vertTwo = getVertAt(linkTwo);
         if(vertOne == null) throw new NullPointerException("Failed to unlink GridVertex from a global context - " + 
@@ -169,40 +353,72 @@ public class GlobalTransferGrid {
         if(vertTwo == null) throw new NullPointerException("Failed to unlink GridVertex from a global context - " + 
             "No valid GridVertex at " + linkTwo + " could be found! (second provided parameter)");
 
-        vertOne.popLink(vertTwo);
-        vertTwo.popLink(vertOne);
-
-        if(clean) declusterize();
+        LocalTransferGrid grid = getGridContaining(linkOne);
+        if(grid != null && grid.hasVertAt(linkTwo))
+            grid.unlinkVerts(linkOne, linkTwo, batch == null);
+        else {
+            vertOne.popLink(vertTwo);
+            vertTwo.popLink(vertOne);
+        }
 
+        if(batch != null) batch.addSplitEndpoints(List.of(vertOne, vertTwo));
+        else if(clean) splitAround(grid, List.of(vertOne, vertTwo));
     }
 
     public void findAndDestroyVertex(GID id, boolean shouldClean) {
-        for(LocalTransferGrid grid : subgrids) {
-            GridVertex vert = grid.popVert(id);
-            if(vert != null) {
-                declusterize(vert.getOrFindParent());
-                return;
-            }
-        }
+        findAndDestroyVertex(id, null);
+    }
+
+    protected void findAndDestroyVertex(GID id, @Nullable GridBatch batch) {
+        LocalTransferGrid grid = getGridContaining(id);
+        if(grid == null) return;
+        GridVertex popped = grid.popVert(id, batch == null);
+        if(popped == null) return;
+        if(batch != null) batch.addSplitEndpoints(getNeighbors(popped));
+        else splitAround(grid, getNeighbors(popped));
     }
 
     public void destroyVertex(GridVertex vert, boolean shouldClean) {
-        if((vert.getOrFindParent().popVert(vert.getID()) != null) && shouldClean)
-            declusterize(vert.getOrFindParent());
+        LocalTransferGrid grid = vert.getOrFindParent();
+        GridVertex popped = grid.popVert(vert.getID());
+        if((popped != null) && shouldClean)
+            splitAround(grid, getNeighbors(popped));
     }
 
-    /***
-     * Splits LocalTransferGrids by their discontinuities.
-     * Called automatically whenever a node is removed
-     * from the system.
+    private List<GridVertex> getNeighbors(GridVertex vert) {
+        List<GridVertex> out = new ArrayList<>(vert.links.size());
+        for(GridEdge link : vert.links)
+            out.add(link.getDestinationVertex());
+        return out;
+    }
+
+    /**
+     * Splits the given LocalTransferGrid only if removing something between the given endpoints disconnected it.
+     * See {@link LocalTransferGrid#splitAround(Collection) <code>LocalTransferGrid.splitAround()</code>}.
+     * Any resulting grids that are too small to hold an edge are discarded.
+     * @param grid Grid to split
+     * @param endpoints GridVertices that were adjacent to whatever was removed
      */
-    private void declusterize() {
-        ArrayList<LocalTransferGrid> evaluated = new ArrayList<>();
-        for(LocalTransferGrid grid : subgrids) 
-            evaluated.addAll(grid.trySplit());
-        subgrids.clear();
-        subgrids.addAll(evaluated);
-    } 
+    protected void splitAround(@Nullable LocalTransferGrid grid, Collection<GridVertex> endpoints) {
+        if(grid == null) return;
+
+        for(LocalTransferGrid split : grid.splitAround(endpoints)) {
+            indexGrid(split);
+            if(split.size() > 1) subgrids.add(split);
+            else discard(split);
+        }
+
+        if(grid.size() < 2) {
+            subgrids.remove(grid);
+            discard(grid);
+        }
+    }
+
+    // removes whatever is left of a grid that can no longer hold any edges
+    private void discard(LocalTransferGrid grid) {
+        for(GridVertex vert : new ArrayList<>(grid.allVerts()))
+            grid.popVert(vert.getID());
+    }
 
     /***
      * Splits a given LocalTransferGrid by its discontinuities.
@@ -213,29 +429,115 @@ public class GlobalTransferGrid {
         evaluated.addAll(grid.trySplit());
         subgrids.remove(grid);
         subgrids.addAll(evaluated);
+
+        // vertices that were discarded by the split shouldn't stay indexed
+        for(GridVertex vert : grid.allVerts())
+            unindexVert(vert.getID(), grid);
+        for(LocalTransferGrid cluster : evaluated)
+            indexGrid(cluster);
     }
 
     /***
      * Gets the LocalTransferGrid that contains the given id, or null of one does not exist.
+     * Prefer {@link GlobalTransferGrid#getGridContaining(GID) <code>getGridContaining()</code>} 
+     * when the index of the LocalTransferGrid isn't needed, as finding the index requires iteration.
      * @param id
      * @return A pair, where the first member is the index of the LocalTransferGrid,
      * and the second member is the LocalTransferGrid itself
      */
     public Pair<Integer, LocalTransferGrid> getSystemContaining(GID id) {
-        int x = 0;
-        for(LocalTransferGrid grid : subgrids) {
-            if(grid.getVertAt(id) != null) return Pair.of(x, grid);
-            x++;
-        }
-        return null;
+        LocalTransferGrid grid = getGridContaining(id);
+        if(grid == null) return null;
+        return Pair.of(subgrids.indexOf(grid), grid);
+    }
+
+    /***
+     * Gets the LocalTransferGrid that contains the given id, or null if one does not exist.
+     * This is a single hash lookup, and doesn't iterate over any subgrids.
+     * @param id GID to look for
+     * @return The LocalTransferGrid that owns the GridVertex at <code>id</code>
+     */
+    @Nullable
+    public LocalTransferGrid getGridContaining(GID id) {
+        if(id == null) return null;
+        return index.get(id);
     }
 
+    @Nullable
     public GridVertex getVertAt(GID id) {
-        for(LocalTransferGrid grid : subgrids) {
-            GridVertex node = grid.getVertAt(id);
-            if(node != null) return node;
+        LocalTransferGrid grid = getGridContaining(id);
+        if(grid == null) return null;
+        return grid.getVertAt(id);
+    }
+
+    // re-indexes only the vertices that were moved from one grid to another
+    private void indexGrid(LocalTransferGrid grid, LocalTransferGrid movedFrom) {
+        for(GridVertex vert : movedFrom.allVerts())
+            indexVert(vert.getID(), grid);
+    }
+
+    /**
+     * Maps every GridVertex in the given LocalTransferGrid to said LocalTransferGrid
+     * in this GlobalTransferGrid's vertex index.
+     */
+    private void indexGrid(LocalTransferGrid grid) {
+        for(GridVertex vert : grid.allVerts())
+            indexVert(vert.getID(), grid);
+    }
+
+    private void indexVert(GID id, LocalTransferGrid grid) {
+        index.put(id, grid);
+    }
+
+    private void unindexVert(GID id, LocalTransferGrid grid) {
+        index.remove(id, grid);
+    }
+
+    /**
+     * Gets every GridEdge that starts or ends in the given chunk. Edges that cross between two chunks are
+     * included when either chunk is queried. <p>
+     * This only visits the vertices inside of the chunk, rather than every vertex in this GlobalTransferGrid.
+     * @param chunk Chunk to look in
+     * @return A new list of GridEdges, each of which starts at a GridVertex inside of the chunk.
+     */
+    public List<GridEdge> getEdgesInChunk(ChunkPos chunk) {
+        final List<GridEdge> out = new ArrayList<>();
+        Set<GID> inChunk = index.getInChunk(chunk.toLong());
+        if(inChunk == null) return out;
+        for(GID id : inChunk) {
+            GridVertex vert = getVertAt(id);
+            if(vert != null) out.addAll(vert.links);
         }
-        return null;
+        return out;
+    }
+
+    /**
+     * Gets every GridPath that starts in the given chunk. Like {@link GlobalTransferGrid#getEdgesInChunk(ChunkPos) <code>getEdgesInChunk()</code>},
+     * this only visits the vertices inside of the chunk.
+     * @param chunk Chunk to look in
+     * @return A new list of GridPaths, each of which starts at a GridVertex inside of the chunk.
+     */
+    public List<GridPath> getPathsInChunk(ChunkPos chunk) {
+        final List<GridPath> out = new ArrayList<>();
+        Set<GID> inChunk = index.getInChunk(chunk.toLong());
+        if(inChunk == null) return out;
+        for(GID id : inChunk) {
+            LocalTransferGrid grid = getGridContaining(id);
+            if(grid == null) continue;
+            Set<GridPath> paths = grid.getPathManager().getPathsAt(id);
+            if(paths != null) out.addAll(paths);
+        }
+        return out;
+    }
+
+    /**
+     * Called by LocalTransferGrids whenever a GridVertex is popped, so the vertex index
+     * doesn't keep pointing to vertices that no longer exist.
+     * @param id GID of the GridVertex that was removed
+     * @param grid LocalTransferGrid the GridVertex was removed from
+     */
+    protected void onVertRemoved(GID id, LocalTransferGrid grid) {
+        unindexVert(id, grid);
     }
 
     /***
@@ -298,24 +600,59 @@ public class GlobalTransferGrid {
      */
     public int removeAllVertsAt(BlockPos pos) {
         int removed = 0;
-        for(LocalTransferGrid subgrid : subgrids) {
+
+        // declusterizing modifies the subgrid list, so iterate over a copy
+        for(LocalTransferGrid subgrid : new ArrayList<>(subgrids)) {
+            int removedHere = 0;
             Iterator<GridVertex> matrixIterator = subgrid.allVerts().iterator();
             while(matrixIterator.hasNext()) {
                 GridVertex vert = matrixIterator.next();
                 if(vert.getID().getBlockPos().equals(pos)) {
                     vert.markRemoved();
                     matrixIterator.remove();
-                    removed++;
+                    unindexVert(vert.getID(), subgrid);
+                    removedHere++;
                 }
             }
-            declusterize(subgrid);
+            if(removedHere > 0) declusterize(subgrid);
+            removed += removedHere;
         }
         
         return removed;
     }
 
+    /**
+     * Moves one tick's worth of watts across every LocalTransferGrid in this GlobalTransferGrid.
+     * See {@link GridFlowSolver <code>GridFlowSolver</code>}. Every subgrid is visited here each tick, so idle 
+     * CompactGridGraphs are released along the way.
+     */
+    public void tickFlow() {
+        for(int x = 0; x < subgrids.size(); x++) {
+            LocalTransferGrid subgrid = subgrids.get(x);
+            GridFlowSolver.solve(subgrid);
+            subgrid.releaseIdleGraph();
+        }
+    }
+
+    /**
+     * Gathers one tick of power flow for every subgrid, without allocating or applying it.
+     * See {@link GridFlowSolver#gather(LocalTransferGrid) <code>GridFlowSolver.gather()</code>}. Idle CompactGridGraphs are released along the way.
+     * @param out List to add a FlowProblem to for every subgrid that has something to send
+     */
+    public void gatherFlows(List<FlowProblem> out) {
+        for(int x = 0; x < subgrids.size(); x++) {
+            LocalTransferGrid subgrid = subgrids.get(x);
+            FlowProblem problem = GridFlowSolver.gather(subgrid);
+            if(problem != null) out.add(problem);
+            subgrid.releaseIdleGraph();
+        }
+    }
+
     public void clear() {
+        storage.discardAll();
+        pendingHostChunks.clear();
         subgrids.clear();
+        index.clear();
     }
 
     public ArrayList<LocalTransferGrid> getSubgrids() {
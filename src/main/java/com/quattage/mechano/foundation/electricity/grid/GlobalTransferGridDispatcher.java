@@ -1,33 +1,50 @@
 package com.quattage.mechano.foundation.electricity.grid;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.quattage.mechano.Mechano;
 import com.quattage.mechano.MechanoSettings;
-import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.ElectricActivityScheduler;
+import com.quattage.mechano.foundation.electricity.grid.GridFlowSolver.FlowProblem;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ICapabilityProvider;
 import net.minecraftforge.common.util.INBTSerializable;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.event.TickEvent.Phase;
+import net.minecraftforge.event.level.ChunkEvent;
 import net.minecraftforge.event.TickEvent.ServerTickEvent;
 import net.minecraftforge.event.server.ServerAboutToStartEvent;
 import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 @EventBusSubscriber(modid = Mechano.MOD_ID)
 public class GlobalTransferGridDispatcher implements ICapabilityProvider, INBTSerializable<CompoundTag> {
@@ -37,8 +54,16 @@ public class GlobalTransferGridDispatcher implements ICapabilityProvider, INBTSe
 
     private static ExecutorService workerPool = null;
     private static final List<GridAsyncTask> workerTasks = new ArrayList<>();
+    private static long tickCount = 0;
+
+    // advanced at the start of every tick. Wire loads written during an earlier epoch are treated as zero
+    private static volatile long loadEpoch = 0;
 
-    private static final ArrayDeque<GridPath> dirtyPaths = new ArrayDeque<>();
+    // solutions finished by the worker pool, waiting to be committed on the server thread
+    private static final Queue<GridSnapshot.Solution> solvedPaths = new ConcurrentLinkedQueue<>();
+
+    // flows gathered at the end of the last tick. Allocated by the flow task, then applied at the start of the next tick
+    private static final List<FlowProblem> pendingFlows = new ArrayList<>();
 
     /**
      * Functions both as the provider object to attach the GlobalTransferGrid to the world,
@@ -69,23 +94,44 @@ public class GlobalTransferGridDispatcher implements ICapabilityProvider, INBTSe
     @SubscribeEvent
     public static void onServerTick(ServerTickEvent event) {
 
-        if(event.phase == Phase.START) return;
+        if(event.phase == Phase.START) {
+            loadEpoch++;
+            // worker tasks from the last tick have to finish before their results can be used
+            joinWorkerTasks();
+            applyPendingFlows();
+            commitSolvedPaths();
+            loadPendingRegions();
+            return;
+        }
+
+        // every BlockEntity has ticked by now, so power flow can be gathered with everything up-to-date
+        tickAllFlows();
+
         if(workerPool == null || workerPool.isShutdown()) return;
+        tickCount++;
+        for(int x = 0; x < workerTasks.size(); x++)
+            workerTasks.get(x).submitIfDue(workerPool, tickCount);
+    }
 
-        for(int x = 0; x < workerTasks.size(); x++) {
-            GridAsyncTask task = workerTasks.get(x);
-            try {
-                workerPool.execute(task);
-            } catch(Exception e) {
-                throw new GridAsyncException("Exception handling worker task '" + task.getDescription() + ":' ", e);
-            }
-        }
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if(!(event.getLevel() instanceof ServerLevel world) || !(event.getChunk() instanceof LevelChunk chunk)) return;
+        GlobalTransferGrid grid = GlobalTransferGrid.of(world);
+        if(grid != null) grid.onChunkLoaded(chunk.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if(!(event.getLevel() instanceof ServerLevel world) || !(event.getChunk() instanceof LevelChunk chunk)) return;
+        GlobalTransferGrid grid = GlobalTransferGrid.of(world);
+        if(grid != null) grid.getStorage().onChunkUnloaded(chunk.getPos());
     }
 
     @SubscribeEvent
     public static void onServerStart(ServerAboutToStartEvent event) {
         if(workerPool != null && !workerPool.isTerminated()) clearWorkerPool(3);
         workerPool = Executors.newFixedThreadPool(MechanoSettings.GRID_WORKER_THREADS);
+        ElectricActivityScheduler.reset();
         Mechano.LOGGER.info("Providing " + MechanoSettings.GRID_WORKER_THREADS 
             + " threads to grid worker pool");
     }
@@ -93,15 +139,171 @@ public class GlobalTransferGridDispatcher implements ICapabilityProvider, INBTSe
     @SubscribeEvent
     public static void onServerStop(ServerStoppingEvent event) {
         clearWorkerPool(250);
+        solvedPaths.clear();
+        pendingFlows.clear();
+        for(int x = 0; x < workerTasks.size(); x++)
+            workerTasks.get(x).forget();
+    }
+
+    /**
+     * Hands the given GridSnapshot off to the worker pool to be solved. The resulting 
+     * solution is committed to its LocalTransferGrid at the start of a later server tick.
+     * @param snapshot GridSnapshot to solve
+     * @return <code>TRUE</code> if the snapshot was submitted, <code>FALSE</code> if the worker pool is unavailable.
+     */
+    public static boolean submitPathSolve(GridSnapshot snapshot) {
+        if(snapshot == null) throw new NullPointerException("Error submitting path solve - snapshot is null!");
+        if(workerPool == null || workerPool.isShutdown()) return false;
+
+        try {
+            workerPool.execute(() -> {
+                try {
+                    solvedPaths.add(snapshot.solve());
+                } catch(Exception e) {
+                    Mechano.LOGGER.error("Exception solving GridPaths asynchronously, paths will be solved on the server thread instead: ", e);
+                    solvedPaths.add(GridSnapshot.Solution.ofFailed(snapshot));
+                }
+            });
+        } catch(RejectedExecutionException e) {
+            return false;
+        }
+        return true;
     }
 
     /**
-     * Marks a path as changed, which tells the GlobalTransferGridDispatcher to reset it at the end of the ServerTick.
-     * @param edge Edge to mark
+     * Solves one tick of power flow for every subgrid in every dimension. <p>
+     * Subgrids share no state, so when {@link MechanoSettings#PARALLEL_FLOW_SOLVING <code>PARALLEL_FLOW_SOLVING</code>} is enabled,
+     * each subgrid's flow is only gathered here. The flow task allocates them on the worker pool between ticks, and they're
+     * applied back on the server thread at the start of the next tick. Otherwise, flow is solved and applied right away.
      */
-    public synchronized static void markPathDirty(GridPath path) {
-        if(path == null) throw new NullPointerException("Error marking edge changed - edge is null!");
-        dirtyPaths.add(path);
+    private static void tickAllFlows() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(server == null) return;
+
+        if(!MechanoSettings.PARALLEL_FLOW_SOLVING || workerPool == null || workerPool.isShutdown()) {
+            for(ServerLevel world : server.getAllLevels()) {
+                GlobalTransferGrid grid = GlobalTransferGrid.of(world);
+                if(grid != null) grid.tickFlow();
+            }
+            return;
+        }
+
+        for(ServerLevel world : server.getAllLevels()) {
+            GlobalTransferGrid grid = GlobalTransferGrid.of(world);
+            if(grid != null) grid.gatherFlows(pendingFlows);
+        }
+    }
+
+    // run by the flow task. Problems are claimed one at a time, so the task's own thread keeps working alongside its helpers
+    private static void allocatePendingFlows() {
+        final int count = pendingFlows.size();
+        if(count == 0) return;
+
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable claim = () -> {
+            int x;
+            while((x = next.getAndIncrement()) < count)
+                pendingFlows.get(x).allocate();
+        };
+
+        final int helperCount = Math.min(MechanoSettings.GRID_WORKER_THREADS - 1, count - 1);
+        final List<Future<?>> helpers = new ArrayList<>(Math.max(helperCount, 0));
+        try {
+            for(int x = 0; x < helperCount; x++)
+                helpers.add(workerPool.submit(claim));
+        } catch(RejectedExecutionException e) {
+            // the pool is shutting down, whatever isn't claimed here is allocated on the server thread
+        }
+
+        claim.run();
+
+        // a helper that never started has nothing left to claim, so it's cancelled rather than waited on
+        try {
+            for(Future<?> helper : helpers)
+                if(!helper.cancel(false)) helper.get();
+        } catch(ExecutionException e) {
+            throw new GridAsyncException("Exception allocating power flow on the worker pool:", e);
+        } catch(CancellationException e) {
+            // the pool was shut down underneath this helper
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // applies the flows gathered at the end of the last tick, called on the server thread.
+    // a grid changed by a packet between ticks can't use its old flow, so whatever grids now hold its senders are solved again right here
+    private static void applyPendingFlows() {
+        if(pendingFlows.isEmpty()) return;
+
+        final Set<LocalTransferGrid> applied = new ReferenceOpenHashSet<>();
+        final Set<LocalTransferGrid> regather = new ReferenceOpenHashSet<>();
+        for(int x = 0; x < pendingFlows.size(); x++) {
+            FlowProblem problem = pendingFlows.get(x);
+            if(problem.isStale()) {
+                problem.addCurrentGrids(regather);
+                continue;
+            }
+            // anything the worker pool couldn't get to is allocated here instead
+            if(!problem.isAllocated()) problem.allocate();
+            problem.apply();
+            applied.add(problem.getGrid());
+        }
+        pendingFlows.clear();
+
+        // a grid can only move one tick's worth of power, even if it now holds the senders of an unchanged grid that was applied above
+        for(LocalTransferGrid grid : regather)
+            if(!applied.contains(grid)) GridFlowSolver.solve(grid);
+    }
+
+    // reads the stored subgrids of every region where a chunk loaded since the last tick, called at the start of the tick.
+    // stored subgrids are only read from disk here, so a chunk loading mid-tick doesn't load a grid while it's being iterated
+    private static void loadPendingRegions() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(server == null) return;
+        for(ServerLevel world : server.getAllLevels()) {
+            GlobalTransferGrid grid = GlobalTransferGrid.of(world);
+            if(grid != null) grid.loadPendingRegions();
+        }
+    }
+
+    // commits every finished solution to its LocalTransferGrid, called on the server thread
+    private static void commitSolvedPaths() {
+        GridSnapshot.Solution solution;
+        while((solution = solvedPaths.poll()) != null)
+            solution.getGrid().commitSolve(solution);
+    }
+
+    /**
+     * @return The current load epoch. Every {@link com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge <code>GridEdge</code>}
+     * load written during an earlier epoch is treated as zero.
+     */
+    public static long getLoadEpoch() {
+        return loadEpoch;
+    }
+
+    // waits for every in-flight worker task, called on the server thread
+    private static void joinWorkerTasks() {
+        for(int x = 0; x < workerTasks.size(); x++)
+            workerTasks.get(x).join();
+    }
+
+    /**
+     * Registers a GridAsyncTask to be submitted to the worker pool every time its period comes around.
+     * @param task Task to register
+     * @return The task that was registered
+     */
+    public static GridAsyncTask registerTask(GridAsyncTask task) {
+        if(task == null) throw new NullPointerException("Error registering grid task - task is null!");
+        if(workerTasks.contains(task)) throw new IllegalStateException("Error registering grid task - '" + task.getDescription() + "' is already registered!");
+        workerTasks.add(task);
+        return task;
+    }
+
+    /**
+     * @return Every registered GridAsyncTask, which can be used to monitor their timings.
+     */
+    public static List<GridAsyncTask> getTasks() {
+        return Collections.unmodifiableList(workerTasks);
     }
 
     private static void clearWorkerPool(int ms) {
@@ -117,40 +319,143 @@ public class GlobalTransferGridDispatcher implements ICapabilityProvider, INBTSe
         }
     }
 
-    @SuppressWarnings("unused")
     public static void initTasks() {
         Mechano.logReg("grid tasks");
-        GridAsyncTask pathResetter = new GridAsyncTask(
-            "Reset GridPaths",
-            () -> {
-                synchronized(dirtyPaths) {
-                    while(!dirtyPaths.isEmpty()) {
-                        GridPath path = dirtyPaths.removeFirst();
-                        path.resetLoad();
-                    }
-                }
-            }
-        );
+        registerTask(new GridAsyncTask("Allocate power flow", 1, GlobalTransferGridDispatcher::allocatePendingFlows, pendingFlows::size));
     }
 
+    /**
+     * A GridAsyncTask is a unit of work that is handed off to the grid worker pool at the end of every 
+     * <code>period</code> server ticks. <p>
+     * A task is never submitted again while its previous run is still in flight - the skipped submission is counted instead.
+     * Every in-flight task is joined at the start of the next server tick. Joining doesn't keep tasks away from the live grids though,
+     * since packets are handled between ticks while tasks may still be running. An operation must only ever touch data that was
+     * handed to it when it was submitted, never a LocalTransferGrid or a BlockEntity. <p>
+     * The time each run takes and the size of the task's backlog when it was submitted are recorded for monitoring.
+     */
     public static class GridAsyncTask implements Runnable {
     
         private final String description;
+        private final int period;
         private final Runnable operation;
+        @Nullable private final IntSupplier queueDepth;
+
+        @Nullable private Future<?> inFlight = null;
+
+        private long runs = 0;
+        private long skips = 0;
+        private volatile long lastRunNanos = 0;
+        private volatile long maxRunNanos = 0;
+        private volatile long totalRunNanos = 0;
+        private int lastQueueDepth = 0;
     
-        public GridAsyncTask(String description, Runnable operation) {
+        /**
+         * @param description Name of this task, used for logging
+         * @param period How many ticks to wait between each submission. <code>1</code> submits every tick.
+         * @param operation Work to do on the worker pool
+         * @param queueDepth Reports how much work is waiting for this task, or <code>null</code> if that isn't meaningful
+         */
+        public GridAsyncTask(String description, int period, Runnable operation, @Nullable IntSupplier queueDepth) {
+            if(operation == null) throw new NullPointerException("Error creating grid task - operation is null!");
+            if(period < 1) throw new IllegalArgumentException("Error creating grid task - period must be at least 1, got " + period + "!");
             this.description = description.toUpperCase();
+            this.period = period;
             this.operation = operation;
-            GlobalTransferGridDispatcher.workerTasks.add(this);
+            this.queueDepth = queueDepth;
+        }
+
+        public GridAsyncTask(String description, int period, Runnable operation) {
+            this(description, period, operation, null);
         }
     
         public String getDescription() {
             return description;
         }
 
+        private void submitIfDue(ExecutorService pool, long tick) {
+            if(tick % period != 0) return;
+            if(inFlight != null && !inFlight.isDone()) {
+                skips++;
+                return;
+            }
+
+            if(queueDepth != null) lastQueueDepth = queueDepth.getAsInt();
+            try {
+                inFlight = pool.submit(this);
+            } catch(RejectedExecutionException e) {
+                inFlight = null;
+                skips++;
+            }
+        }
+
+        private void join() {
+            if(inFlight == null) return;
+            try {
+                inFlight.get();
+                runs++;
+            } catch(ExecutionException e) {
+                throw new GridAsyncException("Exception handling worker task '" + description + ":' ", e);
+            } catch(CancellationException e) {
+                // the pool was shut down underneath this task
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight = null;
+            }
+        }
+
+        // drops a run that can no longer be joined, since the pool it was submitted to has been shut down
+        private void forget() {
+            if(inFlight != null) inFlight.cancel(true);
+            inFlight = null;
+        }
+
         @Override
-        synchronized public void run() {
+        public void run() {
+            long start = System.nanoTime();
             operation.run();
+            long elapsed = System.nanoTime() - start;
+            lastRunNanos = elapsed;
+            totalRunNanos += elapsed;
+            if(elapsed > maxRunNanos) maxRunNanos = elapsed;
+        }
+
+        /**
+         * Only counts runs that have been joined, so it should be read from the server thread.
+         * @return How many times this task has run
+         */
+        public long getRunCount() {
+            return runs;
+        }
+
+        /**
+         * @return How many times this task was due, but was skipped because its last run was still in flight or the pool was unavailable.
+         */
+        public long getSkipCount() {
+            return skips;
+        }
+
+        public int getPeriod() {
+            return period;
+        }
+
+        public long getLastRunNanos() {
+            return lastRunNanos;
+        }
+
+        public long getMaxRunNanos() {
+            return maxRunNanos;
+        }
+
+        public long getTotalRunNanos() {
+            return totalRunNanos;
+        }
+
+        /**
+         * @return The size of this task's backlog the last time it was submitted, or zero if it doesn't report one.
+         */
+        public int getLastQueueDepth() {
+            return lastQueueDepth;
         }
     }
 
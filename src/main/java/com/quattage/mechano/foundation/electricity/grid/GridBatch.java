@@ -0,0 +1,102 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import net.minecraft.world.entity.Entity;
+
+/**
+ * A GridBatch collects mutations made through {@link GlobalTransferGrid#batch(java.util.function.Consumer) <code>GlobalTransferGrid.batch()</code>}.
+ * Each mutation is applied to the GlobalTransferGrid immediately, but splitting and pathfinding are deferred
+ * until every mutation in the batch has been made.
+ */
+public class GridBatch {
+
+    private final GlobalTransferGrid parent;
+
+    private final Set<GID> dirtyVerts = new HashSet<>();
+    private final List<GridVertex> splitEndpoints = new ArrayList<>();
+
+    private boolean applied = false;
+
+    protected GridBatch(GlobalTransferGrid parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Links two GridVertices. See {@link GlobalTransferGrid#link(Entity, GID, GID, int) <code>GlobalTransferGrid.link()</code>}.
+     * @return A LinkResult describing the outcome of the link. Paths will not have been found yet.
+     */
+    public LinkResult link(Entity linker, GID idA, GID idB, int typeID) {
+        requireOpen();
+        return parent.link(linker, idA, idB, typeID, this);
+    }
+
+    /**
+     * Removes the link between two GridVertices. See {@link GlobalTransferGrid#unlink(GID, GID, boolean) <code>GlobalTransferGrid.unlink()</code>}.
+     */
+    public void unlink(GID idA, GID idB) {
+        requireOpen();
+        parent.unlink(idA, idB, true, this);
+    }
+
+    /**
+     * Removes the GridVertex at the given GID, along with all of its links.
+     */
+    public void destroyVertex(GID id) {
+        requireOpen();
+        parent.findAndDestroyVertex(id, this);
+    }
+
+    protected void markDirty(GID id) {
+        dirtyVerts.add(id);
+    }
+
+    protected void addSplitEndpoints(Collection<GridVertex> endpoints) {
+        for(GridVertex vert : endpoints) {
+            splitEndpoints.add(vert);
+            dirtyVerts.add(vert.getID());
+        }
+    }
+
+    /**
+     * Splits every grid touched by this batch where it was disconnected, and then solves paths
+     * once for every LocalTransferGrid that was affected.
+     */
+    protected void apply() {
+        requireOpen();
+        applied = true;
+
+        // endpoints may have moved between grids (or been removed entirely) since they were recorded
+        final Map<LocalTransferGrid, List<GridVertex>> endpointsByGrid = new HashMap<>();
+        for(GridVertex vert : splitEndpoints) {
+            LocalTransferGrid grid = parent.getGridContaining(vert.getID());
+            if(grid == null) continue;
+            endpointsByGrid.computeIfAbsent(grid, g -> new ArrayList<>()).add(vert);
+        }
+
+        for(Map.Entry<LocalTransferGrid, List<GridVertex>> entry : endpointsByGrid.entrySet())
+            parent.splitAround(entry.getKey(), entry.getValue());
+
+        final Set<LocalTransferGrid> affected = new HashSet<>();
+        for(GID id : dirtyVerts) {
+            LocalTransferGrid grid = parent.getGridContaining(id);
+            if(grid != null) affected.add(grid);
+        }
+
+        for(LocalTransferGrid grid : affected)
+            grid.solveAllPaths();
+    }
+
+    private void requireOpen() {
+        if(applied) throw new IllegalStateException("Error modifying GridBatch - This batch has already been applied!");
+    }
+}
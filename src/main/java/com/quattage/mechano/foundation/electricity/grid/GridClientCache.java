@@ -14,6 +14,7 @@ import com.mojang.blaze3d.vertex.BufferBuilder;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.quattage.mechano.Mechano;
+import com.quattage.mechano.foundation.behavior.GridEdgeDebugBehavior;
 import com.quattage.mechano.foundation.block.anchor.AnchorPoint;
 import com.quattage.mechano.foundation.electricity.WireSpool;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
@@ -210,7 +211,7 @@ public class GridClientCache {
 
                 int[] lightmap = WirePipeline.deriveLightmap(world, startPos, endPos);
                 WirePipeline.INSTANCE.renderStatic(
-                    new BakedModelHashKey(startPos, endPos), 
+                    new BakedModelHashKey(startPos, endPos, 1f, edge.getTypeID()), 
                     builder, matrixStack, wireOrigin, 
                     lightmap[0], lightmap[1], lightmap[2], lightmap[3], 
                     WireTextureProvider.getWireSprite(WireSpool.ofType(edge.getTypeID()))
@@ -323,9 +324,14 @@ public class GridClientCache {
         if(world == null) return;
 
         GridClientCache.of(world).clearAll();
+        GridEdgeDebugBehavior.clearSubscription();
         Mechano.LOGGER.info("Clearing all cached wire geometry");
     }
 
+    public void clearPaths() {
+        pathCache.clear();
+    }
+
     public void clearAll() {
         edgeCache.clear();
         newEdgeCache.clear();
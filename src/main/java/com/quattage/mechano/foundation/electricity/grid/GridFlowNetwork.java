@@ -0,0 +1,273 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+/**
+ * The max-flow half of the {@link GridFlowSolver <code>GridFlowSolver</code>}. A GridFlowNetwork only holds primitive copies
+ * of a LocalTransferGrid's wires and members, so it can be routed off of the server thread. <p>
+ * Every sender is joined to a shared source and every consumer to a shared sink. A battery that can both send and receive
+ * is given a sender node and a consumer node of its own, and routing is done in three rounds over the same {@link GridMaxFlow <code>GridMaxFlow</code>},
+ * each building on the flow found by the last:
+ * <p>1. Senders that can't receive supply consumers that can't send. (generators power machines)
+ * <p>2. Whatever supply is left charges the batteries that can both send and receive.
+ * <p>3. Those batteries, if they weren't charged during the second round, discharge into whatever demand is still unmet.
+ * <p>Flow out of the source and into the sink is never taken back by a later round, so machines are always served first,
+ * and no battery is charged and discharged during the same tick, which also means no battery can ever supply itself. <p>
+ * The result is then broken down into {@link Route <code>Routes</code>}, each carrying watts from one sender to one consumer
+ * along a chain of wires. Only pairs that were {@link GridFlowNetwork#allowPair(int, int) <code>allowed</code>} are ever routed to each other.
+ */
+class GridFlowNetwork {
+
+    private final CompactGridGraph graph;
+    private final int[] vertSender;
+    private final int[] vertConsumer;
+    private final float[] supply;
+    private final float[] acceptable;
+    private final int[] senderStorage;
+    private final float[] wireRemaining;
+    private final LongOpenHashSet pairs = new LongOpenHashSet();
+
+    /**
+     * @param graph The wires of the grid
+     * @param vertSender The sender at each vertex of the graph, or <code>-1</code>
+     * @param vertConsumer The consumer at each vertex of the graph, or <code>-1</code>
+     * @param supply The most each sender can send
+     * @param acceptable The most each consumer can receive
+     * @param senderStorage For each sender, the consumer that is the same battery, or <code>-1</code> if it can only send
+     * @param wireRemaining The watts each edge of the graph can still carry
+     */
+    GridFlowNetwork(CompactGridGraph graph, int[] vertSender, int[] vertConsumer, float[] supply, float[] acceptable, int[] senderStorage, float[] wireRemaining) {
+        if(vertSender.length != graph.size() || vertConsumer.length != graph.size() || wireRemaining.length != graph.edgeCount())
+            throw new IllegalArgumentException("Error building GridFlowNetwork - Members and wires don't match the provided CompactGridGraph!");
+        if(senderStorage.length != supply.length)
+            throw new IllegalArgumentException("Error building GridFlowNetwork - Every sender needs a storage index!");
+        this.graph = graph;
+        this.vertSender = vertSender;
+        this.vertConsumer = vertConsumer;
+        this.supply = supply;
+        this.acceptable = acceptable;
+        this.senderStorage = senderStorage;
+        this.wireRemaining = wireRemaining;
+    }
+
+    /**
+     * Allows watts to be routed from the given sender to the given consumer.
+     * Pairs that are never allowed can still carry flow through the max-flow, but it won't be routed.
+     */
+    void allowPair(int sender, int consumer) {
+        pairs.add(pair(sender, consumer));
+    }
+
+    private static long pair(int sender, int consumer) {
+        return ((long)sender << 32) | (consumer & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Routes as many watts as possible from senders to consumers without overloading any wire.
+     * @return Every Route that carries anything
+     */
+    List<Route> route() {
+
+        final int size = graph.size();
+        final int senderBase = size;
+        final int consumerBase = senderBase + supply.length;
+        final int source = consumerBase + acceptable.length;
+        final int sink = source + 1;
+
+        final int[] consumerStorage = new int[acceptable.length];
+        Arrays.fill(consumerStorage, -1);
+        boolean hasStorage = false;
+        for(int s = 0; s < supply.length; s++) {
+            if(senderStorage[s] < 0) continue;
+            consumerStorage[senderStorage[s]] = s;
+            hasStorage = true;
+        }
+
+        final GridMaxFlow network = new GridMaxFlow(sink + 1, graph.edgeCount() + size * 2 + supply.length + acceptable.length);
+
+        // batteries that can both send and receive start out closed off, and are opened up by the later rounds
+        final int[] senderArcs = new int[supply.length];
+        for(int s = 0; s < supply.length; s++)
+            senderArcs[s] = network.addArc(source, senderBase + s, senderStorage[s] < 0 ? supply[s] : 0);
+
+        final int[] consumerArcs = new int[acceptable.length];
+        for(int c = 0; c < acceptable.length; c++)
+            consumerArcs[c] = network.addArc(consumerBase + c, sink, consumerStorage[c] < 0 ? acceptable[c] : 0);
+
+        // capacities are kept finite here, since subtracting a few watts from Float.MAX_VALUE would lose them entirely
+        final int[] senderAttach = new int[size];
+        final int[] consumerAttach = new int[size];
+        for(int v = 0; v < size; v++) {
+            senderAttach[v] = vertSender[v] < 0 ? -1 : network.addArc(senderBase + vertSender[v], v, supply[vertSender[v]]);
+            consumerAttach[v] = vertConsumer[v] < 0 ? -1 : network.addArc(v, consumerBase + vertConsumer[v], acceptable[vertConsumer[v]]);
+        }
+
+        // each wire appears twice in the graph, but only needs to be added once
+        final int[] wireArcs = new int[graph.edgeCount()];
+        for(int e = 0; e < graph.edgeCount(); e++) {
+            int twin = graph.getEdgeTwin(e);
+            if(twin >= 0 && twin < e) {
+                wireArcs[e] = -1;
+                continue;
+            }
+            wireArcs[e] = twin < 0 ? network.addArc(graph.getEdgeSource(e), graph.getEdgeTarget(e), wireRemaining[e])
+                : network.addUndirected(graph.getEdgeSource(e), graph.getEdgeTarget(e), wireRemaining[e]);
+        }
+
+        network.solve(source, sink);
+
+        if(hasStorage) {
+            for(int c = 0; c < acceptable.length; c++)
+                if(consumerStorage[c] >= 0) network.setCapacity(consumerArcs[c], acceptable[c]);
+            network.solve(source, sink);
+
+            for(int c = 0; c < acceptable.length; c++)
+                if(consumerStorage[c] >= 0) network.setCapacity(consumerArcs[c], network.getFlow(consumerArcs[c]));
+            for(int s = 0; s < supply.length; s++) {
+                if(senderStorage[s] < 0) continue;
+                if(network.getFlow(consumerArcs[senderStorage[s]]) <= GridMaxFlow.EPSILON)
+                    network.setCapacity(senderArcs[s], supply[s]);
+            }
+            network.solve(source, sink);
+        }
+
+        final float[] sent = new float[size];
+        final float[] received = new float[size];
+        for(int v = 0; v < size; v++) {
+            if(senderAttach[v] >= 0) sent[v] = network.getFlow(senderAttach[v]);
+            if(consumerAttach[v] >= 0) received[v] = network.getFlow(consumerAttach[v]);
+        }
+
+        // the max-flow only knows the net flow across each wire, which is split back into the direction it runs in
+        final float[] wireFlow = new float[graph.edgeCount()];
+        for(int e = 0; e < wireArcs.length; e++) {
+            if(wireArcs[e] < 0) continue;
+            float flow = network.getFlow(wireArcs[e]);
+            if(flow > 0) wireFlow[e] = flow;
+            else if(flow < 0) wireFlow[graph.getEdgeTwin(e)] = -flow;
+        }
+
+        return decompose(sent, received, wireFlow);
+    }
+
+    /**
+     * Breaks a solved flow down into Routes. Each Route is found by a depth first search from its sender, along wires that
+     * carry flow, until a consumer that the sender is allowed to supply is found. Each Route uses up at least one wire,
+     * sender, or consumer, and vertices that can't lead to anything a sender may supply are never searched twice for that sender. <p>
+     * Flow that loops back on itself carries nothing anywhere, so loops are cancelled as they're found.
+     * Flow that can only reach consumers its sender isn't allowed to supply is dropped.
+     */
+    private List<Route> decompose(float[] sent, float[] received, float[] wireFlow) {
+        final List<Route> routes = new ArrayList<>();
+        final int[] onPath = new int[graph.size()];
+        final int[] deadFor = new int[graph.size()];
+        Arrays.fill(onPath, -1);
+        Arrays.fill(deadFor, -1);
+        final IntArrayList pathVerts = new IntArrayList();
+        final IntArrayList pathEdges = new IntArrayList();
+
+        for(int v = 0; v < graph.size(); v++) {
+            final int sender = vertSender[v];
+            while(sent[v] > GridMaxFlow.EPSILON) {
+                pathVerts.clear();
+                pathEdges.clear();
+                pathVerts.add(v);
+                onPath[v] = 0;
+
+                int u = v;
+                int exit = -1;
+                while(true) {
+                    final int consumer = vertConsumer[u];
+                    if(consumer >= 0 && received[u] > GridMaxFlow.EPSILON && pairs.contains(pair(sender, consumer))) {
+                        exit = consumer;
+                        break;
+                    }
+
+                    int next = -1;
+                    for(int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                        if(wireFlow[e] > GridMaxFlow.EPSILON && deadFor[graph.getEdgeTarget(e)] != v) {
+                            next = e;
+                            break;
+                        }
+                    }
+
+                    // nothing this sender may supply can be reached from here, so step back and try another wire
+                    if(next < 0) {
+                        deadFor[u] = v;
+                        if(pathEdges.isEmpty()) break;
+                        onPath[u] = -1;
+                        pathVerts.popInt();
+                        pathEdges.popInt();
+                        u = pathVerts.getInt(pathVerts.size() - 1);
+                        continue;
+                    }
+
+                    final int w = graph.getEdgeTarget(next);
+                    if(onPath[w] >= 0) {
+                        final int start = onPath[w];
+                        float loop = wireFlow[next];
+                        for(int x = start; x < pathEdges.size(); x++)
+                            loop = Math.min(loop, wireFlow[pathEdges.getInt(x)]);
+                        wireFlow[next] -= loop;
+                        for(int x = start; x < pathEdges.size(); x++)
+                            wireFlow[pathEdges.getInt(x)] -= loop;
+                        for(int x = start + 1; x < pathVerts.size(); x++)
+                            onPath[pathVerts.getInt(x)] = -1;
+                        pathVerts.size(start + 1);
+                        pathEdges.size(start);
+                        u = w;
+                        continue;
+                    }
+
+                    onPath[w] = pathVerts.size();
+                    pathVerts.add(w);
+                    pathEdges.add(next);
+                    u = w;
+                }
+
+                for(int x = 0; x < pathVerts.size(); x++)
+                    onPath[pathVerts.getInt(x)] = -1;
+
+                if(exit < 0) {
+                    sent[v] = 0;
+                    break;
+                }
+
+                float amount = Math.min(sent[v], received[u]);
+                for(int x = 0; x < pathEdges.size(); x++)
+                    amount = Math.min(amount, wireFlow[pathEdges.getInt(x)]);
+
+                sent[v] -= amount;
+                received[u] -= amount;
+                for(int x = 0; x < pathEdges.size(); x++)
+                    wireFlow[pathEdges.getInt(x)] -= amount;
+                routes.add(new Route(sender, exit, amount, pathEdges.toIntArray()));
+            }
+        }
+
+        return routes;
+    }
+
+    /**
+     * Watts carried from one sender to one consumer, along the given edges of the CompactGridGraph (in the order they're crossed)
+     */
+    static class Route {
+
+        final int sender;
+        final int consumer;
+        final float amount;
+        final int[] edges;
+
+        private Route(int sender, int consumer, float amount, int[] edges) {
+            this.sender = sender;
+            this.consumer = consumer;
+            this.amount = amount;
+            this.edges = edges;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GIDPair;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+import com.quattage.mechano.foundation.electricity.watt.WattStorable;
+import com.quattage.mechano.foundation.electricity.watt.unit.PackedWatts;
+import com.quattage.mechano.foundation.electricity.watt.unit.WattUnit;
+
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+/**
+ * The GridFlowSolver moves watts across every GridPath in a LocalTransferGrid at once, rather than letting
+ * each sender fill paths on its own during its BlockEntity tick. <p>
+ * Every tick, the supply and demand of each member is gathered first. Each sender's supply is then split between its
+ * paths in proportion to how much their destinations can accept, after which requests are scaled down wherever
+ * a destination or a shared GridEdge would be overloaded. Only once every flow is known are watts actually moved. <p>
+ * Since no flow is decided until every other flow is known, the result doesn't depend on the order that BlockEntities tick in. <p>
+ * When {@link MechanoSettings#MAX_FLOW_ALLOCATION <code>MAX_FLOW_ALLOCATION</code>} is enabled, the proportional split is replaced
+ * by a max-flow solve, which maximizes the total watts delivered while respecting every wire's capacity. See {@link GridFlowNetwork <code>GridFlowNetwork</code>}. <p>
+ * Solving is split into three steps so that the middle one can run off of the server thread. See {@link FlowProblem <code>FlowProblem</code>}.
+ */
+public class GridFlowSolver {
+
+    private GridFlowSolver() {}
+
+    /**
+     * Solves and applies one tick of power flow across the given LocalTransferGrid.
+     * Must be called on the server thread.
+     * @param grid LocalTransferGrid to solve
+     * @return The total amount of watts delivered this tick
+     */
+    public static float solve(LocalTransferGrid grid) {
+        final FlowProblem problem = gather(grid);
+        if(problem == null) return 0;
+        problem.allocate();
+        return problem.apply();
+    }
+
+    /**
+     * Reads the supply and demand of every member of the given LocalTransferGrid, along with the capacity of every
+     * wire between them. Must be called on the server thread, since it queries BlockEntity capabilities.
+     * @param grid LocalTransferGrid to gather
+     * @return A FlowProblem, or <code>null</code> if nothing in the grid can send anything this tick.
+     */
+    @Nullable
+    public static FlowProblem gather(LocalTransferGrid grid) {
+        if(grid == null) throw new NullPointerException("Error solving power flow - The provided LocalTransferGrid is null!");
+
+        final FlowProblem problem = new FlowProblem(grid);
+
+        // gather every sender, every path it can send across, and how much each destination wants
+        for(GridVertex vert : grid.allVerts()) {
+            if(!vert.isMember() || vert.hasNoHost()) continue;
+            final WattStorable source = vert.getHost().battery.getEnergyHolder();
+            if(!source.canExtract()) continue;
+
+            final Set<GridPath> paths = grid.getPathManager().getPathsAt(vert.getID());
+            if(paths == null || paths.isEmpty()) continue;
+
+            for(GridPath path : paths) {
+                final GridVertex end = path.getEnd();
+                if(!vert.canFormPathTo(end)) continue;
+                final WattStorable destination = end.getHost().battery.getEnergyHolder();
+                if(destination == source) continue;
+
+                float capacity = path.getMaxTransferRate();
+                if(WattUnit.hasNoPotential(capacity)) continue;
+                float demand = PackedWatts.getWatts(destination.receiveWatts(PackedWatts.of(source.getFlux(), capacity), true));
+                if(WattUnit.hasNoPotential(demand)) continue;
+
+                problem.addFlow(path, source, destination, demand);
+            }
+        }
+
+        if(problem.flows.isEmpty()) return null;
+        if(MechanoSettings.MAX_FLOW_ALLOCATION) problem.gatherNetwork();
+        else problem.gatherEdges();
+        return problem;
+    }
+
+    // an edge and its inverse are the same wire, so they have to share a key
+    private static GIDPair getEdgeKey(GridEdge edge) {
+        return new GIDPair(edge.getOriginVertex().getID(), edge.getDestinationVertex().getID());
+    }
+
+    /**
+     * Everything needed to allocate one tick of power flow across a single LocalTransferGrid. <p>
+     * A FlowProblem is solved in three steps:
+     * <p>1. {@link GridFlowSolver#gather(LocalTransferGrid) <code>gather()</code>} reads the world on the server thread.
+     * <p>2. {@link FlowProblem#allocate() <code>allocate()</code>} decides how many watts each flow carries. It only touches
+     * the primitive data copied during the first step, so FlowProblems for different grids can be allocated in parallel.
+     * <p>3. {@link FlowProblem#apply() <code>apply()</code>} moves the watts, and must be called on the server thread.
+     */
+    public static class FlowProblem {
+
+        private final LocalTransferGrid grid;
+        private final int version;
+
+        private final Reference2IntOpenHashMap<WattStorable> senderIndex = new Reference2IntOpenHashMap<>();
+        private final Reference2IntOpenHashMap<WattStorable> consumerIndex = new Reference2IntOpenHashMap<>();
+        private final List<WattStorable> senders = new ArrayList<>();
+        private final List<WattStorable> consumers = new ArrayList<>();
+        private final FloatArrayList supply = new FloatArrayList();
+        private final FloatArrayList requested = new FloatArrayList();
+        private final FloatArrayList acceptable = new FloatArrayList();
+        private final List<Flow> flows = new ArrayList<>();
+
+        // proportional mode: the remaining capacity of every wire used by a flow
+        private float[] edgeRemaining;
+
+        // max-flow mode: the grid's wires and members, along with the routes found between them. The vertices are only read on the server thread
+        private CompactGridGraph graph;
+        private GridVertex[] verts;
+        private GridFlowNetwork network;
+        private List<GridFlowNetwork.Route> routes;
+
+        private boolean allocated = false;
+
+        private FlowProblem(LocalTransferGrid grid) {
+            this.grid = grid;
+            this.version = grid.getVersion();
+            senderIndex.defaultReturnValue(-1);
+            consumerIndex.defaultReturnValue(-1);
+        }
+
+        public LocalTransferGrid getGrid() {
+            return grid;
+        }
+
+        /**
+         * @return <code>TRUE</code> if the LocalTransferGrid this FlowProblem was gathered from has changed since,
+         * or has been absorbed into another grid, in which case it shouldn't be applied.
+         */
+        public boolean isStale() {
+            if(grid.getVersion() != version) return true;
+            // an absorbed grid keeps its version, but its vertices now answer to the grid that absorbed them
+            final GridVertex start = flows.get(0).path.getStart();
+            return grid.getParent() != null && grid.getParent().getGridContaining(start.getID()) != grid;
+        }
+
+        /**
+         * Adds every LocalTransferGrid that holds one of this FlowProblem's senders right now to the given set.
+         * Used to gather a stale FlowProblem again after its grid was changed, merged, or split.
+         * Senders that have since been removed or unloaded belong to no grid, and are skipped.
+         * @param out Set to add LocalTransferGrids to
+         */
+        public void addCurrentGrids(Set<LocalTransferGrid> out) {
+            if(grid.getParent() == null) return;
+            for(Flow flow : flows) {
+                LocalTransferGrid current = grid.getParent().getGridContaining(flow.path.getStart().getID());
+                if(current != null) out.add(current);
+            }
+        }
+
+        private void addFlow(GridPath path, WattStorable source, WattStorable destination, float demand) {
+            int s = senderIndex.getInt(source);
+            if(s < 0) {
+                s = senders.size();
+                senderIndex.put(source, s);
+                senders.add(source);
+                supply.add(Math.min(source.getMaxDischarge(), source.getStoredWatts()));
+                requested.add(0);
+            }
+
+            int c = consumerIndex.getInt(destination);
+            if(c < 0) {
+                c = consumers.size();
+                consumerIndex.put(destination, c);
+                consumers.add(destination);
+                acceptable.add(0);
+            }
+
+            requested.set(s, requested.getFloat(s) + demand);
+            acceptable.set(c, Math.max(acceptable.getFloat(c), demand));
+            flows.add(new Flow(path, s, c, demand));
+        }
+
+        // gives every wire used by a flow a slot, so allocation doesn't have to hash GridEdges
+        private void gatherEdges() {
+            final Object2IntOpenHashMap<GIDPair> slots = new Object2IntOpenHashMap<>();
+            slots.defaultReturnValue(-1);
+            final FloatArrayList remaining = new FloatArrayList();
+
+            for(Flow flow : flows) {
+                final GridEdge[] members = flow.path.members();
+                flow.edgeSlots = new int[members.length];
+                for(int x = 0; x < members.length; x++) {
+                    GIDPair key = getEdgeKey(members[x]);
+                    int slot = slots.getInt(key);
+                    if(slot < 0) {
+                        slot = remaining.size();
+                        slots.put(key, slot);
+                        remaining.add(members[x].getWattsRemaining());
+                    }
+                    flow.edgeSlots[x] = slot;
+                }
+            }
+
+            this.edgeRemaining = remaining.toFloatArray();
+        }
+
+        private void gatherNetwork() {
+            this.graph = grid.getCompactGraph();
+            this.verts = graph.collectVertices(grid);
+            final int size = graph.size();
+
+            final int[] vertSender = new int[size];
+            final int[] vertConsumer = new int[size];
+            for(int v = 0; v < size; v++) {
+                vertSender[v] = -1;
+                vertConsumer[v] = -1;
+                GridVertex vert = verts[v];
+                if(vert == null || !vert.isMember() || vert.hasNoHost()) continue;
+                WattStorable battery = vert.getHost().battery.getEnergyHolder();
+                vertSender[v] = senderIndex.getInt(battery);
+                vertConsumer[v] = consumerIndex.getInt(battery);
+            }
+
+            final int[] senderStorage = new int[senders.size()];
+            for(int s = 0; s < senders.size(); s++)
+                senderStorage[s] = consumerIndex.getInt(senders.get(s));
+
+            final float[] wireRemaining = new float[graph.edgeCount()];
+            for(int e = 0; e < graph.edgeCount(); e++) {
+                GridVertex source = verts[graph.getEdgeSource(e)];
+                GridEdge wire = source == null ? null : graph.getEdge(e, source);
+                wireRemaining[e] = wire == null ? 0 : Math.max(wire.getWattsRemaining(), 0);
+            }
+
+            this.network = new GridFlowNetwork(graph, vertSender, vertConsumer, supply.toFloatArray(), acceptable.toFloatArray(), senderStorage, wireRemaining);
+            for(Flow flow : flows)
+                network.allowPair(flow.sender, flow.consumer);
+        }
+
+        /**
+         * Decides how many watts every flow carries without touching the world. Safe to call from any thread,
+         * as long as no two threads allocate the same FlowProblem.
+         */
+        public void allocate() {
+            if(allocated) throw new IllegalStateException("Error allocating power flow - This FlowProblem has already been allocated!");
+            if(network != null) routes = network.route();
+            else allocateProportional();
+            allocated = true;
+        }
+
+        /**
+         * @return <code>TRUE</code> if {@link FlowProblem#allocate() <code>allocate()</code>} has finished successfully.
+         */
+        public boolean isAllocated() {
+            return allocated;
+        }
+
+        private void allocateProportional() {
+
+            // each sender splits its supply between its paths in proportion to their demand
+            final float[] consumerLoad = new float[consumers.size()];
+            for(Flow flow : flows) {
+                float total = requested.getFloat(flow.sender);
+                float share = Math.min(supply.getFloat(flow.sender), total) * (flow.amount / total);
+                flow.amount = Math.min(flow.amount, share);
+                consumerLoad[flow.consumer] += flow.amount;
+            }
+
+            // destinations that were offered more than they can accept take a proportional cut from every sender
+            for(Flow flow : flows) {
+                float load = consumerLoad[flow.consumer];
+                float limit = acceptable.getFloat(flow.consumer);
+                if(load > limit) flow.amount *= limit / load;
+            }
+
+            // wires shared by more than one path are split in proportion to what each path wants
+            final float[] edgeLoad = new float[edgeRemaining.length];
+            for(Flow flow : flows) {
+                for(int slot : flow.edgeSlots)
+                    edgeLoad[slot] += flow.amount;
+            }
+
+            for(Flow flow : flows) {
+                float scale = 1;
+                for(int slot : flow.edgeSlots) {
+                    float load = edgeLoad[slot];
+                    float remaining = edgeRemaining[slot];
+                    if(load > remaining) scale = Math.min(scale, Math.max(remaining, 0) / load);
+                }
+                flow.amount *= scale;
+            }
+        }
+
+        /**
+         * Moves the watts decided by {@link FlowProblem#allocate() <code>allocate()</code>}. Must be called on the server thread.
+         * @return The total amount of watts delivered
+         */
+        public float apply() {
+            if(!allocated) throw new IllegalStateException("Error applying power flow - This FlowProblem hasn't been allocated yet!");
+            if(network != null) return applyMaxFlow();
+
+            // every flow is known, so watts can finally be moved
+            float delivered = 0;
+            for(Flow flow : flows) {
+                if(WattUnit.hasNoPotential(flow.amount)) continue;
+                final WattStorable source = senders.get(flow.sender);
+                final WattStorable destination = consumers.get(flow.consumer);
+
+                long extracted = source.extractWatts(PackedWatts.of(source.getFlux(), flow.amount), false);
+                long received = destination.receiveWatts(extracted, false);
+                flow.path.addLoad(received);
+                delivered += PackedWatts.getWatts(received);
+            }
+
+            return delivered;
+        }
+
+        // each route is loaded onto its own wires, at the voltage its own sender sent it at
+        private float applyMaxFlow() {
+            float delivered = 0;
+            for(GridFlowNetwork.Route route : routes) {
+                if(WattUnit.hasNoPotential(route.amount)) continue;
+                final WattStorable sender = senders.get(route.sender);
+                long extracted = sender.extractWatts(PackedWatts.of(sender.getFlux(), route.amount), false);
+                long received = consumers.get(route.consumer).receiveWatts(extracted, false);
+                if(PackedWatts.hasNoPotential(received)) continue;
+                delivered += PackedWatts.getWatts(received);
+
+                for(int e : route.edges) {
+                    // the grid may have been relinked since this problem was gathered, in which case the wire is simply skipped
+                    GridVertex source = verts[graph.getEdgeSource(e)];
+                    GridEdge wire = source == null ? null : graph.getEdge(e, source);
+                    if(wire != null) wire.loadThroughput(received);
+                }
+            }
+
+            return delivered;
+        }
+    }
+
+    private static class Flow {
+
+        private final GridPath path;
+        private final int sender;
+        private final int consumer;
+        private float amount;
+        private int[] edgeSlots;
+
+        private Flow(GridPath path, int sender, int consumer, float demand) {
+            this.path = path;
+            this.sender = sender;
+            this.consumer = consumer;
+            this.amount = demand;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Keeps track of which owner every GID belongs to, and which GIDs are inside of every chunk. <p>
+ * The {@link GlobalTransferGrid <code>GlobalTransferGrid</code>} uses this to map each GridVertex to the LocalTransferGrid that holds it,
+ * so that lookups by GID and by chunk don't have to iterate over every subgrid. A GID is only ever indexed under one owner -
+ * putting it again just moves it.
+ * @param <T> Type of the owner
+ */
+public class GridIndex<T> {
+
+    private final Object2ObjectOpenHashMap<GID, T> owners = new Object2ObjectOpenHashMap<>();
+
+    // chunks are packed with ChunkPos.asLong()
+    private final Long2ObjectOpenHashMap<Set<GID>> chunks = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Indexes the given GID under the given owner, replacing whatever owned it before.
+     * @return <code>TRUE</code> if the GID wasn't indexed before this call
+     */
+    public boolean put(GID id, T owner) {
+        if(id == null) throw new NullPointerException("Error indexing GID - GID is null!");
+        if(owner == null) throw new NullPointerException("Error indexing GID " + id + " - Owner is null!");
+        if(owners.put(id, owner) != null) return false;
+        chunks.computeIfAbsent(ChunkPos.asLong(id.getBlockPos()), c -> new ObjectOpenHashSet<>()).add(id);
+        return true;
+    }
+
+    /**
+     * Removes the given GID from this index, but only if it's still owned by <code>owner</code>.
+     * A GID that has since been moved to another owner is left alone.
+     * @return <code>TRUE</code> if the GID was removed
+     */
+    public boolean remove(GID id, T owner) {
+        if(!owners.remove(id, owner)) return false;
+        final long chunk = ChunkPos.asLong(id.getBlockPos());
+        final Set<GID> inChunk = chunks.get(chunk);
+        if(inChunk == null) return true;
+        inChunk.remove(id);
+        if(inChunk.isEmpty()) chunks.remove(chunk);
+        return true;
+    }
+
+    /**
+     * @return The owner of the given GID, or null if it isn't indexed.
+     */
+    @Nullable
+    public T get(GID id) {
+        if(id == null) return null;
+        return owners.get(id);
+    }
+
+    /**
+     * @param chunk Chunk to look in, packed with {@link ChunkPos#toLong() <code>ChunkPos.toLong()</code>}
+     * @return Every indexed GID inside of the chunk, or null if there aren't any. The returned set must not be modified.
+     */
+    @Nullable
+    public Set<GID> getInChunk(long chunk) {
+        return chunks.get(chunk);
+    }
+
+    public boolean hasChunk(long chunk) {
+        return chunks.containsKey(chunk);
+    }
+
+    /**
+     * @return The amount of indexed GIDs
+     */
+    public int size() {
+        return owners.size();
+    }
+
+    /**
+     * @return The amount of chunks with at least one indexed GID
+     */
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    public void clear() {
+        owners.clear();
+        chunks.clear();
+    }
+}
@@ -0,0 +1,183 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.Arrays;
+
+/**
+ * A flow network solved with Dinic's algorithm, used by the {@link GridFlowSolver <code>GridFlowSolver</code>}
+ * to find the largest amount of watts that can be moved across a LocalTransferGrid without overloading any wire. <p>
+ * Arcs are stored in pairs, so the partner of arc <code>a</code> is always <code>a ^ 1</code>.
+ * Directed arcs are paired with an empty reverse arc as usual. Wires are undirected, so they're
+ * stored as two arcs that both start with the wire's capacity and act as each other's reverse. <p>
+ * Every search is iterative, so long chains of wires can't overflow the stack.
+ */
+public class GridMaxFlow {
+
+    // flows smaller than this are treated as zero to avoid chasing floating point error
+    static final float EPSILON = 1e-4f;
+
+    private final int nodeCount;
+
+    private int[] head;
+    private int[] next;
+    private int[] to;
+    private float[] cap;
+    private float[] initialCap;
+    private int arcCount = 0;
+
+    private final int[] level;
+    private final int[] current;
+    private final int[] queue;
+    private final int[] stack;
+
+    public GridMaxFlow(int nodeCount, int expectedArcs) {
+        this.nodeCount = nodeCount;
+        this.head = new int[nodeCount];
+        Arrays.fill(head, -1);
+
+        int size = Math.max(expectedArcs, 2) * 2;
+        this.next = new int[size];
+        this.to = new int[size];
+        this.cap = new float[size];
+        this.initialCap = new float[size];
+
+        this.level = new int[nodeCount];
+        this.current = new int[nodeCount];
+        this.queue = new int[nodeCount];
+        this.stack = new int[nodeCount];
+    }
+
+    /**
+     * Adds a directed arc from <code>from</code> to <code>to</code>.
+     * @return The index of the new arc
+     */
+    public int addArc(int from, int to, float capacity) {
+        int a = pushArc(from, to, capacity);
+        pushArc(to, from, 0);
+        return a;
+    }
+
+    /**
+     * Adds an undirected arc between <code>a</code> and <code>b</code>, which can carry up to <code>capacity</code> in either direction.
+     * @return The index of the new arc. Positive flow across this arc means flow from <code>a</code> to <code>b</code>.
+     */
+    public int addUndirected(int a, int b, float capacity) {
+        int arc = pushArc(a, b, capacity);
+        pushArc(b, a, capacity);
+        return arc;
+    }
+
+    /**
+     * Changes the capacity of a directed arc while keeping the flow it already carries, so that
+     * {@link GridMaxFlow#solve(int, int) <code>solve()</code>} can be called again to push more flow on top of it.
+     * @param arc Index of an arc returned by {@link GridMaxFlow#addArc(int, int, float) <code>addArc()</code>}
+     * @param capacity The new capacity, which can't be lower than the flow the arc already carries
+     */
+    public void setCapacity(int arc, float capacity) {
+        if(initialCap[arc ^ 1] > 0) 
+            throw new IllegalArgumentException("Error setting arc capacity - Arc " + arc + " is undirected!");
+        final float flow = initialCap[arc] - cap[arc];
+        if(capacity < flow - EPSILON) 
+            throw new IllegalArgumentException("Error setting arc capacity - Arc " + arc + " already carries " + flow + ", which is more than " + capacity + "!");
+        initialCap[arc] = capacity;
+        cap[arc] = Math.max(capacity - flow, 0);
+    }
+
+    private int pushArc(int from, int target, float capacity) {
+        if(arcCount == to.length) {
+            int size = to.length * 2;
+            next = Arrays.copyOf(next, size);
+            to = Arrays.copyOf(to, size);
+            cap = Arrays.copyOf(cap, size);
+            initialCap = Arrays.copyOf(initialCap, size);
+        }
+        to[arcCount] = target;
+        cap[arcCount] = capacity;
+        initialCap[arcCount] = capacity;
+        next[arcCount] = head[from];
+        head[from] = arcCount;
+        return arcCount++;
+    }
+
+    /**
+     * Pushes as much flow as possible from <code>source</code> to <code>sink</code>. Calling this again
+     * pushes more flow on top of whatever was pushed before, which is only useful after capacities have changed.
+     * @return The total flow that was pushed by this call
+     */
+    public float solve(int source, int sink) {
+        float total = 0;
+        while(buildLevels(source, sink)) {
+            System.arraycopy(head, 0, current, 0, nodeCount);
+            float pushed;
+            while((pushed = augment(source, sink)) > EPSILON)
+                total += pushed;
+        }
+        return total;
+    }
+
+    /**
+     * @return The net flow across the given arc. For undirected arcs this is negative
+     * when the flow runs backwards.
+     */
+    public float getFlow(int arc) {
+        float flow = initialCap[arc] - cap[arc];
+        // an undirected arc's partner started out full, so half of the difference came from each side
+        if(initialCap[arc ^ 1] > 0) return flow / 2f - (initialCap[arc ^ 1] - cap[arc ^ 1]) / 2f;
+        return flow;
+    }
+
+    // breadth first search from the source, labelling every node with its distance in the residual graph
+    private boolean buildLevels(int source, int sink) {
+        Arrays.fill(level, -1);
+        int read = 0, write = 0;
+        queue[write++] = source;
+        level[source] = 0;
+        while(read < write) {
+            int u = queue[read++];
+            for(int a = head[u]; a != -1; a = next[a]) {
+                int v = to[a];
+                if(level[v] < 0 && cap[a] > EPSILON) {
+                    level[v] = level[u] + 1;
+                    queue[write++] = v;
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+    // finds one path through the level graph and pushes its bottleneck across it
+    private float augment(int source, int sink) {
+        int depth = 0;
+        int u = source;
+
+        while(true) {
+            if(u == sink) {
+                float bottleneck = Float.MAX_VALUE;
+                for(int x = 0; x < depth; x++)
+                    bottleneck = Math.min(bottleneck, cap[stack[x]]);
+                for(int x = 0; x < depth; x++) {
+                    cap[stack[x]] -= bottleneck;
+                    cap[stack[x] ^ 1] += bottleneck;
+                }
+                return bottleneck;
+            }
+
+            int a = current[u];
+            while(a != -1 && (cap[a] <= EPSILON || level[to[a]] != level[u] + 1))
+                a = next[a];
+            current[u] = a;
+
+            if(a != -1) {
+                stack[depth++] = a;
+                u = to[a];
+                continue;
+            }
+
+            // dead end, so this node can't be used again during this phase
+            level[u] = -1;
+            if(depth == 0) return 0;
+            int back = stack[--depth];
+            u = to[back ^ 1];
+            current[u] = next[current[u]];
+        }
+    }
+}
@@ -0,0 +1,651 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.Mechano;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+
+/**
+ * Persists the subgrids of a {@link GlobalTransferGrid <code>GlobalTransferGrid</code>} in region files, rather than
+ * as one capability blob, so that only the subgrids near loaded chunks have to be held in memory. <p>
+ * Regions are 32x32 chunks, the same as vanilla region files. Every subgrid is stored in the file of its "home" region
+ * (the lowest region it has a vertex in), under a storage ID that it keeps for as long as it exists. For every stored subgrid,
+ * a {@link StoredGrid <code>StoredGrid</code>} summary of which regions it spans stays resident. <p>
+ * The summary is written to a manifest next to the region files, and every save is committed by replacing the manifest in one move:
+ * region files are first written next to the real ones under the number of the save, then the manifest naming them is moved into place,
+ * and only then are they moved over the real files. A crash before the manifest moves leaves the last save intact, and a crash after it
+ * is finished the next time the manifest is read, so the summary and the region files can never disagree, and no storage ID is ever handed out twice. <p>
+ * When a chunk loads, every stored subgrid that spans its region is queued, and is read from disk at the start of the next tick.
+ * When the world saves, resident subgrids that have changed since they were last saved are written back to their region files, and any 
+ * subgrid that no longer spans a loaded region is dropped from memory until one of its chunks loads again.
+ */
+public class GridRegionStorage {
+
+    // regions are 32x32 chunks
+    public static final int REGION_SHIFT = 5;
+    private static final int FORMAT = 1;
+    private static final int MANIFEST_FORMAT = 1;
+    private static final String MANIFEST = "index.dat";
+
+    private final GlobalTransferGrid owner;
+
+    // summary of every subgrid on disk, by storage ID
+    private final Long2ObjectOpenHashMap<StoredGrid> stored = new Long2ObjectOpenHashMap<>();
+
+    // maps every region to the storage IDs of the stored subgrids that have a vertex in it
+    private final Long2ObjectOpenHashMap<LongSet> byRegion = new Long2ObjectOpenHashMap<>();
+
+    // how many chunks are loaded in each region
+    private final Long2IntOpenHashMap loadedChunks = new Long2IntOpenHashMap();
+    private final LongLinkedOpenHashSet pendingRegions = new LongLinkedOpenHashSet();
+
+    // storage IDs whose copy on disk has been superseded by something in memory - either a resident subgrid,
+    // or nothing at all if that subgrid was merged away since it was loaded. These are rewritten on the next save.
+    private final LongOpenHashSet claimedIds = new LongOpenHashSet();
+    private long nextId = 0;
+    private int lastRegionsWritten = 0;
+
+    // the number of the last committed save, and whether the manifest on disk has been read yet
+    private long generation = 0;
+    private boolean indexed = false;
+
+    // region files of the last committed save that couldn't be moved into place yet
+    @Nullable private CompoundTag unfinishedCommit = null;
+
+    public GridRegionStorage(GlobalTransferGrid owner) {
+        if(owner == null) throw new NullPointerException("Error creating GridRegionStorage - Owner cannot be null!");
+        this.owner = owner;
+    }
+
+    public static long regionOf(int chunkX, int chunkZ) {
+        return ChunkPos.asLong(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+    }
+
+    public static long regionOf(BlockPos pos) {
+        return regionOf(pos.getX() >> 4, pos.getZ() >> 4);
+    }
+
+    /**
+     * @return <code>TRUE</code> if this GridRegionStorage can find the world's save folder. If it can't,
+     * the owning GlobalTransferGrid is saved as one capability blob instead.
+     */
+    public boolean isAvailable() {
+        return getFolder() != null;
+    }
+
+    @Nullable
+    private Path getFolder() {
+        final MinecraftServer server = owner.getWorld().getServer();
+        if(server == null) return null;
+        return DimensionType.getStorageFolder(owner.getWorld().dimension(), server.getWorldPath(LevelResource.ROOT))
+            .resolve("data").resolve("mechano_grids");
+    }
+
+    private static File getRegionFile(Path folder, long region) {
+        return folder.resolve("r." + ChunkPos.getX(region) + "." + ChunkPos.getZ(region) + ".dat").toFile();
+    }
+
+    // where a region file is staged by the save with the given number, until that save is committed
+    private static File getStagedFile(Path folder, long region, long generation) {
+        return new File(getRegionFile(folder, region).getPath() + "." + generation + ".tmp");
+    }
+
+    protected void onChunkLoaded(ChunkPos chunk) {
+        final long region = regionOf(chunk.x, chunk.z);
+        loadedChunks.addTo(region, 1);
+        if(byRegion.containsKey(region)) pendingRegions.add(region);
+    }
+
+    protected void onChunkUnloaded(ChunkPos chunk) {
+        final long region = regionOf(chunk.x, chunk.z);
+        if(loadedChunks.addTo(region, -1) <= 1) loadedChunks.remove(region);
+    }
+
+    public boolean isRegionLoaded(long region) {
+        return loadedChunks.get(region) > 0;
+    }
+
+    /**
+     * @return <code>TRUE</code> if every region the given LocalTransferGrid has a vertex in has no loaded chunks
+     */
+    protected boolean isFullyUnloaded(LocalTransferGrid grid) {
+        for(GridVertex vert : grid.allVerts()) {
+            if(isRegionLoaded(regionOf(vert.getID().getBlockPos()))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads every stored subgrid that spans a region where a chunk has loaded since the last call,
+     * and hands it to the owning GlobalTransferGrid.
+     */
+    protected void loadPending() {
+        ensureIndexed();
+        if(pendingRegions.isEmpty()) return;
+        final Path folder = getFolder();
+        if(folder == null || !finishCommit(folder)) return;
+
+        // several subgrids can live in the same file, so each file is only read once per call
+        final Long2ObjectOpenHashMap<CompoundTag> files = new Long2ObjectOpenHashMap<>();
+
+        // loading a subgrid can load more chunks, which can queue more regions
+        while(!pendingRegions.isEmpty()) {
+            final LongSet ids = byRegion.get(pendingRegions.removeFirstLong());
+            if(ids == null) continue;
+
+            for(long id : ids.toLongArray()) {
+                final StoredGrid entry = stored.get(id);
+                if(entry == null || claimedIds.contains(id)) continue;
+
+                CompoundTag file = files.get(entry.home);
+                if(file == null) {
+                    try {
+                        file = readRegion(folder, entry.home);
+                    } catch(IOException e) {
+                        Mechano.LOGGER.error("Error reading grid region " + ChunkPos.getX(entry.home) + ", " + ChunkPos.getZ(entry.home)
+                            + " in GlobalTransferGrid(" + owner.getDimensionName() + ") - Subgrids stored here will be tried again when their chunks load: ", e);
+                        continue;
+                    }
+                    files.put(entry.home, file);
+                }
+
+                final CompoundTag gridTag = findGrid(file, id);
+                if(gridTag == null) {
+                    Mechano.LOGGER.warn("Subgrid " + id + " in GlobalTransferGrid(" + owner.getDimensionName() + ") is missing from its region file, forgetting it");
+                    forget(id);
+                    continue;
+                }
+
+                claimedIds.add(id);
+                // grids that load exactly as they were saved are left clean, so the next save doesn't rewrite them.
+                // Vertices in chunks that aren't loaded yet don't look up their hosts, so this never loads the rest of the grid's chunks
+                final LocalTransferGrid grid = new LocalTransferGrid(owner, gridTag, owner.getWorld());
+                grid.setStorageId(id);
+                owner.adopt(grid);
+            }
+        }
+    }
+
+    @Nullable
+    private static CompoundTag findGrid(CompoundTag file, long id) {
+        final ListTag grids = file.getList("grids", Tag.TAG_COMPOUND);
+        for(int x = 0; x < grids.size(); x++) {
+            CompoundTag grid = grids.getCompound(x);
+            if(grid.getLong("id") == id) return grid;
+        }
+        return null;
+    }
+
+    /**
+     * Writes every resident subgrid that has changed since it was last saved to its region file. Only files that hold 
+     * (or used to hold) one of those subgrids are touched, and everything else in them is carried over as it was read. 
+     * If anything can't be read or written, nothing in memory is changed, so the next save tries again.
+     * @param resident Every LocalTransferGrid currently held by the owning GlobalTransferGrid
+     * @return The number of subgrids that were written, or <code>-1</code> if the save failed
+     */
+    protected int save(List<LocalTransferGrid> resident) {
+        ensureIndexed();
+        final Path folder = getFolder();
+        if(folder == null || !finishCommit(folder)) return -1;
+
+        final LongOpenHashSet residentIds = new LongOpenHashSet();
+        final Long2ObjectOpenHashMap<StoredGrid> written = new Long2ObjectOpenHashMap<>();
+        final Long2ObjectOpenHashMap<List<LocalTransferGrid>> byHome = new Long2ObjectOpenHashMap<>();
+        final LongOpenHashSet touched = new LongOpenHashSet();
+
+        for(LocalTransferGrid grid : resident) {
+            if(grid.isEmpty()) continue;
+            if(grid.getStorageId() < 0) grid.setStorageId(nextId++);
+            residentIds.add(grid.getStorageId());
+
+            // clean grids are already on disk exactly as they are now
+            final StoredGrid old = stored.get(grid.getStorageId());
+            if(old != null && !grid.isDirty()) continue;
+
+            final StoredGrid entry = StoredGrid.of(grid);
+            written.put(entry.id, entry);
+            byHome.computeIfAbsent(entry.home, home -> new ArrayList<>()).add(grid);
+            touched.add(entry.home);
+            if(old != null) touched.add(old.home);
+        }
+
+        // subgrids that were loaded but have since been merged away or discarded are erased from their files
+        final LongOpenHashSet dropped = new LongOpenHashSet();
+        for(long id : claimedIds) {
+            if(residentIds.contains(id)) continue;
+            dropped.add(id);
+            StoredGrid old = stored.get(id);
+            if(old != null) touched.add(old.home);
+        }
+
+        if(touched.isEmpty()) {
+            claimedIds.clear();
+            claimedIds.addAll(residentIds);
+            lastRegionsWritten = 0;
+            return 0;
+        }
+
+        // the summary as it will be once this save is committed
+        final Long2ObjectOpenHashMap<StoredGrid> summary = new Long2ObjectOpenHashMap<>(stored);
+        for(long id : dropped)
+            summary.remove(id);
+        summary.putAll(written);
+
+        final long gen = generation + 1;
+        final LongArrayList staged = new LongArrayList();
+        final LongArrayList erased = new LongArrayList();
+        try {
+            Files.createDirectories(folder);
+            for(long home : touched) {
+                final ListTag out = new ListTag();
+
+                final ListTag existing = readRegion(folder, home).getList("grids", Tag.TAG_COMPOUND);
+                for(int x = 0; x < existing.size(); x++) {
+                    CompoundTag grid = existing.getCompound(x);
+                    long id = grid.getLong("id");
+                    if(!dropped.contains(id) && !written.containsKey(id)) out.add(grid);
+                }
+
+                for(LocalTransferGrid grid : byHome.getOrDefault(home, List.of())) {
+                    CompoundTag gridTag = grid.writeTo(new CompoundTag());
+                    gridTag.putLong("id", grid.getStorageId());
+                    out.add(gridTag);
+                }
+
+                if(out.isEmpty()) erased.add(home);
+                else {
+                    stageRegion(folder, home, gen, out);
+                    staged.add(home);
+                }
+            }
+            writeManifest(folder, gen, summary, staged.toLongArray(), erased.toLongArray());
+        } catch(IOException e) {
+            for(long home : staged)
+                getStagedFile(folder, home, gen).delete();
+            Mechano.LOGGER.error("Error saving grid regions for GlobalTransferGrid(" + owner.getDimensionName() + ") - Resident subgrids will be kept in memory until the next save: ", e);
+            return -1;
+        }
+
+        // the manifest has been moved into place, so this save counts even if its region files can't be moved yet
+        generation = gen;
+        unfinishedCommit = commitOf(gen, staged.toLongArray(), erased.toLongArray());
+        finishCommit(folder);
+
+        for(long id : dropped)
+            forget(id);
+
+        for(StoredGrid entry : written.values()) {
+            forget(entry.id);
+            remember(entry);
+        }
+
+        for(List<LocalTransferGrid> grids : byHome.values()) {
+            for(LocalTransferGrid grid : grids)
+                grid.markSaved();
+        }
+
+        claimedIds.clear();
+        claimedIds.addAll(residentIds);
+        lastRegionsWritten = touched.size();
+        return written.size();
+    }
+
+    /**
+     * @return How many region files were rewritten by the most recent save
+     */
+    public int getLastRegionsWritten() {
+        return lastRegionsWritten;
+    }
+
+    /**
+     * Hands a resident subgrid back to disk. Its stored copy is up-to-date again as of the last save,
+     * so it can be loaded from there the next time one of its chunks loads.
+     */
+    protected void release(LocalTransferGrid grid) {
+        claimedIds.remove(grid.getStorageId());
+    }
+
+    /**
+     * Marks every stored subgrid as claimed without loading it, so that all of them are erased on the next save.
+     */
+    protected void discardAll() {
+        ensureIndexed();
+        claimedIds.addAll(stored.keySet());
+        pendingRegions.clear();
+    }
+
+    private void remember(StoredGrid entry) {
+        stored.put(entry.id, entry);
+        for(long region : entry.regions)
+            byRegion.computeIfAbsent(region, r -> new LongOpenHashSet()).add(entry.id);
+    }
+
+    private void forget(long id) {
+        final StoredGrid entry = stored.remove(id);
+        if(entry == null) return;
+        for(long region : entry.regions) {
+            LongSet ids = byRegion.get(region);
+            if(ids == null) continue;
+            ids.remove(id);
+            if(ids.isEmpty()) byRegion.remove(region);
+        }
+    }
+
+    private static CompoundTag readRegion(Path folder, long region) throws IOException {
+        final File file = getRegionFile(folder, region);
+        if(!file.exists()) return new CompoundTag();
+        final CompoundTag tag = NbtIo.readCompressed(file);
+        if(tag.getInt("v") != FORMAT)
+            throw new IOException("Unknown grid region format " + tag.getInt("v") + " in " + file);
+        return tag;
+    }
+
+    // region files are only staged here, and aren't moved over the real ones until the manifest naming them is in place
+    private static void stageRegion(Path folder, long region, long generation, ListTag grids) throws IOException {
+        final CompoundTag tag = new CompoundTag();
+        tag.putInt("v", FORMAT);
+        tag.put("grids", grids);
+        NbtIo.writeCompressed(tag, getStagedFile(folder, region, generation));
+    }
+
+    private void writeManifest(Path folder, long generation, Long2ObjectOpenHashMap<StoredGrid> summary, long[] staged, long[] erased) throws IOException {
+        final CompoundTag tag = new CompoundTag();
+        tag.putInt("v", MANIFEST_FORMAT);
+        tag.putLong("nid", nextId);
+        tag.put("idx", writeIndex(summary));
+        tag.put("c", commitOf(generation, staged, erased));
+
+        final Path manifest = folder.resolve(MANIFEST);
+        final Path temp = folder.resolve(MANIFEST + ".tmp");
+        NbtIo.writeCompressed(tag, temp.toFile());
+        replace(temp, manifest);
+    }
+
+    private static CompoundTag commitOf(long generation, long[] staged, long[] erased) {
+        final CompoundTag commit = new CompoundTag();
+        commit.putLong("g", generation);
+        commit.putLongArray("s", staged);
+        commit.putLongArray("e", erased);
+        return commit;
+    }
+
+    /**
+     * Moves the region files staged by the last committed save over the real ones, and deletes the ones it emptied.
+     * This can be repeated safely, since files that have already been moved aren't staged anymore.
+     * @return <code>FALSE</code> if the last committed save still couldn't be finished, in which case region files can't be trusted yet
+     */
+    private boolean finishCommit(Path folder) {
+        if(unfinishedCommit == null) return true;
+        final long gen = unfinishedCommit.getLong("g");
+        try {
+            for(long region : unfinishedCommit.getLongArray("s")) {
+                File staged = getStagedFile(folder, region, gen);
+                if(staged.exists()) replace(staged.toPath(), getRegionFile(folder, region).toPath());
+            }
+            for(long region : unfinishedCommit.getLongArray("e"))
+                Files.deleteIfExists(getRegionFile(folder, region).toPath());
+        } catch(IOException e) {
+            Mechano.LOGGER.error("Error finishing the last grid save for GlobalTransferGrid(" + owner.getDimensionName() + ") - It will be tried again: ", e);
+            return false;
+        }
+        unfinishedCommit = null;
+        return true;
+    }
+
+    private static void replace(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the manifest, finishes the save it describes if a crash interrupted it, and deletes anything staged by a save that was never committed.
+     * @return The manifest, or <code>null</code> if there isn't one yet
+     */
+    @Nullable
+    private CompoundTag readManifest(Path folder) throws IOException {
+        final File file = folder.resolve(MANIFEST).toFile();
+        if(!file.exists()) return null;
+        final CompoundTag manifest = NbtIo.readCompressed(file);
+        if(manifest.getInt("v") != MANIFEST_FORMAT)
+            throw new IOException("Unknown grid manifest format " + manifest.getInt("v") + " in " + file);
+
+        generation = manifest.getCompound("c").getLong("g");
+        unfinishedCommit = manifest.getCompound("c");
+        if(!finishCommit(folder)) return manifest;
+
+        try(DirectoryStream<Path> leftovers = Files.newDirectoryStream(folder, "*.tmp")) {
+            for(Path leftover : leftovers)
+                Files.deleteIfExists(leftover);
+        }
+        return manifest;
+    }
+
+    // the manifest is read the first time the storage is used, for worlds where it was never read alongside the capability
+    private void ensureIndexed() {
+        if(indexed) return;
+        indexed = true;
+        final CompoundTag manifest = tryReadManifest();
+        if(manifest == null) return;
+        readIndex(manifest.getList("idx", Tag.TAG_COMPOUND));
+        nextId = Math.max(nextId, manifest.getLong("nid"));
+        queueLoadedRegions();
+    }
+
+    @Nullable
+    private CompoundTag tryReadManifest() {
+        final Path folder = getFolder();
+        if(folder == null) return null;
+        try {
+            return readManifest(folder);
+        } catch(IOException e) {
+            Mechano.LOGGER.error("Error reading the grid manifest for GlobalTransferGrid(" + owner.getDimensionName() + ") - Falling back to the summary saved with the world: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the summary of every stored subgrid. The manifest next to the region files is always preferred, and the summary
+     * written by {@link GridRegionStorage#writeTo(CompoundTag) <code>writeTo()</code>} is only used by worlds saved before there was one.
+     * Nothing is loaded until the chunks it describes do.
+     */
+    protected void readFrom(CompoundTag in) {
+        reset();
+        nextId = in.getLong("nid");
+
+        final CompoundTag manifest = tryReadManifest();
+        if(manifest == null) readIndex(in.getList("idx", Tag.TAG_COMPOUND));
+        else {
+            readIndex(manifest.getList("idx", Tag.TAG_COMPOUND));
+            nextId = Math.max(nextId, manifest.getLong("nid"));
+        }
+        queueLoadedRegions();
+    }
+
+    /**
+     * Reads only the subgrids that were left out of a GlobalTransferGrid saved as one blob, since they couldn't be read back out
+     * of their region files at the time. Everything else in the manifest is already part of the blob, and is left alone.
+     * Storage IDs still continue on from the manifest's, so none are reused.
+     */
+    protected void readUnloaded(CompoundTag in) {
+        reset();
+        nextId = in.getLong("nid");
+
+        final CompoundTag manifest = tryReadManifest();
+        if(manifest != null) nextId = Math.max(nextId, manifest.getLong("nid"));
+        readIndex(in.getList("idx", Tag.TAG_COMPOUND));
+        queueLoadedRegions();
+    }
+
+    private void reset() {
+        stored.clear();
+        byRegion.clear();
+        claimedIds.clear();
+        indexed = true;
+    }
+
+    private void readIndex(ListTag index) {
+        for(int x = 0; x < index.size(); x++) {
+            CompoundTag entry = index.getCompound(x);
+            remember(new StoredGrid(entry.getLong("id"), entry.getLong("h"), entry.getLongArray("r"), entry.getInt("n")));
+        }
+    }
+
+    // chunks that loaded before the summary was read still need their subgrids
+    private void queueLoadedRegions() {
+        for(long region : loadedChunks.keySet())
+            if(byRegion.containsKey(region)) pendingRegions.add(region);
+    }
+
+    protected CompoundTag writeTo(CompoundTag in) {
+        return writeTo(in, false);
+    }
+
+    /**
+     * Writes the summary of every stored subgrid, or only of those that aren't loaded right now.
+     * @param in Tag to write to
+     * @param unloadedOnly If <code>TRUE</code>, subgrids that are resident are left out, since they're being saved some other way
+     * @return <code>in</code>, modified as a result of this call
+     */
+    protected CompoundTag writeTo(CompoundTag in, boolean unloadedOnly) {
+        final ListTag index = new ListTag();
+        for(StoredGrid entry : stored.values()) {
+            if(unloadedOnly && claimedIds.contains(entry.id)) continue;
+            index.add(entry.writeTo(new CompoundTag()));
+        }
+        in.putLong("nid", nextId);
+        in.put("idx", index);
+        return in;
+    }
+
+    private static ListTag writeIndex(Long2ObjectOpenHashMap<StoredGrid> summary) {
+        final ListTag index = new ListTag();
+        for(StoredGrid entry : summary.values())
+            index.add(entry.writeTo(new CompoundTag()));
+        return index;
+    }
+
+    /**
+     * Reads the stored copy of every subgrid that's only on disk right now, so that the owning GlobalTransferGrid can be
+     * saved as one blob without losing the subgrids that aren't loaded.
+     * @param out List to add the tag of each stored subgrid to
+     * @return The number of subgrids that were added, or <code>-1</code> if any region file couldn't be read, in which case nothing was added
+     */
+    protected int collectUnloaded(ListTag out) {
+        ensureIndexed();
+        if(getUnloadedCount() == 0) return 0;
+        final Path folder = getFolder();
+        if(folder == null || !finishCommit(folder)) return -1;
+
+        final Long2ObjectOpenHashMap<CompoundTag> files = new Long2ObjectOpenHashMap<>();
+        final ListTag found = new ListTag();
+        for(StoredGrid entry : stored.values()) {
+            if(claimedIds.contains(entry.id)) continue;
+
+            CompoundTag file = files.get(entry.home);
+            if(file == null) {
+                try {
+                    file = readRegion(folder, entry.home);
+                } catch(IOException e) {
+                    Mechano.LOGGER.error("Error reading grid region " + ChunkPos.getX(entry.home) + ", " + ChunkPos.getZ(entry.home)
+                        + " in GlobalTransferGrid(" + owner.getDimensionName() + ") - Unloaded subgrids will stay in their region files: ", e);
+                    return -1;
+                }
+                files.put(entry.home, file);
+            }
+
+            final CompoundTag gridTag = findGrid(file, entry.id);
+            if(gridTag == null) {
+                Mechano.LOGGER.warn("Subgrid " + entry.id + " in GlobalTransferGrid(" + owner.getDimensionName() + ") is missing from its region file, it won't be saved");
+                continue;
+            }
+            found.add(gridTag);
+        }
+
+        out.addAll(found);
+        return found.size();
+    }
+
+    /**
+     * @return How many subgrids are stored on disk, whether or not they're currently loaded
+     */
+    public int getStoredCount() {
+        return stored.size();
+    }
+
+    /**
+     * @return How many stored subgrids are only on disk right now, and aren't loaded
+     */
+    public int getUnloadedCount() {
+        int count = 0;
+        for(Long2ObjectMap.Entry<StoredGrid> entry : stored.long2ObjectEntrySet())
+            if(!claimedIds.contains(entry.getLongKey())) count++;
+        return count;
+    }
+
+    /**
+     * The lightweight summary of a stored subgrid that stays in memory whether or not the subgrid is loaded.
+     */
+    private static class StoredGrid {
+
+        private final long id;
+        private final long home;
+        private final long[] regions;
+        private final int size;
+
+        private StoredGrid(long id, long home, long[] regions, int size) {
+            this.id = id;
+            this.home = home;
+            this.regions = regions;
+            this.size = size;
+        }
+
+        private static StoredGrid of(LocalTransferGrid grid) {
+            final LongOpenHashSet regions = new LongOpenHashSet();
+            for(GridVertex vert : grid.allVerts())
+                regions.add(regionOf(vert.getID().getBlockPos()));
+
+            final long[] sorted = regions.toLongArray();
+            Arrays.sort(sorted);
+            return new StoredGrid(grid.getStorageId(), sorted[0], sorted, grid.size());
+        }
+
+        private CompoundTag writeTo(CompoundTag in) {
+            in.putLong("id", id);
+            in.putLong("h", home);
+            in.putLongArray("r", regions);
+            in.putInt("n", size);
+            return in;
+        }
+    }
+}
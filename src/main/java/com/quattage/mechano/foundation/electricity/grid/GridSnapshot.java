@@ -0,0 +1,171 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.foundation.electricity.WattBatteryHandlable.ExternalInteractMode;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+
+/**
+ * A GridSnapshot is an immutable copy of a LocalTransferGrid's adjacency, taken on the server thread
+ * so that paths can be solved on the grid worker pool without touching the live grid. <p>
+ * Adjacency is held by a {@link CompactGridGraph <code>CompactGridGraph</code>}. The ExternalInteractMode 
+ * of every member vertex is captured as well, since BlockEntity capabilities can't be safely 
+ * accessed from a worker thread. <p>
+ * Workers only ever produce edge indices. They're turned back into GridPaths on the server thread, once the
+ * {@link Solution <code>Solution</code>} is known to still match the grid.
+ */
+public class GridSnapshot {
+
+    private final LocalTransferGrid grid;
+    private final int version;
+
+    private final CompactGridGraph graph;
+    private final GridVertex[] verts; // only read on the server thread, when paths are built from a Solution
+    private final ExternalInteractMode[] modes; // null for vertices that can't form paths
+
+    private GridSnapshot(LocalTransferGrid grid) {
+        this.grid = grid;
+        this.version = grid.getVersion();
+        this.graph = grid.getCompactGraph();
+        this.verts = graph.collectVertices(grid);
+
+        final int size = graph.size();
+        this.modes = new ExternalInteractMode[size];
+        for(int x = 0; x < size; x++) {
+            GridVertex vert = verts[x];
+            if(vert != null && vert.isMember() && !vert.hasNoHost()) modes[x] = vert.getHostCapabilityMode();
+        }
+    }
+
+    /**
+     * Copies the adjacency of the given LocalTransferGrid. Must be called on the server thread.
+     * @param grid LocalTransferGrid to copy
+     * @return A new GridSnapshot
+     */
+    public static GridSnapshot of(LocalTransferGrid grid) {
+        if(grid == null) throw new NullPointerException("Error taking GridSnapshot - The provided LocalTransferGrid is null!");
+        return new GridSnapshot(grid);
+    }
+
+    /**
+     * Finds the optimal path between every pair of compatible members in this snapshot.
+     * This is safe to call from any thread, as only the snapshot's own arrays are accessed.
+     * @return A Solution containing every path that was found
+     */
+    public Solution solve() {
+        final IntArrayList out = new IntArrayList();
+        final int size = graph.size();
+
+        final float[] dist = new float[size];
+        final int[] predEdge = new int[size];
+        final LongHeapPriorityQueue open = new LongHeapPriorityQueue();
+
+        for(int origin = 0; origin < size; origin++) {
+            if(modes[origin] == null) continue;
+
+            graph.shortestPaths(origin, dist, predEdge, open);
+
+            for(int target = 0; target < size; target++) {
+                if(modes[target] == null || !modes[target].isCompatableWith(modes[origin])) continue;
+                int hops = graph.countHops(target, predEdge);
+                if(hops == 0) continue;
+
+                // each path is stored as its length, followed by its edges from the target back to the origin
+                out.add(hops);
+                for(int current = target; predEdge[current] >= 0; current = graph.getEdgeSource(predEdge[current]))
+                    out.add(predEdge[current]);
+            }
+        }
+
+        return new Solution(this, out.toIntArray());
+    }
+
+    // turns the edge indices written by solve() back into GridPaths, called on the server thread
+    private List<GridPath> buildPaths(int[] solved) {
+        final List<GridPath> out = new ArrayList<>();
+        int x = 0;
+        while(x < solved.length) {
+            final int hops = solved[x++];
+            final GridEdge[] members = new GridEdge[hops];
+            float lowestWatts = Float.MAX_VALUE;
+
+            GridVertex local = verts[graph.getEdgeTarget(solved[x])];
+            for(int hop = 0; hop < hops && local != null; hop++) {
+                GridEdge leap = graph.findLeap(local, graph.getEdgeSource(solved[x + hop]));
+                if(leap == null) {
+                    local = null;
+                    break;
+                }
+                members[hop] = leap;
+                lowestWatts = Math.min(lowestWatts, leap.getMaximumWatts());
+                local = leap.getDestinationVertex();
+            }
+
+            if(local != null) out.add(new GridPath(members, lowestWatts));
+            x += hops;
+        }
+        return out;
+    }
+
+    public LocalTransferGrid getGrid() {
+        return grid;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * The result of {@link GridSnapshot#solve() <code>solve()</code>}, handed back to the server thread
+     * to be committed to the LocalTransferGrid it was taken from.
+     */
+    public static class Solution {
+
+        private final GridSnapshot snapshot;
+        @Nullable
+        private final int[] solved;
+
+        private Solution(GridSnapshot snapshot, @Nullable int[] solved) {
+            this.snapshot = snapshot;
+            this.solved = solved;
+        }
+
+        /**
+         * Creates a Solution that indicates the snapshot could not be solved.
+         */
+        public static Solution ofFailed(GridSnapshot snapshot) {
+            return new Solution(snapshot, null);
+        }
+
+        public LocalTransferGrid getGrid() {
+            return snapshot.grid;
+        }
+
+        public int getVersion() {
+            return snapshot.version;
+        }
+
+        public boolean failed() {
+            return solved == null;
+        }
+
+        /**
+         * Builds every path that was found. Paths are made out of the grid's live GridEdges, so this must
+         * be called on the server thread, and only while the grid's version still matches this Solution's.
+         * @return A new list of GridPaths, or null if this Solution failed.
+         */
+        @Nullable
+        public List<GridPath> getPaths() {
+            if(solved == null) return null;
+            return snapshot.buildPaths(solved);
+        }
+    }
+}
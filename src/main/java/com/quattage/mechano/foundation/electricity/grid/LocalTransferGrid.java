@@ -1,8 +1,9 @@
 package com.quattage.mechano.foundation.electricity.grid;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -13,7 +14,9 @@ import java.util.Set;
 import javax.annotation.Nullable;
 
 import com.quattage.mechano.Mechano;
+import com.quattage.mechano.MechanoSettings;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GIDPair;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
@@ -22,6 +25,10 @@ import com.quattage.mechano.foundation.electricity.grid.network.GridSyncPacketTy
 import com.quattage.mechano.foundation.helper.VectorHelper;
 import com.simibubi.create.foundation.utility.Color;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import it.unimi.dsi.fastutil.objects.Object2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
@@ -47,10 +54,37 @@ import net.minecraft.world.level.Level;
 public class LocalTransferGrid {
 
     private final Map<GID, GridVertex> vertMatrix = new Object2ObjectOpenHashMap<>();
-    private final TransferPathManager pathManager = new TransferPathManager();
+    private final TransferPathManager pathManager = new TransferPathManager(this);
 
     private final GlobalTransferGrid parent;
 
+    // bookkeeping for the incremental path updates performed whenever an edge is added or removed
+    private int lastPathsExamined = 0;
+    private int lastPathsRecomputed = 0;
+    private long totalPathsRecomputed = 0;
+
+    // incremented whenever this grid's structure or membership changes, used to discard stale asynchronous solves
+    private int version = 0;
+    private boolean solvePending = false;
+
+    // lazily built primitive copy of this grid. Dropped whenever this grid changes, or once it hasn't been used for a while
+    @Nullable private CompactGridGraph compactGraph = null;
+    private long compactGraphUsed = 0;
+
+    // the key this grid is saved under by the GridRegionStorage, or -1 if it hasn't been saved yet
+    private long storageId = -1;
+
+    // whether anything written by writeTo has changed since this grid was last saved. New grids (including
+    // the results of merges and splits) start out dirty
+    private boolean dirty = true;
+    @Nullable private CompoundTag savedTag = null;
+
+    // tolerance used when comparing path lengths, so that floating point error doesn't cause needless re-pathing
+    private static final float LENGTH_EPSILON = 0.0001f;
+
+    // how many ticks a CompactGridGraph can go unused before it's released
+    private static final int COMPACT_GRAPH_IDLE_TICKS = 200;
+
     /**
      * Instantiates a blank LocalTransferGrid
      */
@@ -84,6 +118,28 @@ public class LocalTransferGrid {
         return out;
     }
 
+    /**
+     * Moves every GridVertex (and every path) from <code>other</code> into this LocalTransferGrid. 
+     * The other LocalTransferGrid should be discarded afterwards. <p>
+     * Only the absorbed grid is iterated, so callers should absorb the smaller of two grids into the larger one.
+     * Like {@link LocalTransferGrid#ofMerged(GlobalTransferGrid, boolean, LocalTransferGrid...) <code>ofMerged()</code>}, 
+     * the result will contain a discontinuity until a connection between both grids is made.
+     * @param other LocalTransferGrid to absorb
+     * @param sync If <code>TRUE</code>, absorbed GridVertices will be synced to their host BlockEntities
+     */
+    protected void absorb(LocalTransferGrid other, boolean sync) {
+        if(other == null) throw new NullPointerException("Error absorbing LocalTransferGrid - The provided grid is null!");
+        if(other == this) throw new IllegalArgumentException("Error absorbing LocalTransferGrid - A grid cannot absorb itself!");
+
+        for(GridVertex vert : other.allVerts()) {
+            vert.replaceParent(this);
+            if(sync) vert.doFullSync(false);
+            addVert(vert);
+        }
+        collectPaths(other, this);
+        if(other.solvePending) requestAsyncSolve();
+    }
+
     /**
      * Copies all paths from <code>source</code> to <code>destination</code> conditionally.
      * A path is said to "belong" to a LocalTransferGrid if its starting and ending vertices 
@@ -119,41 +175,244 @@ public class LocalTransferGrid {
 
     public LocalTransferGrid(GlobalTransferGrid parent, CompoundTag in, Level world) {
         this.parent = parent;
+
+        // persisted paths refer to vertices by their index in the saved vertex list
+        final GID[] order = in.contains("pos", Tag.TAG_LONG_ARRAY) ? readPacked(in, world) : readLegacy(in, world);
+        loadPaths(in, order);
+    }
+
+    /**
+     * Restores the paths that were saved in <code>in</code>, or finds them all again if they can't be restored.
+     * Called once every vertex has been read.
+     * @param in Tag this LocalTransferGrid was read from
+     * @param order The GID of every saved vertex, in the order they were saved
+     */
+    protected void loadPaths(CompoundTag in, GID[] order) {
+        final int dropped = restorePaths(in.getCompound("pt"), order);
+        if(dropped < 0) findAllPaths(false);
+
+        // anything that had to be re-pathed or dropped differs from what was read, so it should be saved again
+        this.dirty = dropped != 0;
+    }
+
+    /**
+     * Reads the packed format written by {@link LocalTransferGrid#writeTo(CompoundTag) <code>writeTo()</code>}:
+     * <ul>
+     * <li><code>"pos"</code> - Every vertex's BlockPos, as a long</li>
+     * <li><code>"sub"</code> - Every vertex's sub-index, as a byte</li>
+     * <li><code>"m"</code> - Whether each vertex is a member (<code>1</code>) or not (<code>0</code>)</li>
+     * <li><code>"e"</code> - Every edge, stored once as <code>[origin index, destination index, wire type]</code></li>
+     * </ul>
+     * @return The GID of every saved vertex, in the order they were saved
+     */
+    private GID[] readPacked(CompoundTag in, Level world) {
+        final long[] positions = in.getLongArray("pos");
+        final byte[] subIndices = in.getByteArray("sub");
+        final byte[] members = in.getByteArray("m");
+        final int[] edges = in.getIntArray("e");
+
+        if(subIndices.length != positions.length || members.length != positions.length || edges.length % 3 != 0) {
+            Mechano.LOGGER.error("Error reading LocalTransferGrid - Packed data is malformed! (" + positions.length + " positions, " 
+                + subIndices.length + " sub-indices, " + members.length + " member flags, " + edges.length + " edge values) This grid will be skipped.");
+            return new GID[0];
+        }
+
+        final GID[] order = new GID[positions.length];
+        final GridVertex[] verts = new GridVertex[positions.length];
+        for(int x = 0; x < positions.length; x++) {
+            order[x] = new GID(BlockPos.of(positions[x]), subIndices[x]);
+            verts[x] = new GridVertex(world, this, order[x]);
+            verts[x].setMemberStatus(members[x] != 0);
+        }
+
+        final GridEdge[] created = new GridEdge[edges.length / 3];
+        for(int x = 0; x < edges.length; x += 3) {
+            final int a = edges[x];
+            final int b = edges[x + 1];
+            if(a < 0 || b < 0 || a >= verts.length || b >= verts.length || a == b) {
+                Mechano.LOGGER.warn("LocalTransferGrid skipping invalid edge [" + a + " -> " + b + "]");
+                continue;
+            }
+
+            GridEdge edge = new GridEdge(verts[a], verts[b], edges[x + 2]);
+            verts[a].addLink(edge);
+            verts[b].addLink(edge.getInverse());
+            created[x / 3] = edge;
+        }
+
+        final boolean[] kept = new boolean[verts.length];
+        for(int x = 0; x < verts.length; x++) {
+            final GridVertex vert = verts[x];
+            // if this GridVertex has bad data, don't add it (or let anything else link to it)
+            if((vert.hasNoHost() && !vert.isAwaitingHost()) || vert.isEmpty()) {
+                Mechano.LOGGER.warn("LocalTransferGrid skipping registration of GridVertex at " + vert.getID());
+                for(GridEdge link : vert.links)
+                    link.getDestinationVertex().links.remove(link.getInverse());
+                continue;
+            }
+
+            // vertices in chunks that aren't loaded yet are synced once their hosts are found
+            if(!vert.isAwaitingHost()) vert.doSimplifiedSync();
+            vertMatrix.put(vert.getID(), vert);
+            kept[x] = true;
+        }
+
+        // clients are only told about edges that survived, so they never render a wire the server dropped
+        for(int x = 0; x < created.length; x++) {
+            if(created[x] == null || !kept[edges[x * 3]] || !kept[edges[x * 3 + 1]]) continue;
+            GridSyncHelper.informPlayerEdgeUpdate(world, GridSyncPacketType.ADD_WORLD, created[x].toLightweight());
+        }
+
+        return order;
+    }
+
+    /**
+     * Reads the original format, where every vertex is a CompoundTag in the <code>"nt"</code> list that holds its
+     * own copy of each of its links. Grids in this format are written in the packed format the next time they're saved.
+     * @return The GID of every saved vertex, in the order they were saved
+     */
+    private GID[] readLegacy(CompoundTag in, Level world) {
         ListTag net = in.getList("nt", Tag.TAG_COMPOUND);
+
+        final GID[] order = new GID[net.size()];
         for(int x = 0; x < net.size(); x++) {
 
             CompoundTag vertTag = net.getCompound(x);
+            order[x] = GID.of(vertTag);
 
             // Whenever we add a new GridVertex we first check if it already exists, 
             // since it could've been created by a previous iteration.
-            GridVertex vert = getVertAt(GID.of(vertTag));
+            GridVertex vert = getVertAt(order[x]);
             if(vert == null) 
                 vert = new GridVertex(world, this, vertTag);
             else 
                 vert.readRetroactive(world, vertTag);
 
             // if this GridVertex has bad data, don't add it
-            if(vert.hasNoHost()) {
+            if(vert.hasNoHost() && !vert.isAwaitingHost()) {
                 Mechano.LOGGER.warn("LocalTransferGrid skipping registration of GridVertex at " + vert.getID());
                 continue;
             }
 
-            vert.doSimplifiedSync();
+            if(!vert.isAwaitingHost()) vert.doSimplifiedSync();
             vertMatrix.put(vert.getID(), vert);
         }
 
-        findAllPaths(false);
+        return order;
     }
 
     //  Write this LocalTransferGrid to NBT.  //
     protected CompoundTag writeTo(CompoundTag in) {
-        ListTag out = new ListTag();
-        for(GridVertex v : vertMatrix.values())
-            out.add(v.writeTo(new CompoundTag()));
-        in.put("nt", out);
+        final GridVertex[] order = vertMatrix.values().toArray(GridVertex[]::new);
+        if(!writePacked(in, order)) {
+            ListTag out = new ListTag();
+            for(GridVertex v : order)
+                out.add(v.writeTo(new CompoundTag()));
+            in.put("nt", out);
+        }
+
+        // paths are still being solved, so whatever is stored right now may not be worth keeping
+        if(MechanoSettings.PERSIST_GRID_PATHS && !solvePending)
+            pathManager.writeTo(in, order, getStructureChecksum(order));
         return in;
     }
 
+    /**
+     * Writes this LocalTransferGrid in the packed format. See {@link LocalTransferGrid#readPacked(CompoundTag, Level) <code>readPacked()</code>}
+     * @return <code>FALSE</code> if this grid can't be packed (a sub-index doesn't fit in a byte), in which case nothing was written
+     */
+    private boolean writePacked(CompoundTag in, GridVertex[] order) {
+        final Object2IntOpenHashMap<GID> indices = new Object2IntOpenHashMap<>(order.length);
+        indices.defaultReturnValue(-1);
+
+        final long[] positions = new long[order.length];
+        final byte[] subIndices = new byte[order.length];
+        final byte[] members = new byte[order.length];
+        for(int x = 0; x < order.length; x++) {
+            final GID id = order[x].getID();
+            if(id.getSubIndex() != (byte)id.getSubIndex()) return false;
+            positions[x] = id.getBlockPos().asLong();
+            subIndices[x] = (byte)id.getSubIndex();
+            members[x] = (byte)(order[x].isMember() ? 1 : 0);
+            indices.put(id, x);
+        }
+
+        // every edge is stored on both of its vertices, so only the side with the lower index is written
+        final IntArrayList edges = new IntArrayList();
+        for(int x = 0; x < order.length; x++) {
+            for(GridEdge link : order[x].links) {
+                int other = indices.getInt(link.getDestinationVertex().getID());
+                if(other < 0) {
+                    Mechano.LOGGER.warn("LocalTransferGrid skipping edge to " + link.getDestinationVertex().getID() + " while saving - it leads outside of this grid!");
+                    continue;
+                }
+                if(other < x) continue;
+                edges.add(x);
+                edges.add(other);
+                edges.add(link.getTypeID());
+            }
+        }
+
+        in.putLongArray("pos", positions);
+        in.putByteArray("sub", subIndices);
+        in.putByteArray("m", members);
+        in.putIntArray("e", edges.toIntArray());
+        return true;
+    }
+
+    /**
+     * Restores the paths that were saved alongside this LocalTransferGrid, instead of finding them all over again.
+     * @param tag The <code>"pt"</code> tag written by {@link TransferPathManager#writeTo(CompoundTag, GridVertex[], int) <code>TransferPathManager.writeTo()</code>}
+     * @param order The GID of every saved vertex, in the order they were saved
+     * @return The amount of saved paths that no longer fit this grid and were dropped, or <code>-1</code> if nothing was restored, 
+     * either because no paths were saved or because they were saved for a different structure. The caller is expected to find 
+     * paths normally in that case.
+     */
+    private int restorePaths(CompoundTag tag, GID[] order) {
+        if(!MechanoSettings.PERSIST_GRID_PATHS || tag.isEmpty()) return -1;
+
+        final GridVertex[] verts = new GridVertex[order.length];
+        for(int x = 0; x < order.length; x++)
+            verts[x] = vertMatrix.get(order[x]);
+
+        if(order.length != vertMatrix.size() || !TransferPathManager.canRead(tag, getStructureChecksum(verts))) {
+            Mechano.LOGGER.info("Saved paths for LocalTransferGrid at " + (order.length > 0 ? order[0] : "[empty]") + " are stale, finding them again");
+            return -1;
+        }
+
+        final int dropped = pathManager.skipUpdates().readFrom(tag, verts);
+        if(dropped < 0)
+            Mechano.LOGGER.warn("Saved paths for LocalTransferGrid at " + (order.length > 0 ? order[0] : "[empty]") + " couldn't be restored, finding them again");
+        else if(dropped > 0)
+            Mechano.LOGGER.info("Dropped " + dropped + " saved path(s) for LocalTransferGrid at " + order[0] + " that no longer fit the grid");
+        return dropped;
+    }
+
+    /**
+     * Hashes the shape of this grid - which vertices exist, in what order, whether they're members, and what they link to. 
+     * Saved paths are only trusted if this checksum is the same when they're loaded as it was when they were saved.
+     * @param order Every vertex, in the order they were (or are being) saved. Vertices that couldn't be loaded are <code>null</code>.
+     */
+    private static int getStructureChecksum(GridVertex[] order) {
+        int hash = order.length;
+        for(GridVertex vert : order) {
+            if(vert == null) {
+                hash = hash * 31 - 1;
+                continue;
+            }
+
+            hash = hash * 31 + vert.getID().hashCode();
+            hash = hash * 31 + (vert.isMember() ? 1 : 0);
+
+            // links are summed rather than chained, since the order they're read back in isn't the order they were written in
+            int links = 0;
+            for(GridEdge link : vert.links)
+                links += link.getDestinationVertex().getID().hashCode() * 31 + link.getTypeID();
+            hash = hash * 31 + links;
+        }
+        return hash;
+    }
+
     /**
      * @return <code>TRUE</code> if this LocalTranferGrid contains a GridVertex 
      * mapped to the given GID.
@@ -171,7 +430,9 @@ public class LocalTransferGrid {
     protected boolean addVert(GridVertex vertex) {
         if(vertex == null) 
             throw new NullPointerException("Error adding vertex to LocalTransferGrid - Cannot store a null vertex!");
-        return vertMatrix.put(vertex.getID(), vertex) == null;
+        if(vertMatrix.put(vertex.getID(), vertex) != null) return false;
+        markChanged();
+        return true;
     }
 
     /**
@@ -181,35 +442,54 @@ public class LocalTransferGrid {
      * @return The GridVertex that was removed, or null if none could be found.
      */
     protected GridVertex popVert(GID id) {
+        return popVert(id, true);
+    }
+
+    /**
+     * Removes the vertex at the provided GID from this LocalTransferGrid's vertex matrix
+     * and performs additional operations to remove outdated edge and path data. 
+     * @param id ID to remove
+     * @param shouldPath if <code>TRUE</code>, paths that passed through the removed vertex will be re-routed if possible.
+     * @return The GridVertex that was removed, or null if none could be found.
+     */
+    protected GridVertex popVert(GID id, boolean shouldPath) {
         if(id == null) throw new NullPointerException("Error removing GridVertex - The provided GID is null!");
         
         // pop the vertex and return if none could be found
         GridVertex poppedVert = vertMatrix.remove(id);
         if(poppedVert == null) return null;
+        parent.onVertRemoved(id, this);
+        markChanged();
 
         // if the vertex is empty, just mark it and send packets
         if(poppedVert.isEmpty()) {
             poppedVert.markRemoved();
-            GridSyncHelper.informPlayerVertexUpdate(GridSyncPacketType.REMOVE, id);
+            GridSyncHelper.informPlayerVertexUpdate(parent.getWorld(), GridSyncPacketType.REMOVE, id);
             return poppedVert;
         }
 
         // remove all paths that interact with this vertex
-        pathManager.withUpdates().removeAllPathsInvolving(poppedVert.getID());
+        List<GridPath> brokenPaths = pathManager.withUpdates().removeAllPathsInvolving(poppedVert.getID());
 
         // tell neighboring vertices to "forget" this vertex
         for(GridEdge linkedEdge : poppedVert.links) {
             GridVertex neighbor = linkedEdge.getDestinationVertex();
             GridEdge poppedEdge = neighbor.popLink(id);
             if(poppedEdge != null) {
-                GridSyncHelper.informPlayerEdgeUpdate(GridSyncPacketType.REMOVE, poppedEdge.toLightweight());
-                if(neighbor.isEmpty()) popVert(neighbor.getID());
+                GridSyncHelper.informPlayerEdgeUpdate(parent.getWorld(), GridSyncPacketType.REMOVE, poppedEdge.toLightweight());
+                if(neighbor.isEmpty()) popVert(neighbor.getID(), shouldPath);
             }
         }
 
+        // paths that only passed through this vertex may still have an alternate route
+        if(shouldPath) {
+            beginPathMutation(0);
+            reroutePaths(brokenPaths, true);
+        }
+
         // mark the vertex and send packets
         poppedVert.markRemoved(); 
-        GridSyncHelper.informPlayerVertexUpdate(GridSyncPacketType.REMOVE, id);
+        GridSyncHelper.informPlayerVertexUpdate(parent.getWorld(), GridSyncPacketType.REMOVE, id);
         return poppedVert;
     }
 
@@ -226,9 +506,10 @@ public class LocalTransferGrid {
     protected boolean linkVerts(GridVertex first, GridVertex second, int edgeType, boolean shouldPath) {
         requireValidVertex("Failed to link GridVertices", first, second);
         if(first.addLink(second, edgeType) && second.addLink(first, edgeType)) {
+            markChanged();
             first.doFullSync(false);
             second.doFullSync(false);
-            if(shouldPath) findAllPaths(true);
+            if(shouldPath) onEdgeAdded(first, second, true);
             return true;
         }
         return false;
@@ -263,9 +544,10 @@ public class LocalTransferGrid {
         GridVertex vertF = getVertAt(first);
         GridVertex vertT = getVertAt(second);
         if(vertF.addLink(vertT, edgeType) && vertT.addLink(vertF, edgeType)) {
+            markChanged();
             vertF.doFullSync(false);
             vertT.doFullSync(false);
-            if(shouldPath) findAllPaths(true);
+            if(shouldPath) onEdgeAdded(vertF, vertT, true);
             return true;
         }
         return false;
@@ -284,6 +566,362 @@ public class LocalTransferGrid {
         return linkVerts(first, second, wireType, true);
     }
 
+    /***
+     * Removes the link (edge) between two GridVertices at the provided GIDs
+     * @throws NullPointerException If either provided GID doesn't 
+     * indicate the location of a GridVertex in this LocalTransferGrid.
+     * @param first GID to locate and unlink
+     * @param second GID object to locate and unlink
+     * @param shouldPath if <code>TRUE</code> paths that crossed the removed edge will be re-addressed after this link is removed.
+     * @return True if the GridVertices were modified as a result of this call,
+     */
+    protected boolean unlinkVerts(GID first, GID second, boolean shouldPath) {
+        requireValidID("Failed to unlink GridVertices", first, second);
+        GridVertex vertF = getVertAt(first);
+        GridVertex vertT = getVertAt(second);
+        GridEdge poppedF = vertF.popLink(vertT);
+        GridEdge poppedT = vertT.popLink(vertF);
+        if(poppedF != null || poppedT != null) {
+            markChanged();
+            GridSyncHelper.informPlayerEdgeUpdate(parent.getWorld(), GridSyncPacketType.REMOVE, (poppedF != null ? poppedF : poppedT).toLightweight());
+            if(shouldPath) onEdgeRemoved(vertF, vertT, true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Re-addresses only the paths whose cost could have been improved by the newly added edge between
+     * <code>a</code> and <code>b</code>. <p>
+     * The shortest distance from both ends of the new edge to every other GridVertex is found first, as it was before the edge existed.
+     * A member <code>s</code> is on the "a side" of the edge if <code>d(s, a) + w</code> is shorter than <code>d(s, b)</code>, and on the 
+     * "b side" if the reverse is true. Only a pair with one member on each side can have a route across the new edge that is shorter 
+     * than its existing path, so every other pair is left alone. Members that neither end can reach have no distance at all, so 
+     * pairs without a route are never considered. <p>
+     * The improved route is the branch of each search that leads to either member, joined by the new edge, so no pair is searched individually.
+     * @param a GridVertex at one end of the new edge
+     * @param b GridVertex at the other end of the new edge
+     * @param shouldSendPackets If <code>TRUE</code>, each changed path will send packets to sync.
+     */
+    protected void onEdgeAdded(GridVertex a, GridVertex b, boolean shouldSendPackets) {
+
+        GridEdge added = a.getLinkTo(b);
+        if(added == null) throw new IllegalStateException("Error updating paths for new GridEdge - No link exists between " + a + " and " + b + "!");
+        if(deferToWorkers()) return;
+
+        beginPathMutation(0);
+        if(!added.canTransfer()) return;
+
+        final ShortestPathTree fromA = growTree(a, null, added);
+        final ShortestPathTree fromB = growTree(b, null, added);
+        final float weight = added.getDistance();
+
+        final List<GridVertex> sideA = new ArrayList<>();
+        final List<GridVertex> sideB = new ArrayList<>();
+        for(GridVertex vert : vertMatrix.values()) {
+            if(!vert.isMember()) continue;
+            float toA = fromA.distances.getFloat(vert);
+            float toB = fromB.distances.getFloat(vert);
+            if(toA + weight < toB - LENGTH_EPSILON) sideA.add(vert);
+            else if(toB + weight < toA - LENGTH_EPSILON) sideB.add(vert);
+        }
+
+        for(GridVertex start : sideA) {
+            for(GridVertex end : sideB) {
+
+                // paths are stored along with their inverse, so only one orientation needs to be considered
+                final boolean forward = start.canFormPathTo(end);
+                if(!forward && !end.canFormPathTo(start)) continue;
+
+                lastPathsExamined++;
+                final float through = fromA.distances.getFloat(start) + weight + fromB.distances.getFloat(end);
+                GridPath existing = pathManager.getPathBetween(start.getID(), end.getID());
+                if(existing != null) {
+                    if(!(through < existing.getLength() - LENGTH_EPSILON)) continue;
+                    pathManager.shouldUpdate(shouldSendPackets).removePath(existing);
+                }
+
+                final GridPath path = joinAcross(fromA, start, added, fromB, end);
+                lastPathsRecomputed++;
+                pathManager.shouldUpdate(shouldSendPackets).putPath(forward ? path : path.copyAndInvert());
+            }
+        }
+
+        totalPathsRecomputed += lastPathsRecomputed;
+    }
+
+    /**
+     * Joins the branch of <code>treeA</code> that leads from <code>start</code> to its root, the edge <code>across</code>,
+     * and the branch of <code>treeB</code> that leads from its root to <code>end</code> into one GridPath.
+     * @return A new GridPath leading from <code>start</code> to <code>end</code>
+     */
+    private static GridPath joinAcross(ShortestPathTree treeA, GridVertex start, GridEdge across, ShortestPathTree treeB, GridVertex end) {
+        final ArrayList<GridEdge> edges = new ArrayList<>();
+        for(GridVertex leap = start; leap != treeA.root;) {
+            GridVertex next = treeA.predecessors.get(leap);
+            edges.add(leap.getLinkTo(next));
+            leap = next;
+        }
+
+        edges.add(across);
+
+        // treeB is walked from the end back towards its root, so that half is collected backwards and then flipped
+        final int joint = edges.size();
+        for(GridVertex leap = end; leap != treeB.root;) {
+            GridVertex next = treeB.predecessors.get(leap);
+            edges.add(next.getLinkTo(leap));
+            leap = next;
+        }
+        Collections.reverse(edges.subList(joint, edges.size()));
+
+        float lowestWatts = Float.MAX_VALUE;
+        for(GridEdge edge : edges)
+            lowestWatts = Math.min(lowestWatts, edge.getMaximumWatts());
+        return new GridPath(edges, lowestWatts);
+    }
+
+    /**
+     * Re-addresses only the paths that were conveyed across the removed edge between <code>a</code> and <code>b</code>.
+     * Removing an edge can never make any other path shorter, so every other path is left alone. Paths that 
+     * no longer have any route are dropped.
+     * @param a GridVertex at one end of the removed edge
+     * @param b GridVertex at the other end of the removed edge
+     * @param shouldSendPackets If <code>TRUE</code>, each changed path will send packets to sync.
+     */
+    protected void onEdgeRemoved(GridVertex a, GridVertex b, boolean shouldSendPackets) {
+        List<GridPath> brokenPaths = pathManager.getPathsAcross(a.getID(), b.getID());
+        beginPathMutation(brokenPaths.size());
+        for(GridPath path : brokenPaths)
+            pathManager.shouldUpdate(shouldSendPackets).removePath(path);
+        reroutePaths(brokenPaths, shouldSendPackets);
+    }
+
+    // finds a replacement for every path in the given list as long as both of its ends are still present
+    private void reroutePaths(List<GridPath> brokenPaths, boolean shouldSendPackets) {
+        if(!brokenPaths.isEmpty() && deferToWorkers()) return;
+        for(GridPath broken : brokenPaths) {
+            lastPathsExamined++;
+            GridVertex start = broken.getStart();
+            GridVertex end = broken.getEnd();
+            if(!hasVertAt(start.getID()) || !hasVertAt(end.getID())) continue;
+            if(!start.canFormPathTo(end) && !end.canFormPathTo(start)) continue;
+
+            GridPath path = astar(end, start);
+            if(path != null) {
+                lastPathsRecomputed++;
+                pathManager.shouldUpdate(shouldSendPackets).putPath(path);
+            }
+        }
+        totalPathsRecomputed += lastPathsRecomputed;
+    }
+
+    /**
+     * Re-solves every path in this LocalTransferGrid at once, replacing any paths that are missing or no longer optimal.
+     * If asynchronous pathfinding is enabled, this is done on the grid worker pool and committed on a later tick.
+     */
+    public void solveAllPaths() {
+        if(deferToWorkers()) return;
+        pathManager.withUpdates().replaceAllPaths(GridSnapshot.of(this).solve().getPaths());
+    }
+
+    /**
+     * Finds paths to and from the given GridVertex. If asynchronous pathfinding is enabled, every path in this 
+     * LocalTransferGrid is instead re-solved on the grid worker pool and committed on a later tick.
+     * @param origin GridVertex to find paths from/to.
+     */
+    public void requestPathsFrom(GridVertex origin) {
+        if(deferToWorkers()) return;
+        pathfindFrom(origin, true, false);
+    }
+
+    /**
+     * Takes a {@link GridSnapshot <code>GridSnapshot</code>} of this LocalTransferGrid and hands it off to the grid worker pool
+     * to be solved. Only one solve can be in flight at a time - if one already is, it'll be discarded and 
+     * resubmitted when it comes back, since this grid will have changed since the snapshot was taken.
+     * @return <code>TRUE</code> if this LocalTransferGrid's paths will be solved asynchronously.
+     */
+    public boolean requestAsyncSolve() {
+        if(solvePending) return true;
+        solvePending = GlobalTransferGridDispatcher.submitPathSolve(GridSnapshot.of(this));
+        return solvePending;
+    }
+
+    /**
+     * Commits the paths of a finished asynchronous solve to this LocalTransferGrid. Called at the start of the 
+     * server tick. Solutions taken from an older version of this grid are discarded and solved again. 
+     * Solutions for grids that have since been merged or split are simply discarded.
+     * @param solution Solution to commit
+     */
+    protected void commitSolve(GridSnapshot.Solution solution) {
+        solvePending = false;
+        if(isOrphaned()) return;
+
+        if(solution.failed()) {
+            findAllPaths(true);
+            return;
+        }
+
+        if(solution.getVersion() != version) {
+            requestAsyncSolve();
+            return;
+        }
+
+        pathManager.withUpdates().replaceAllPaths(solution.getPaths());
+    }
+
+    // an orphaned grid is one that's been replaced (by a merge or a split) and is no longer owned by its parent
+    private boolean isOrphaned() {
+        for(GID id : vertMatrix.keySet())
+            return parent.getGridContaining(id) != this;
+        return true;
+    }
+
+    // returns true if path solving for this grid has been handed off to the grid worker pool
+    private boolean deferToWorkers() {
+        return MechanoSettings.ASYNC_PATHFINDING && requestAsyncSolve();
+    }
+
+    /**
+     * Marks this LocalTransferGrid as structurally changed. Any asynchronous solve that was 
+     * started before this call will be discarded when it completes.
+     */
+    public void markChanged() {
+        version++;
+        dirty = true;
+        compactGraph = null;
+    }
+
+    /**
+     * Marks this LocalTransferGrid as needing to be saved again, without invalidating asynchronous solves. 
+     * Called whenever paths are added or removed.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * @return <code>TRUE</code> if this LocalTransferGrid has changed since it was last saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    protected void markSaved() {
+        dirty = false;
+        savedTag = null;
+    }
+
+    /**
+     * Writes this LocalTransferGrid to NBT, reusing the tag from the last call if nothing has changed since. 
+     * The returned tag is shared, so it must not be modified.
+     */
+    protected CompoundTag serialize() {
+        if(dirty || savedTag == null) {
+            savedTag = writeTo(new CompoundTag());
+            dirty = false;
+        }
+        return savedTag;
+    }
+
+    /**
+     * @return The amount of times this LocalTransferGrid has been structurally changed
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private void beginPathMutation(int examined) {
+        lastPathsExamined = examined;
+        lastPathsRecomputed = 0;
+    }
+
+    /**
+     * Grows a shortest path tree from <code>source</code> using Dijkstra's algorithm, where each leap costs 
+     * the distance of the edge that was traversed. Edges that can't transfer are ignored. <p>
+     * If <code>targets</code> is provided, the search stops as soon as every target has been settled. 
+     * Otherwise, the tree will span every GridVertex reachable from <code>source</code>.
+     * @param source GridVertex at the root of the tree
+     * @param targets GridVertices that the tree needs to reach, or null to traverse the whole grid
+     * @param ignored A GridEdge to treat as though it doesn't exist (in either direction), or null to traverse every edge
+     * @return A new ShortestPathTree rooted at <code>source</code>
+     */
+    private ShortestPathTree growTree(GridVertex source, @Nullable Set<GridVertex> targets, @Nullable GridEdge ignored) {
+
+        final ShortestPathTree tree = new ShortestPathTree(source, vertMatrix.size());
+        final Queue<QueuedVertex> open = new PriorityQueue<>(11);
+        int unsettled = targets == null ? -1 : targets.size();
+
+        tree.distances.put(source, 0);
+        open.add(new QueuedVertex(source, 0));
+
+        while(!open.isEmpty()) {
+            QueuedVertex local = open.poll();
+
+            // stale entry, a shorter distance was already found for this vertex
+            if(local.distance > tree.distances.getFloat(local.vertex)) continue;
+
+            if(targets != null && targets.contains(local.vertex)) {
+                unsettled--;
+                if(unsettled <= 0) break;
+            }
+
+            for(GridEdge link : local.vertex.links) {
+                if(!link.canTransfer()) continue;
+                if(ignored != null && (link.equals(ignored) || link.isInverseOf(ignored))) continue;
+                GridVertex neighbor = link.getDestinationVertex();
+                float tentative = local.distance + link.getDistance();
+                if(tentative < tree.distances.getFloat(neighbor)) {
+                    tree.distances.put(neighbor, tentative);
+                    tree.predecessors.put(neighbor, local.vertex);
+                    open.add(new QueuedVertex(neighbor, tentative));
+                }
+            }
+        }
+
+        return tree;
+    }
+
+    /**
+     * The result of {@link LocalTransferGrid#growTree(GridVertex, Set, GridEdge) <code>growTree()</code>}. Every reached GridVertex
+     * maps to its distance from the root, and to the GridVertex that precedes it on the way back to the root.
+     */
+    private static class ShortestPathTree {
+        private final GridVertex root;
+        private final Object2FloatOpenHashMap<GridVertex> distances;
+        private final Map<GridVertex, GridVertex> predecessors;
+
+        private ShortestPathTree(GridVertex root, int expectedSize) {
+            this.root = root;
+            this.distances = new Object2FloatOpenHashMap<>(expectedSize);
+            this.distances.defaultReturnValue(Float.MAX_VALUE);
+            this.predecessors = new Object2ObjectOpenHashMap<>(expectedSize);
+        }
+
+        /**
+         * @return A GridPath leading from <code>target</code> to the root of this tree, or null if the target was never reached.
+         */
+        @Nullable
+        private GridPath unwindFrom(GridVertex target) {
+            if(target.equals(root) || !predecessors.containsKey(target)) return null;
+            return GridPath.ofUnwound(predecessors, target);
+        }
+    }
+
+    private static class QueuedVertex implements Comparable<QueuedVertex> {
+        private final GridVertex vertex;
+        private final float distance;
+
+        private QueuedVertex(GridVertex vertex, float distance) {
+            this.vertex = vertex;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(QueuedVertex o) {
+            return Float.compare(distance, o.distance);
+        }
+    }
+
     /***
      * Performs a DFS to determine all of the different "clusters"
      * that form this LocalTransferGrid. Individual vertices that are found to 
@@ -304,6 +942,7 @@ public class LocalTransferGrid {
             if(clusterVerts.size() > 1) {
                 LocalTransferGrid clusterResult = new LocalTransferGrid(parent, clusterVerts);
                 LocalTransferGrid.collectPaths(this, clusterResult);
+                if(solvePending) clusterResult.requestAsyncSolve();
                 clusters.add(clusterResult);
             }
         }
@@ -311,23 +950,133 @@ public class LocalTransferGrid {
     }
 
     /**
-     * The recursive DFS initiated by {@link LocalTransferGrid#trySplit() <code>trySplit()</code>} is performed here.
+     * The DFS initiated by {@link LocalTransferGrid#trySplit() <code>trySplit()</code>} is performed here.
+     * An explicit stack is used so that long chains of GridVertices can't overflow the call stack.
      */
     private void depthFirstPopulate(GID startID, HashSet<GID> visited, ArrayList<GridVertex> vertices) {
-        GridVertex thisIteration = getVertAt(startID);
+        final ArrayDeque<GID> stack = new ArrayDeque<>();
+        stack.push(startID);
         visited.add(startID);
 
-        if(thisIteration == null) return;
-        vertices.add(thisIteration);
+        while(!stack.isEmpty()) {
+            GridVertex thisIteration = getVertAt(stack.pop());
+            if(thisIteration == null) continue;
+            vertices.add(thisIteration);
+
+            for(GridEdge link : thisIteration.links) {
+                GID currentID = link.getDestinationVertex().getID();
+                if(visited.add(currentID))
+                    stack.push(currentID);
+            }
+        }
+    }
+
+    /**
+     * Splits this LocalTransferGrid only where it was actually disconnected. After an edge or vertex is removed,
+     * its former neighbors are passed here as <code>endpoints</code>. Each endpoint is checked against the others with 
+     * {@link LocalTransferGrid#findSeparatedSide(GridVertex, GridVertex) <code>findSeparatedSide()</code>}, 
+     * which only ever traverses the smaller side of a split. Separated sides are detached into new LocalTransferGrids,
+     * while everything else is left in place. <strong>Modifies this system in-place.</strong>
+     * @param endpoints GridVertices that were adjacent to the removed edge or vertex
+     * @return A List of new LocalTransferGrids detached from this one. Detached grids may contain a single (empty) GridVertex,
+     * which should be discarded by the caller.
+     */
+    protected List<LocalTransferGrid> splitAround(Collection<GridVertex> endpoints) {
+        final List<LocalTransferGrid> out = new ArrayList<>();
+        final List<GridVertex> remaining = new ArrayList<>();
+        for(GridVertex vert : endpoints) {
+            if(hasVertAt(vert.getID()) && !remaining.contains(vert)) 
+                remaining.add(vert);
+        }
+
+        if(remaining.size() < 2) return out;
+
+        GridVertex anchor = remaining.get(0);
+        for(int x = 1; x < remaining.size(); x++) {
+            GridVertex other = remaining.get(x);
+
+            // this endpoint was already detached along with an earlier side
+            if(!hasVertAt(other.getID())) continue;
+
+            Set<GridVertex> separated = findSeparatedSide(anchor, other);
+            if(separated == null) continue;
 
-        if(thisIteration.isEmpty()) return;
-        for(GridEdge link : thisIteration.links) {
-            GID currentID = link.getDestinationVertex().getID();
-            if(!visited.contains(currentID))
-                depthFirstPopulate(currentID, visited, vertices);
+            out.add(detach(separated));
+            if(separated.contains(anchor)) anchor = other;
+        }
+
+        return out;
+    }
+
+    /**
+     * Performs two breadth-first searches at once, one from <code>a</code> and one from <code>b</code>, always expanding
+     * whichever search has visited fewer GridVertices. If the searches meet, both GridVertices are still connected. 
+     * If either search runs out of GridVertices first, it has found the entirety of its (smaller) side of the split. <p>
+     * This means the cost of this call is bound by the size of the smaller side, rather than the size of the whole grid.
+     * @return <code>null</code> if <code>a</code> and <code>b</code> are connected, otherwise every GridVertex on the smaller side.
+     */
+    @Nullable
+    private Set<GridVertex> findSeparatedSide(GridVertex a, GridVertex b) {
+        final ArrayDeque<GridVertex> queueA = new ArrayDeque<>();
+        final ArrayDeque<GridVertex> queueB = new ArrayDeque<>();
+        final Set<GridVertex> visitedA = new HashSet<>();
+        final Set<GridVertex> visitedB = new HashSet<>();
+
+        queueA.add(a);
+        visitedA.add(a);
+        queueB.add(b);
+        visitedB.add(b);
+
+        while(true) {
+            boolean expandA = visitedA.size() <= visitedB.size();
+            ArrayDeque<GridVertex> queue = expandA ? queueA : queueB;
+            Set<GridVertex> visited = expandA ? visitedA : visitedB;
+            Set<GridVertex> opposite = expandA ? visitedB : visitedA;
+
+            if(queue.isEmpty()) return visited;
+
+            GridVertex local = queue.poll();
+            for(GridEdge link : local.links) {
+                GridVertex neighbor = link.getDestinationVertex();
+                if(!hasVertAt(neighbor.getID())) continue;
+                if(opposite.contains(neighbor)) return null;
+                if(visited.add(neighbor)) queue.add(neighbor);
+            }
         }
     }
 
+    // moves the given vertices (and the paths between them) out of this grid and into a new one
+    private LocalTransferGrid detach(Set<GridVertex> verts) {
+        final LocalTransferGrid detached = new LocalTransferGrid(parent);
+        for(GridVertex vert : verts) {
+            vertMatrix.remove(vert.getID());
+            vert.replaceParent(detached);
+            detached.vertMatrix.put(vert.getID(), vert);
+        }
+
+        // both orientations of each path are stored, so only collect each pair once
+        final Set<GIDPair> seen = new HashSet<>();
+        final List<GridPath> moving = new ArrayList<>();
+        for(GridVertex vert : verts) {
+            pathManager.forEachPathAt(vert.getID(), path -> {
+                if(verts.contains(path.getEnd()) && seen.add(path.getHashable()))
+                    moving.add(path);
+            });
+        }
+
+        for(GridPath path : moving) {
+            pathManager.skipUpdates().removePath(path);
+            detached.pathManager.skipUpdates().putPath(path);
+        }
+        pathManager.withUpdates();
+        detached.pathManager.withUpdates();
+
+        markChanged();
+        detached.markChanged();
+        if(solvePending) detached.requestAsyncSolve();
+        return detached;
+    }
+
     /***
      * Retrieves a vertex in this network.
      * @param BlockPos
@@ -339,7 +1088,9 @@ public class LocalTransferGrid {
 
     /***
      * Finds the optimal path between the given GridVertex and all other GridVertices marked 
-     * as members and stores those GridPath objects in this LocalTransferGrid.
+     * as members and stores those GridPath objects in this LocalTransferGrid. <p>
+     * Every path is found from a single shortest path tree grown from <code>origin</code>, 
+     * so the grid is only traversed once regardless of how many destinations there are.
      * @param origin GridVertex to find paths from/to. All resulting paths start or end with this GridVertex.
      * @param shouldUpdate If <code>TRUE</code>, each new path that is found will call {@link LocalTransferGrid#onPathsUpdated(GridPath, boolean) <code>onPathsUpdated()</code>}
      * @param forceOpportunities If <code>TRUE</code> the member status of each involved GridVertex will be manually re-addressed. This process is more expensive but is required
@@ -349,12 +1100,19 @@ public class LocalTransferGrid {
     public boolean pathfindFrom(GridVertex origin, boolean shouldSendPackets, boolean forceOpportunities) {
         boolean exists = false;
         if(forceOpportunities) origin.doFullSync(false);
-        for(GridVertex vert : vertMatrix.values()) {
 
+        final Set<GridVertex> targets = new HashSet<>();
+        for(GridVertex vert : vertMatrix.values()) {
             if(forceOpportunities) vert.doFullSync(false);
-            if(!vert.canFormPathTo(origin)) continue;
+            if(vert.canFormPathTo(origin)) targets.add(vert);
+        }
+
+        if(targets.isEmpty()) return false;
+        if(MechanoSettings.COMPACT_GRID_GRAPH) return pathfindCompact(origin, targets, shouldSendPackets);
 
-            GridPath path = astar(origin, vert);
+        final ShortestPathTree tree = growTree(origin, targets, null);
+        for(GridVertex target : targets) {
+            GridPath path = tree.unwindFrom(target);
             if(path != null) {
                 exists = true;
                 pathManager.shouldUpdate(shouldSendPackets).putPath(path);
@@ -364,6 +1122,48 @@ public class LocalTransferGrid {
         return exists;
     }
 
+    // pathfindFrom, performed over the CompactGridGraph instead of the GridVertex objects themselves
+    private boolean pathfindCompact(GridVertex origin, Set<GridVertex> targets, boolean shouldSendPackets) {
+        final CompactGridGraph graph = getCompactGraph();
+        final int source = graph.indexOf(origin.getID());
+        if(source < 0) return false;
+
+        final float[] dist = new float[graph.size()];
+        final int[] predEdge = new int[graph.size()];
+        graph.shortestPaths(source, dist, predEdge, new LongHeapPriorityQueue());
+
+        boolean exists = false;
+        for(GridVertex target : targets) {
+            GridPath path = graph.unwindPath(target, predEdge);
+            if(path != null) {
+                exists = true;
+                pathManager.shouldUpdate(shouldSendPackets).putPath(path);
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Gets a {@link CompactGridGraph <code>CompactGridGraph</code>} representing the current state of this LocalTransferGrid.
+     * The graph is cached until this LocalTransferGrid changes, or until it goes unused for 
+     * {@link LocalTransferGrid#COMPACT_GRAPH_IDLE_TICKS <code>COMPACT_GRAPH_IDLE_TICKS</code>}.
+     * @return A CompactGridGraph, which must not be held on to across changes to this LocalTransferGrid.
+     */
+    public CompactGridGraph getCompactGraph() {
+        if(compactGraph == null) compactGraph = CompactGridGraph.of(this);
+        compactGraphUsed = GlobalTransferGridDispatcher.getLoadEpoch();
+        return compactGraph;
+    }
+
+    /**
+     * Drops this LocalTransferGrid's {@link CompactGridGraph <code>CompactGridGraph</code>} if it hasn't been used recently,
+     * so grids that aren't being solved don't keep a second copy of themselves around. Called once per tick.
+     */
+    public void releaseIdleGraph() {
+        if(compactGraph != null && GlobalTransferGridDispatcher.getLoadEpoch() - compactGraphUsed > COMPACT_GRAPH_IDLE_TICKS)
+            compactGraph = null;
+    }
+
     /***
      * Finds optimal paths between every relevent GridVertex in this grid.
      * @param shouldUpdate If <code>TRUE</code>, each new path that is found will send packets to sync.
@@ -388,65 +1188,50 @@ public class LocalTransferGrid {
      * the two vertices, or null if no path could be fouund.
      */
     @Nullable
-    private GridPath astar(GridVertex start, GridVertex goal) {
+    protected GridPath astar(GridVertex start, GridVertex goal) {
 
-        final Queue<GridVertex> openVerts = new PriorityQueue<>(11, GridVertex.GUIDANCE_COMPARATOR);
-        final Map<GridVertex, GridVertex> outputPath = new HashMap<>();
-        final Set<GridVertex> addressedVertices = new HashSet<>();
+        // every leap costs the length of its edge, which is a straight line. So the straight line distance to the goal 
+        // never overestimates what's left, and each GridVertex only has to be closed once
+        final Queue<QueuedVertex> open = new PriorityQueue<>(11);
+        final Set<GridVertex> closed = new HashSet<>();
+        final Object2FloatOpenHashMap<GridVertex> cumulative = new Object2FloatOpenHashMap<>();
+        final Map<GridVertex, GridVertex> outputPath = new Object2ObjectOpenHashMap<>();
+        final BlockPos goalPos = goal.getID().getBlockPos();
+        cumulative.defaultReturnValue(Float.MAX_VALUE);
 
-        float resultingTransferRate = Float.MAX_VALUE;
+        cumulative.put(start, 0);
+        open.add(new QueuedVertex(start, GridEdge.getEuclideanDistance(start.getID().getBlockPos(), goalPos)));
 
-        start.setCumulative(0);
-        start.getAndStoreHeuristic(goal);
-        openVerts.add(start);
+        while(!open.isEmpty()) {
+            final GridVertex local = open.poll().vertex;
 
-        while(!openVerts.isEmpty()) {
-            final GridVertex local = openVerts.poll();
+            // a GridVertex is queued again whenever a shorter way to it is found, so older entries are skipped once it's closed
+            if(!closed.add(local)) continue;
 
             // loop terminates here if successful
             if(local.equals(goal)) {
-                resetPathData(addressedVertices);
-                return GridPath.ofUnwound(outputPath, goal, resultingTransferRate);
+                // outputPath holds every leap that was addressed, so the path's rate has to come from its own edges
+                return GridPath.ofUnwound(outputPath, goal);
             }
 
-            local.markVisited();
-
+            final float localCumulative = cumulative.getFloat(local);
             for(GridEdge potentialTraverse : local.links) {
 
                 if(!potentialTraverse.canTransfer()) continue;
                 GridVertex neighbor = potentialTraverse.getDestinationVertex();
-                if(neighbor.hasBeenVisited()) continue;
-
-                // As the path is traversed, calculate the lowest transfer rate of every adge addressed,
-                // and store heuristics in the currently addressed edge
-                resultingTransferRate = Math.min(resultingTransferRate, potentialTraverse.getMaximumWatts());
-                float tentative = local.getAndStoreFastHeuristic(potentialTraverse) + local.getCumulative();
-                addressedVertices.add(local);
-
-                // if the tentative is less than the cumulative (that is, if we have points to spend here) address this path
-                // TODO take transfer rate into accout when calculating heuristic to prioritize edges with less resistance
-                if(tentative < neighbor.getCumulative()) {
-
-                    neighbor.setCumulative(tentative);
-                    neighbor.getAndStoreFastHeuristic(potentialTraverse);
-                    addressedVertices.add(neighbor);
+                if(closed.contains(neighbor)) continue;
 
+                float tentative = localCumulative + potentialTraverse.getDistance();
+                if(tentative < cumulative.getFloat(neighbor)) {
+                    cumulative.put(neighbor, tentative);
                     outputPath.put(neighbor, local);
-                    if(!openVerts.contains(neighbor)) 
-                        openVerts.add(neighbor);
+                    open.add(new QueuedVertex(neighbor, tentative + GridEdge.getEuclideanDistance(neighbor.getID().getBlockPos(), goalPos)));
                 }
             }
         }
-        resetPathData(addressedVertices);
         return null;
     }
 
-    // resets A* guidance (see above for context)
-    private void resetPathData(Set<GridVertex> verts) {
-        for(GridVertex vert : verts)
-            vert.resetHeuristics();
-    }
-
     /***
      * Gets the GridVertex at the given ID, or creates a new one & adds it to this 
      * LocalTransferGrid, and returns it. To be called during the loading process.<p>
@@ -532,10 +1317,67 @@ public class LocalTransferGrid {
         return output;
     }
 
+    /**
+     * Finds the GridEdge in this LocalTransferGrid that spends the most of its capacity on average. 
+     * Walks every edge, so this is meant for debugging tools rather than anything that runs per tick.
+     * @return The busiest GridEdge, or null if no edge in this grid has carried any power recently
+     */
+    @Nullable
+    public GridEdge getBusiestEdge() {
+        GridEdge busiest = null;
+        float highest = 0;
+        for(GridVertex vert : vertMatrix.values()) {
+            for(GridEdge link : vert.links) {
+                float utilisation = link.getAverageUtilisation();
+                if(utilisation > highest) {
+                    highest = utilisation;
+                    busiest = link;
+                }
+            }
+        }
+        return busiest;
+    }
+
+    protected long getStorageId() {
+        return storageId;
+    }
+
+    protected void setStorageId(long storageId) {
+        this.storageId = storageId;
+    }
+
+    /**
+     * @return <code>TRUE</code> if this LocalTransferGrid is waiting on an asynchronous path solve
+     */
+    protected boolean isSolvePending() {
+        return solvePending;
+    }
+
     public TransferPathManager getPathManager() {
         return pathManager;
     }
 
+    /**
+     * @return How many paths were considered by the most recent edge addition or removal in this LocalTransferGrid
+     */
+    public int getLastPathsExamined() {
+        return lastPathsExamined;
+    }
+
+    /**
+     * @return How many paths were actually found or re-routed by the most recent edge addition or removal in this LocalTransferGrid
+     */
+    public int getLastPathsRecomputed() {
+        return lastPathsRecomputed;
+    }
+
+    /**
+     * @return How many paths have been found or re-routed by edge additions and removals over the lifetime of this LocalTransferGrid
+     */
+    public long getTotalPathsRecomputed() {
+        return totalPathsRecomputed;
+    }
+
     /////////////////////// sanity check helpers ///////////////////////////////////////////////////////
     private void requireValidID(String failMessage, GID... idSet) {
         for(GID id : idSet) {
@@ -1,8 +1,8 @@
 package com.quattage.mechano.foundation.electricity.grid;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,11 +13,16 @@ import javax.annotation.Nullable;
 import com.quattage.mechano.Mechano;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GIDPair;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncHelper;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncPacketType;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.nbt.CompoundTag;
 
 /**
  * The TransferPathManager hashes paths, where the starting point of the path is the key, and a set of all paths
@@ -29,9 +34,23 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
  */
 public class TransferPathManager {
     
+    // bumped whenever the layout written by writeTo changes, so paths saved in an older layout are found again instead
+    private static final int PATH_FORMAT = 1;
+
     private final Object2ObjectOpenHashMap<GID, Set<GridPath>> paths = new Object2ObjectOpenHashMap<>(11);
+
+    // every GID that a path passes through (including its ends) is mapped to the forward instance of that path, 
+    // so paths involving a given vertex or edge can be found without iterating over every path
+    private final Object2ObjectOpenHashMap<GID, Set<GridPath>> involvements = new Object2ObjectOpenHashMap<>(11);
     private boolean shouldUpdate = true;
 
+    private final LocalTransferGrid owner;
+
+    public TransferPathManager(LocalTransferGrid owner) {
+        if(owner == null) throw new NullPointerException("Error creating TransferPathManager - Owner cannot be null!");
+        this.owner = owner;
+    }
+
     /**
      * Adds the provided <code>path</code> to this TransferPathManager.
      * The starting GridVertex ID is used as the path's hash, acquired by <code>path.getStart().getID()</code>.
@@ -58,22 +77,27 @@ public class TransferPathManager {
             queryB = new HashSet<>();
             queryB.add(pathInv);
             paths.put(keyB, queryB);
+            registerInvolvements(path);
             onPathsUpdated(path, GridSyncPacketType.ADD_NEW);
         } else if(queryA != null && queryB == null) {
             queryA.add(path);
             queryB = new HashSet<>();
             queryB.add(pathInv);
             paths.put(keyB, queryB);
+            registerInvolvements(path);
             onPathsUpdated(path, GridSyncPacketType.ADD_NEW);
         } else if(queryA == null && queryB != null) {
             queryA = new HashSet<>();
             queryA.add(path);
             paths.put(keyA, queryA);
             queryB.add(pathInv);
+            registerInvolvements(path);
             onPathsUpdated(path, GridSyncPacketType.ADD_NEW);
         } else {
-            if(queryA.add(path) && queryB.add(pathInv))
+            if(queryA.add(path) && queryB.add(pathInv)) {
+                registerInvolvements(path);
                 onPathsUpdated(path, GridSyncPacketType.ADD_NEW);
+            }
         }
     }
 
@@ -98,6 +122,9 @@ public class TransferPathManager {
                 throw new IllegalArgumentException("Error removing GridPath " + path + " - One side was found, but the inverse path (" + path.copyAndInvert() 
                     + ") was not found. All paths need a stored inverse. This was found to not be the case, which means something probably confusing and stupid went wrong.");
             }
+            if(lookupA.isEmpty()) paths.remove(path.getStart().getID());
+            if(lookupB.isEmpty()) paths.remove(path.getEnd().getID());
+            unregisterInvolvements(path);
             onPathsUpdated(path, GridSyncPacketType.REMOVE);
             return true;
         }
@@ -110,22 +137,13 @@ public class TransferPathManager {
      */
     public void removePathsEndingIn(GID key) {
         if(key == null) throw new NullPointerException("Error removing GridPath from TransferPathManager - The provided key cannot be null!");
-        paths.remove(key);
-
-        Iterator<Set<GridPath>> allPathsIterator = paths.values().iterator();
-        while(allPathsIterator.hasNext()) {
-
-            Set<GridPath> thesePaths = allPathsIterator.next();
-
-            Iterator<GridPath> thesePathsIterator = thesePaths.iterator();
-            while(thesePathsIterator.hasNext()) {
-                GridPath thisPath = thesePathsIterator.next();
-                if(thisPath.getStart().getID().equals(key) || thisPath.getEnd().getID().equals(key)) {
-                    thesePathsIterator.remove();
-                    onPathsUpdated(thisPath, GridSyncPacketType.REMOVE);
-                }
-            }
-        }
+        
+        // every path ending in this key has an inverse starting at this key, 
+        // so the set at this key is all that needs to be addressed
+        Set<GridPath> pathsAtKey = paths.get(key);
+        if(pathsAtKey == null) return;
+        for(GridPath path : new ArrayList<>(pathsAtKey))
+            removePath(path);
     }
 
     /**
@@ -133,28 +151,81 @@ public class TransferPathManager {
      * A path is said to contain the given GID <code>key</code> if 
      * {@link GridPath#containsKey(GID) <code>GridPath.containsKey(key)</code>} evaluates to true.
      * @param key GID to look for
+     * @return A List containing every path that was removed as a result of this call.
      */
-    public void removeAllPathsInvolving(GID key) {
+    public List<GridPath> removeAllPathsInvolving(GID key) {
 
         if(key == null) throw new NullPointerException("Error removing GridPath from TransferPathManager - The provided key cannot be null!");
-        paths.remove(key);
-
-        Iterator<Set<GridPath>> allPathsIterator = paths.values().iterator();
-        while(allPathsIterator.hasNext()) {
-            
-            Set<GridPath> thesePaths = allPathsIterator.next();
-
-            Iterator<GridPath> thesePathsIterator = thesePaths.iterator();
-            while(thesePathsIterator.hasNext()) {
-                GridPath thisPath = thesePathsIterator.next();
-                if(thisPath.containsKey(key)) {
-                    thesePathsIterator.remove();
-                    onPathsUpdated(thisPath, GridSyncPacketType.REMOVE);
-                }
-            }
 
-            if(thesePaths.isEmpty()) allPathsIterator.remove();
+        Set<GridPath> involved = involvements.get(key);
+        if(involved == null) return List.of();
+
+        List<GridPath> removed = new ArrayList<>(involved);
+        for(GridPath path : removed)
+            removePath(path);
+        return removed;
+    }
+
+    /**
+     * Gets the path between the two given GIDs, if one exists. The resulting path always
+     * starts at <code>start</code> and ends at <code>end</code>.
+     * @param start GID at the start of the path
+     * @param end GID at the end of the path
+     * @return The GridPath between both GIDs, or null if no such path is stored.
+     */
+    @Nullable
+    public GridPath getPathBetween(GID start, GID end) {
+        Set<GridPath> pathSet = paths.get(start);
+        if(pathSet == null) return null;
+        for(GridPath path : pathSet) {
+            if(path.getEnd().getID().equals(end)) 
+                return path;
         }
+        return null;
+    }
+
+    /**
+     * Collects every path that conveys power across the edge between <code>a</code> and <code>b</code>, 
+     * regardless of direction. Only one orientation of each path is included.
+     * @param a GID at one side of the edge
+     * @param b GID at the other side of the edge
+     * @return A List of GridPaths that contain the given edge.
+     */
+    public List<GridPath> getPathsAcross(GID a, GID b) {
+        Set<GridPath> involvedA = involvements.get(a);
+        Set<GridPath> involvedB = involvements.get(b);
+        if(involvedA == null || involvedB == null) return List.of();
+
+        // only iterate the smaller of the two sets
+        Set<GridPath> smaller = involvedA.size() < involvedB.size() ? involvedA : involvedB;
+        List<GridPath> out = new ArrayList<>();
+        for(GridPath path : smaller) {
+            if(path.containsEdge(a, b)) out.add(path);
+        }
+        return out;
+    }
+
+    private void registerInvolvements(GridPath path) {
+        path.forEachVertex(vert -> {
+            Set<GridPath> involved = involvements.get(vert.getSecond().getID());
+            if(involved == null) {
+                involved = new HashSet<>();
+                involvements.put(vert.getSecond().getID(), involved);
+            }
+            involved.add(path);
+        });
+    }
+
+    private void unregisterInvolvements(GridPath path) {
+        final GridPath inverse = path.copyAndInvert();
+        path.forEachVertex(vert -> {
+            GID id = vert.getSecond().getID();
+            Set<GridPath> involved = involvements.get(id);
+            if(involved == null) return;
+            // the stored instance could be either orientation
+            if(!involved.remove(path)) involved.remove(inverse);
+            if(involved.isEmpty()) involvements.remove(id);
+        });
     }
 
     public Map<GID, Set<GridPath>> getAll() {
@@ -200,9 +271,168 @@ public class TransferPathManager {
     protected void clearAllPaths() {
         paths.clear();
         paths.trim(11);
+        involvements.clear();
+        involvements.trim(11);
         onPathsUpdated(null, GridSyncPacketType.CLEAR);
     }
 
+    /**
+     * Replaces the contents of this TransferPathManager with the given paths. Only paths that were actually
+     * added, removed, or re-routed are changed (and send packets), so committing a solution that is mostly 
+     * identical to the current state is cheap.
+     * @param solved Every path that should exist in this TransferPathManager after this call
+     */
+    protected void replaceAllPaths(Collection<GridPath> solved) {
+        if(solved == null) throw new NullPointerException("Error replacing paths in TransferPathManager - The provided collection cannot be null!");
+
+        final Map<GIDPair, GridPath> incoming = new Object2ObjectOpenHashMap<>(solved.size());
+        for(GridPath path : solved)
+            incoming.put(path.getHashable(), path);
+
+        final Map<GIDPair, GridPath> existing = new Object2ObjectOpenHashMap<>();
+        forEachPath(path -> existing.putIfAbsent(path.getHashable(), path));
+
+        for(Map.Entry<GIDPair, GridPath> entry : existing.entrySet()) {
+            GridPath replacement = incoming.get(entry.getKey());
+            if(replacement != null && replacement.isSameRouteAs(entry.getValue())) {
+                incoming.remove(entry.getKey());
+                continue;
+            }
+            removePath(entry.getValue());
+        }
+
+        for(GridPath path : incoming.values())
+            putPath(path);
+    }
+
+    /**
+     * Writes every path in this TransferPathManager to the <code>"pt"</code> tag of <code>in</code>. 
+     * Only one orientation of each path is written, as a run of indices into <code>order</code>:
+     * <code>[vertex count, first vertex, ..., last vertex]</code>. The orientation whose start can form a path to its end
+     * is the one that's written, since paths are keyed in both directions but only one of them carries power. <p>
+     * If any path passes through a vertex that isn't in <code>order</code>, nothing is written.
+     * @param in Tag to write to
+     * @param order Every GridVertex in the owning grid, in the order they're being saved
+     * @param checksum Checksum of the owning grid's structure, used to detect stale paths on load
+     * @return <code>in</code>, modified as a result of this call
+     */
+    protected CompoundTag writeTo(CompoundTag in, GridVertex[] order, int checksum) {
+
+        final Object2IntOpenHashMap<GID> indices = new Object2IntOpenHashMap<>(order.length);
+        indices.defaultReturnValue(-1);
+        for(int x = 0; x < order.length; x++)
+            indices.put(order[x].getID(), x);
+
+        final IntArrayList flat = new IntArrayList();
+        final Set<GIDPair> written = new HashSet<>();
+        for(Set<GridPath> pathSet : paths.values()) {
+            for(GridPath path : pathSet) {
+                if(!written.add(path.getHashable())) continue;
+
+                final GridEdge[] edges = path.members();
+                flat.add(edges.length + 1);
+                if(path.getStart().canFormPathTo(path.getEnd())) {
+                    if(!addIndex(flat, indices, edges[0].getOriginVertex())) return in;
+                    for(int x = 0; x < edges.length; x++)
+                        if(!addIndex(flat, indices, edges[x].getDestinationVertex())) return in;
+                } else {
+                    if(!addIndex(flat, indices, edges[edges.length - 1].getDestinationVertex())) return in;
+                    for(int x = edges.length - 1; x >= 0; x--)
+                        if(!addIndex(flat, indices, edges[x].getOriginVertex())) return in;
+                }
+            }
+        }
+
+        final CompoundTag out = new CompoundTag();
+        out.putInt("v", PATH_FORMAT);
+        out.putInt("c", checksum);
+        out.putIntArray("p", flat.toIntArray());
+        in.put("pt", out);
+        return in;
+    }
+
+    private static boolean addIndex(IntArrayList flat, Object2IntOpenHashMap<GID> indices, GridVertex vert) {
+        int index = indices.getInt(vert.getID());
+        if(index < 0) {
+            Mechano.LOGGER.warn("Error saving paths - " + vert.getID() + " is part of a path, but isn't in this grid! Paths will be found again on load.");
+            return false;
+        }
+        flat.add(index);
+        return true;
+    }
+
+    /**
+     * @return <code>TRUE</code> if the given <code>"pt"</code> tag was written in the current format, for a grid with the given checksum
+     */
+    protected static boolean canRead(CompoundTag tag, int checksum) {
+        return tag.getInt("v") == PATH_FORMAT && tag.getInt("c") == checksum;
+    }
+
+    /**
+     * Adds every path stored in the given <code>"pt"</code> tag to this TransferPathManager. 
+     * Paths that don't fit the grid anymore (because a member can't send to the other end in either direction, for example)
+     * are dropped on their own. If the tag itself is malformed, nothing is added at all.
+     * @param tag Tag written by {@link TransferPathManager#writeTo(CompoundTag, GridVertex[], int) <code>writeTo()</code>}
+     * @param order Every GridVertex in the owning grid, in the order they were saved
+     * @return The amount of paths that were dropped, or <code>-1</code> if the tag couldn't be read, in which case nothing was added
+     */
+    protected int readFrom(CompoundTag tag, GridVertex[] order) {
+        final int[] flat = tag.getIntArray("p");
+        final List<GridPath> restored = new ArrayList<>();
+        int dropped = 0;
+
+        int x = 0;
+        while(x < flat.length) {
+            final int count = flat[x++];
+            if(count < 2 || x + count > flat.length) return -1;
+
+            final int end = x + count;
+            final GridPath path = readPath(flat, x, count, order);
+            x = end;
+
+            if(path == null) dropped++;
+            else restored.add(path);
+        }
+
+        for(GridPath path : restored)
+            putPath(path);
+        return dropped;
+    }
+
+    // reads one path of the given vertex count starting at flat[from], or returns null if it no longer fits the grid
+    @Nullable
+    private static GridPath readPath(int[] flat, int from, int count, GridVertex[] order) {
+        final GridVertex start = getIndexed(order, flat[from]);
+        if(start == null) return null;
+
+        final GridEdge[] edges = new GridEdge[count - 1];
+        float lowestWatts = Float.MAX_VALUE;
+        GridVertex leap = start;
+        for(int e = 0; e < edges.length; e++) {
+            GridVertex next = getIndexed(order, flat[from + e + 1]);
+            if(next == null) return null;
+            GridEdge edge = leap.getLinkTo(next);
+            if(edge == null || !edge.canTransfer()) return null;
+            edges[e] = edge;
+            lowestWatts = Math.min(lowestWatts, edge.getMaximumWatts());
+            leap = next;
+        }
+
+        final GridPath path = new GridPath(edges, lowestWatts);
+        // an end that's still waiting for its chunk to load can't be asked, so the saved orientation is trusted
+        if(start.isAwaitingHost() || leap.isAwaitingHost()) return path;
+        if(start.canFormPathTo(leap)) return path;
+        // written before the orientation was fixed, or the members' modes were swapped since
+        if(leap.canFormPathTo(start)) return path.copyAndInvert();
+        return null;
+    }
+
+    @Nullable
+    private static GridVertex getIndexed(GridVertex[] order, int index) {
+        if(index < 0 || index >= order.length) return null;
+        return order[index];
+    }
+
     // TODO probably wont use lol
     protected List<GridPath> getEveryPath() {
         List<GridPath> out = new ArrayList<>();
@@ -280,11 +510,12 @@ public class TransferPathManager {
     }
 
     /**
-     * Called internally whenever a GridPath is added or removed
+     * Called internally whenever a GridPath is added or removed. Paths are saved with their grid, so the owner is marked dirty.
      * @param path The path in question
      * @param type The type of packet to send, which dicates how the packet is handled by the client
      */
     private void onPathsUpdated(@Nullable GridPath path, GridSyncPacketType type) {
-        if(shouldUpdate) GridSyncHelper.informPlayerPathUpdate(type, path);
+        owner.markDirty();
+        if(shouldUpdate) GridSyncHelper.informPlayerPathUpdate(owner.getParent().getWorld(), type, path);
     }
 }
@@ -38,19 +38,23 @@ public class GridClientEdge {
     }
 
     public GridClientEdge(GID sideA, GID sideB, int typeID) {
+        this(sideA, sideB, typeID, false);
+    }
+
+    /**
+     * @param received <code>TRUE</code> if this edge was received from the server, in which case
+     * its initial age is set so that it animates in on the client.
+     */
+    public GridClientEdge(GID sideA, GID sideB, int typeID, boolean received) {
         this.sideA = sideA;
         this.sideB = sideB;
         this.typeID = typeID;
         this.age = age * (int)((float)Mth.clamp(cheb(), 3, 90) * 0.4f);
-        this.initialAge = 0;
+        this.initialAge = received ? (int)age : 0;
     }
 
     public GridClientEdge(FriendlyByteBuf buf) {
-        this.sideA = new GID(buf.readBlockPos(), buf.readInt());
-        this.sideB = new GID(buf.readBlockPos(), buf.readInt());
-        this.typeID = buf.readInt();
-        this.age = age * (int)((float)Mth.clamp(cheb(), 3, 90) * 0.4f);
-        this.initialAge = (int)age;
+        this(new GID(buf.readBlockPos(), buf.readInt()), new GID(buf.readBlockPos(), buf.readInt()), buf.readInt(), true);
     }
 
     public void toBytes(FriendlyByteBuf buf) {
@@ -6,9 +6,11 @@ import java.util.concurrent.ScheduledExecutorService;
 import javax.annotation.Nullable;
 
 import com.quattage.mechano.foundation.electricity.WireSpool;
+import com.quattage.mechano.foundation.electricity.grid.GlobalTransferGridDispatcher;
 import com.quattage.mechano.foundation.electricity.grid.LocalTransferGrid;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncHelper;
 import com.quattage.mechano.foundation.electricity.grid.network.GridSyncPacketType;
+import com.quattage.mechano.foundation.electricity.watt.unit.PackedWatts;
 import com.quattage.mechano.foundation.electricity.watt.unit.Voltage;
 import com.quattage.mechano.foundation.electricity.watt.unit.WattUnit;
 
@@ -33,32 +35,43 @@ public class GridEdge {
     private final float maxWatts; // the maxmumum amps that can flow through this wire
 
     private boolean canTransfer = true;
-    private WattUnit throughput = WattUnit.EMPTY;
+    private final Load load; // shared with the inverse, never with anything else
 
     @Nullable
     private final GridEdge inverse;
 
     ////////////////////////////////////////////////////////////
     public GridEdge(GridVertex startVert, GridVertex endVert, int wireType, @Nullable GridEdge base) {
+        this(startVert, endVert, WireSpool.ofType(wireType), base);
+    }
+
+    public GridEdge(GridVertex startVert, GridVertex endVert, WireSpool wireType, @Nullable GridEdge base) {
+        this(startVert, endVert, wireType.getSpoolID(), wireType.getOptimalVoltage(), wireType.getMaxWatts(), base);
+    }
+
+    /**
+     * Creates a GridEdge with the given wire characteristics, rather than the ones registered for its wire type.
+     * @param startVert GridVertex this GridEdge leads from
+     * @param endVert GridVertex this GridEdge leads to
+     * @param wireType ID of the WireSpool this GridEdge is saved as
+     * @param optimalVoltage The voltage where transfer across this GridEdge is 100% efficient
+     * @param maxWatts The most watts this GridEdge can carry
+     * @param base The GridEdge this is the inverse of, or <code>null</code> to create the inverse along with it
+     */
+    public GridEdge(GridVertex startVert, GridVertex endVert, int wireType, Voltage optimalVoltage, float maxWatts, @Nullable GridEdge base) {
         if(startVert == null) throw new NullPointerException("Error instantiating GridEdge - starting point is null!");
         if(endVert == null) throw new NullPointerException("Error instantiating GridEdge - ending point is null!");
 
         this.origin = startVert;
         this.destination = endVert;
         this.typeID = wireType;
-
-        final WireSpool typeSpool = WireSpool.ofType(wireType);
-        this.optimalVoltage = typeSpool.getOptimalVoltage();
-        this.maxWatts = typeSpool.getMaxWatts();
+        this.optimalVoltage = optimalVoltage;
+        this.maxWatts = maxWatts;
         this.distance = getEuclideanDistance(startVert.getID().getBlockPos(), endVert.getID().getBlockPos());
 
-        if(base == null) this.inverse = new GridEdge(destination, origin, typeID, this);
+        this.load = base == null ? new Load() : base.load;
+        if(base == null) this.inverse = new GridEdge(destination, origin, typeID, optimalVoltage, maxWatts, this);
         else this.inverse = base;
-        inverse.throughput = this.throughput;
-    }
-
-    public GridEdge(GridVertex startVert, GridVertex endVert, WireSpool wireType, @Nullable GridEdge base) {
-        this(startVert, endVert, wireType.getSpoolID(), base);
     }
 
     public GridEdge(GridVertex startVert, GridVertex endVert, WireSpool wireType) {
@@ -99,7 +112,7 @@ public class GridEdge {
 
         startVert.addLink(edge);
         endVert.addLink(edge.getInverse());
-        GridSyncHelper.informPlayerEdgeUpdate(GridSyncPacketType.ADD_WORLD, edge.toLightweight());
+        GridSyncHelper.informPlayerEdgeUpdate(world, GridSyncPacketType.ADD_WORLD, edge.toLightweight());
     }
     ////////////////////////////////////////////////////////////
 
@@ -157,7 +170,7 @@ public class GridEdge {
      * @return A WattUnit representing the quantity of power currently passing through this wire
      */
     public WattUnit getActiveThroughput() {
-        return throughput;
+        return load.get();
     }
 
     /**
@@ -178,7 +191,7 @@ public class GridEdge {
      * @return The amount of power power (represented by a WattUnit) that this edge is currently seeing
      */
     public WattUnit getThroughput() {
-        return throughput;
+        return load.get();
     }
 
     /**
@@ -187,10 +200,17 @@ public class GridEdge {
      * @return This GridEdge, modified as a result of this call
      */
     public GridEdge loadThroughput(WattUnit amount) {
-        throughput.add(amount);
-        if(throughput.getWatts() > maxWatts) 
-            throughput = WattUnit.of(amount.getVoltage(), maxWatts);
-        inverse.throughput = this.throughput;
+        return loadThroughput(PackedWatts.of(amount));
+    }
+
+    /**
+     * Increases the load across this GridEdge by the given {@link PackedWatts <code>PackedWatts</code>} value.
+     * The throughput is modified in place, so this call allocates nothing.
+     * @param amount Packed value to increase by
+     * @return This GridEdge, modified as a result of this call
+     */
+    public GridEdge loadThroughput(long amount) {
+        load.add(amount, maxWatts);
         return this;
     }
 
@@ -198,18 +218,61 @@ public class GridEdge {
      * @return The remaining power that can be conveyed by this GridEdge <code>(maximum - throughput)</code>
      */
     public float getWattsRemaining() {
-        return maxWatts - throughput.getWatts();
+        return maxWatts - load.getCarried();
     }
 
     public void forgetLoad() {
-        throughput.setZero();
-        inverse.throughput = this.throughput;
+        load.forget();
+    }
+
+    /**
+     * @return The watts carried by this GridEdge (and its inverse) so far this tick
+     */
+    public float getWattsCarried() {
+        return load.getCarried();
+    }
+
+    /**
+     * @return The most watts this GridEdge has carried in a single tick since it was created
+     */
+    public float getPeakWatts() {
+        return load.getPeak();
+    }
+
+    /**
+     * @return An exponential moving average of the watts carried by this GridEdge per tick, 
+     * over roughly the last second
+     */
+    public float getAverageWatts() {
+        return load.getAverage();
+    }
+
+    /**
+     * @return How much of this GridEdge's capacity is in use this tick, from <code>0</code> (idle) to <code>1</code> (saturated)
+     */
+    public float getUtilisation() {
+        return maxWatts <= 0 ? 0 : load.getCarried() / maxWatts;
+    }
+
+    /**
+     * @return How much of this GridEdge's capacity is used on average, from <code>0</code> to <code>1</code>.
+     * Wires that sit near <code>1</code> here are the bottlenecks of their grid.
+     */
+    public float getAverageUtilisation() {
+        return maxWatts <= 0 ? 0 : load.getAverage() / maxWatts;
     }
 
     public float getMaximumWatts() {
         return maxWatts;
     }
 
+    /**
+     * @return The ID of the WireSpool this edge was made from
+     */
+    public int getTypeID() {
+        return typeID;
+    }
+
     public GridClientEdge toLightweight() {
         return new GridClientEdge(this, typeID);
     }
@@ -235,4 +298,74 @@ public class GridEdge {
         WireSpool typeSpool = WireSpool.ofType(typeID);
         return "[{" + origin + "->" + destination + "}, type: " + (canTransfer ? typeSpool.getName().toUpperCase() : "NO TRANSFER") + "]";
     }
+
+    /**
+     * The load carried by a GridEdge and its inverse. <p>
+     * Rather than every loaded edge being queued up to be reset at the end of the tick, each load remembers
+     * which tick it was last written on. A load from an earlier tick is treated as zero, and is only actually 
+     * cleared the next time it's touched. The peak and rolling average are folded in at the same time, 
+     * so keeping them costs nothing on ticks where the edge isn't used.
+     */
+    private static class Load {
+
+        private static final int AVERAGE_WINDOW = 20;
+        private static final float ALPHA = 2f / (AVERAGE_WINDOW + 1);
+
+        private final WattUnit throughput = new WattUnit(0, 0);
+        private float carried = 0;
+        private float peak = 0;
+        private float average = 0;
+        private long epoch = Long.MIN_VALUE;
+
+        private void roll() {
+            final long current = GlobalTransferGridDispatcher.getLoadEpoch();
+            if(epoch == current) return;
+
+            if(epoch != Long.MIN_VALUE) {
+                // the last tick this load was written on carried `carried`, every tick since then carried nothing
+                average += ALPHA * (carried - average);
+                final long idle = current - epoch - 1;
+                if(idle > 0) average *= idle >= AVERAGE_WINDOW * 8 ? 0 : (float)Math.pow(1 - ALPHA, idle);
+                if(WattUnit.hasNoPotential(average)) average = 0;
+            }
+
+            throughput.setZero();
+            carried = 0;
+            epoch = current;
+        }
+
+        private void add(long amount, float max) {
+            roll();
+            throughput.add(amount);
+            if(throughput.getWatts() > max) 
+                throughput.clampToMax(max);
+            carried = throughput.getWatts();
+            if(carried > peak) peak = carried;
+        }
+
+        private void forget() {
+            roll();
+            throughput.setZero();
+            carried = 0;
+        }
+
+        private WattUnit get() {
+            roll();
+            return throughput;
+        }
+
+        private float getCarried() {
+            roll();
+            return carried;
+        }
+
+        private float getPeak() {
+            return peak;
+        }
+
+        private float getAverage() {
+            roll();
+            return average;
+        }
+    }
 }
@@ -9,7 +9,7 @@ import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 import com.quattage.mechano.Mechano;
-import com.quattage.mechano.foundation.electricity.grid.GlobalTransferGridDispatcher;
+import com.quattage.mechano.foundation.electricity.watt.unit.PackedWatts;
 import com.quattage.mechano.foundation.electricity.watt.unit.WattUnit;
 import com.simibubi.create.foundation.utility.Pair;
 
@@ -20,18 +20,28 @@ public class GridPath {
 
     private final GridEdge[] path;
     private final float maxTransferRate;
+    private final float length;
     private float remainingTransferRate;
 
     public GridPath(GridEdge[] path, float lowestWatts) {
         this.path = path;
         this.maxTransferRate = lowestWatts;
         this.remainingTransferRate = maxTransferRate;
+        this.length = sumDistances(path);
     }
 
     public GridPath(Collection<GridEdge> members, float lowestWatts) {
         this.path = members.toArray(GridEdge[]::new);
         this.maxTransferRate = lowestWatts;
         this.remainingTransferRate = maxTransferRate;
+        this.length = sumDistances(path);
+    }
+
+    private static float sumDistances(GridEdge[] edges) {
+        float sum = 0;
+        for(int x = 0; x < edges.length; x++)
+            sum += edges[x].getDistance();
+        return sum;
     }
 
     /**
@@ -81,6 +91,27 @@ public class GridPath {
         return (!edgeList.isEmpty()) ? new GridPath(edgeList, lowestWatts) : null;
     }
 
+    /**
+     * Unwinds a Map, where key-value pairs represent links, into a <code>GridPath</code> and returns it. 
+     * Unlike {@link GridPath#ofUnwound(Map, GridVertex, float) <code>ofUnwound(path, start, lowestWatts)</code>}, the maximum 
+     * rate of the resulting GridPath is found from the edges that actually make up the path. <p>
+     * This is designed for predecessor maps shared between many paths (such as shortest path trees), 
+     * where <code>path</code> may contain many links that are irrelevent to the resulting GridPath.
+     * @param path Map of GridVertices describing a path
+     * @param start The starting GridVertex, used to establish insertion order of the resulting GridPath
+     * @return A new GridPath instance, or null if no valid path could be created frorm the supplied map.
+     */
+    @Nullable
+    public static GridPath ofUnwound(Map<GridVertex, GridVertex> path, GridVertex start) {
+        GridPath unwound = ofUnwound(path, start, Float.MAX_VALUE);
+        if(unwound == null) return null;
+
+        float lowestWatts = Float.MAX_VALUE;
+        for(int x = 0; x < unwound.path.length; x++)
+            lowestWatts = Math.min(lowestWatts, unwound.path[x].getMaximumWatts());
+        return new GridPath(unwound.path, lowestWatts);
+    }
+
     /**
      * @return A deep-copy of this GridPath whose vertex order is reversed
      */
@@ -112,7 +143,17 @@ public class GridPath {
      * @param wattsToLoad Watts to increase load by
      */
     public synchronized void addLoad(WattUnit wattsToLoad) {
-        if(wattsToLoad == null || wattsToLoad.hasNoPotential()) return;
+        if(wattsToLoad == null) return;
+        addLoad(PackedWatts.of(wattsToLoad));
+    }
+
+    /**
+     * Adds load to every edge in this path without allocating anything.
+     * See {@link GridPath#addLoad(WattUnit) <code>addLoad()</code>}
+     * @param wattsToLoad A {@link PackedWatts <code>PackedWatts</code>} value to load across this path
+     */
+    public synchronized void addLoad(long wattsToLoad) {
+        if(PackedWatts.hasNoPotential(wattsToLoad)) return;
         float rate = maxTransferRate;
         for(int x = 0; x < path.length; x++) {
             float thisEdgeRate = path[x].loadThroughput(wattsToLoad).getWattsRemaining();
@@ -123,11 +164,11 @@ public class GridPath {
             rate = Math.min(thisEdgeRate, rate);
         }
         remainingTransferRate = rate;
-        GlobalTransferGridDispatcher.markPathDirty(this);
     }
 
     /**
-     * Resets every edge's power load to zero.
+     * Resets every edge's power load to zero. Loads are forgotten on their own once the tick is over, 
+     * so this is only needed to clear them partway through a tick.
      */
     public synchronized void resetLoad() {
         for(int x = 0; x < path.length; x++)
@@ -175,6 +216,14 @@ public class GridPath {
         return path;
     }
 
+    /**
+     * @return The total distance covered by this path, which is the sum of every member edge's distance.
+     * This is the same cost that was minimized when this path was found.
+     */
+    public float getLength() {
+        return length;
+    }
+
     /**
      * @return The amount of members in this path
      */
@@ -205,6 +254,41 @@ public class GridPath {
         return false;
     }
 
+    /**
+     * Whether or not this path leaps across the edge between <code>a</code> and <code>b</code>, in either direction.
+     * @param a GID at one side of the edge
+     * @param b GID at the other side of the edge
+     * @return True if any member of this path connects <code>a</code> and <code>b</code>
+     */
+    public boolean containsEdge(GID a, GID b) {
+        for(int x = 0; x < path.length; x++) {
+            GID origin = path[x].getOriginVertex().getID();
+            GID destination = path[x].getDestinationVertex().getID();
+            if((origin.equals(a) && destination.equals(b)) || (origin.equals(b) && destination.equals(a)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether or not this path takes the exact same route as <code>other</code>, in either direction.
+     * Unlike {@link GridPath#equals(Object) <code>equals()</code>}, every member is compared rather than just the ends.
+     * @param other GridPath to compare
+     * @return True if both paths leap across the same edges
+     */
+    public boolean isSameRouteAs(GridPath other) {
+        if(other == null || other.path.length != path.length) return false;
+        final int size = path.length;
+        if(getStart().equals(other.getStart())) {
+            for(int x = 0; x < size; x++)
+                if(!path[x].equals(other.path[x])) return false;
+            return true;
+        }
+        for(int x = 0; x < size; x++)
+            if(!path[x].isInverseOf(other.path[size - x - 1])) return false;
+        return true;
+    }
+
     public boolean isEmpty() {
         return path.length == 0;
     }
@@ -13,7 +13,6 @@ import com.quattage.mechano.foundation.electricity.WattBatteryHandlable.External
 import com.quattage.mechano.foundation.electricity.grid.GlobalTransferGrid;
 import com.quattage.mechano.foundation.electricity.grid.LocalTransferGrid;
 import com.quattage.mechano.foundation.electricity.impl.WireAnchorBlockEntity;
-import com.simibubi.create.foundation.utility.Pair;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
@@ -35,6 +34,9 @@ public class GridVertex {
     @Nullable private WireAnchorBlockEntity host;
     private final GID id;
 
+    // set when this GridVertex was read while its chunk wasn't loaded. Its host is looked up once the chunk loads
+    private boolean awaitingHost = false;
+
     // A* guidance variables
     private float f = 0;
     private float heuristic = 0;
@@ -55,10 +57,7 @@ public class GridVertex {
         this.parent = parent;
         this.id = id;
         this.isMember = false;
-
-        BlockEntity be = world.getBlockEntity(id.getBlockPos());
-        if(be instanceof WireAnchorBlockEntity wbe) this.host = wbe;
-        else this.host = null;
+        findHost(world);
     }
 
     /**
@@ -78,11 +77,43 @@ public class GridVertex {
         this.isMember = in.getBoolean("m");
         readLinks(world, in.getList("l", Tag.TAG_COMPOUND));
 
-        if(!isEmpty()) {
-            BlockEntity be = world.getBlockEntity(id.getBlockPos());
-            if(be instanceof WireAnchorBlockEntity wbe) this.host = wbe;
-            else this.host = null;
-        } else this.host = null;
+        if(!isEmpty()) findHost(world);
+        else this.host = null;
+    }
+
+    // the host is only looked up if its chunk is already loaded, since getBlockEntity() would otherwise load the chunk on the spot
+    private void findHost(Level world) {
+        final BlockPos pos = id.getBlockPos();
+        if(!world.isLoaded(pos)) {
+            this.host = null;
+            this.awaitingHost = true;
+            return;
+        }
+
+        BlockEntity be = world.getBlockEntity(pos);
+        if(be instanceof WireAnchorBlockEntity wbe) this.host = wbe;
+        else this.host = null;
+        this.awaitingHost = false;
+    }
+
+    /**
+     * Looks up the host of a GridVertex that was read while its chunk wasn't loaded. Does nothing if the chunk still isn't loaded,
+     * or if this GridVertex isn't {@link GridVertex#isAwaitingHost() <code>awaiting a host</code>}.
+     * @param world World to look in
+     * @return <code>FALSE</code> if the chunk has loaded, but there's no WireAnchorBlockEntity there anymore.
+     */
+    public boolean resolveHost(Level world) {
+        if(!awaitingHost) return true;
+        findHost(world);
+        return awaitingHost || host != null;
+    }
+
+    /**
+     * @return <code>TRUE</code> if this GridVertex was read while its chunk wasn't loaded, and hasn't been given its host yet.
+     * A GridVertex that's awaiting a host also {@link GridVertex#hasNoHost() <code>has no host</code>}, but isn't invalid.
+     */
+    public boolean isAwaitingHost() {
+        return awaitingHost;
     }
 
     /**
@@ -91,7 +122,7 @@ public class GridVertex {
      * but can be used on instances that already exist.
      */
     public void readRetroactive(Level world, CompoundTag in) {
-        if(hasNoHost()) {
+        if(hasNoHost() && !awaitingHost) {
             throw new IllegalStateException("Error reading retroactively on GridVertex " + getID() + 
                 " - This GridVertex is invalid or has been marked for removal! (Host BlockEntity is null)");
         }
@@ -138,15 +169,17 @@ public class GridVertex {
             getCoorespondingAnchor().setParticipant(this);
             if(!isMember()) {
                 setMemberStatus(true);
+                if(parent != null) parent.markChanged();
                 // TODO other such goodness
             }
 
-            if(repath) getOrFindParent().pathfindFrom(this, true, false);
+            if(repath) getOrFindParent().requestPathsFrom(this);
 
         } else {
             getCoorespondingAnchor().nullifyParticipant();
             if(isMember()) {
                 setMemberStatus(false);
+                if(parent != null) parent.markChanged();
                 if(!isEmpty()) getOrFindParent().getPathManager().removePathsEndingIn(getID());
             }
         }
@@ -457,7 +490,14 @@ public class GridVertex {
     public String toFormattedString() {
         String sig = isMember ? "Type - §d§l'Member'§r§7" : "Type - §5§l'Actor'§r§7";
         String mode = "Mode - §r§l'" + getHostCapabilityMode().toString() + "' §r§7";
-        return "§r§7(" + sig  + ", " + mode + ")\n                Host: " + posAsString() + "\n";
+        String out = "§r§7(" + sig  + ", " + mode + ")\n                Host: " + posAsString() + "\n";
+        for(GridEdge link : links) {
+            out += "                  -> " + link.getDestinationVertex().posAsString() + ": §r§b§3" 
+                + Math.round(link.getUtilisation() * 100) + "% §r§7now, §r§b§3" 
+                + Math.round(link.getAverageUtilisation() * 100) + "% §r§7avg, §r§b§3" 
+                + Math.round(link.getPeakWatts()) + "W §r§7peak\n";
+        }
+        return out;
     }
 
     public String posAsString() {
@@ -495,9 +535,9 @@ public class GridVertex {
     public LocalTransferGrid getOrFindParent() {
         if(parent == null) {
             if(hasNoHost()) throw new IllegalStateException("Error getting LocalTransferGrid parent for GridVertex at " + id + " - This GridVertex is invalid or has been marked for removal! (Host BlockEntity reference is null)");
-            Pair<Integer, LocalTransferGrid> sub = GlobalTransferGrid.of(host.getLevel()).getSystemContaining(id);
+            LocalTransferGrid sub = GlobalTransferGrid.of(host.getLevel()).getGridContaining(id);
             if(sub == null) throw new NullPointerException("Error getting LocalTransferGrid parent for GridVertex at " + id + " - No LocalTransferGrid could be found containing a GridVertex at this ID!");
-            parent = sub.getSecond();
+            parent = sub;
         } 
         return parent;
     }
@@ -512,6 +552,7 @@ public class GridVertex {
      * A GridVertex has no host if its parent BlockEntity is null. This can happen in two ways:
      * <li> <code>-</code> No BlockEntity could be found at this GridVertex's cooresponding <code>GID</code> block position. This can only happen if the constructor fails to find a BE during NBT loading, and will leave this GridVertex in an invalid state if one cannot be found.
      * <li> <code>-</code> This GridVertex has been marked for removal, either because it was simply removed, or because it has invalid/outdated data.
+     * <li> <code>-</code> This GridVertex was read while its chunk wasn't loaded. See {@link GridVertex#isAwaitingHost() <code>isAwaitingHost()</code>}.
      * @return <code>TRUE</code> if this GridVertex host is null.
      */
     public boolean hasNoHost() {
@@ -34,21 +34,27 @@ public class GridEdgeUpdateSyncS2CPacket implements Packetable {
     @Override
     public boolean handle(Supplier<NetworkEvent.Context> supplier) {
         NetworkEvent.Context context = supplier.get();
-        context.enqueueWork(() -> {
-            switch(type) {
-                case ADD_NEW:
-                    GridClientCache.ofInstance().addToQueue(edge, true);
-                    break;
-                case ADD_WORLD:
-                    GridClientCache.ofInstance().addToQueue(edge, false);
-                    break;
-                case REMOVE:
-                    GridClientCache.ofInstance().removeFromQueue(edge);
-                    break;
-                default:
-                    break;
-            }
-        });
+        context.enqueueWork(() -> apply(type, edge));
         return true;
     }
+
+    /**
+     * Applies a single edge update to the client's GridClientCache. 
+     * Shared with {@link GridSyncBundleS2CPacket <code>GridSyncBundleS2CPacket</code>}.
+     */
+    protected static void apply(GridSyncPacketType type, GridClientEdge edge) {
+        switch(type) {
+            case ADD_NEW:
+                GridClientCache.ofInstance().addToQueue(edge, true);
+                break;
+            case ADD_WORLD:
+                GridClientCache.ofInstance().addToQueue(edge, false);
+                break;
+            case REMOVE:
+                GridClientCache.ofInstance().removeFromQueue(edge);
+                break;
+            default:
+                break;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.quattage.mechano.foundation.electricity.grid.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.quattage.mechano.foundation.electricity.grid.GridClientCache;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridClientEdge;
+import com.quattage.mechano.foundation.network.Packetable;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+/**
+ * Carries every vertex, edge, and path update made in a dimension during one tick.
+ * Built by {@link GridSyncQueue#drain() <code>GridSyncQueue.drain()</code>}. <p>
+ * Grid changes are usually clustered together, so each GID is written as the difference between its position
+ * and the position of the GID written before it. These differences are written as zigzag-encoded VarInts,
+ * which means that most GIDs take 4 bytes rather than the 12 it would take to write them outright.
+ */
+public class GridSyncBundleS2CPacket implements Packetable {
+
+    // the amount of GIDs a single bundle can hold before a new one is started
+    public static final int MAX_GIDS_PER_BUNDLE = 32768;
+
+    private final long[] removedVerts;
+    private final List<GridSyncPacketType> edgeTypes;
+    private final List<GridClientEdge> edges;
+    private final boolean clearPaths;
+    private final List<GridSyncPacketType> pathTypes;
+    private final List<GID[]> paths;
+
+    private GridSyncBundleS2CPacket(Builder builder) {
+        this.removedVerts = builder.removedVerts.toLongArray();
+        this.edgeTypes = builder.edgeTypes;
+        this.edges = builder.edges;
+        this.clearPaths = builder.clearPaths;
+        this.pathTypes = builder.pathTypes;
+        this.paths = builder.paths;
+    }
+
+    public GridSyncBundleS2CPacket(FriendlyByteBuf buf) {
+        final Cursor cursor = new Cursor();
+
+        this.removedVerts = new long[buf.readVarInt()];
+        for(int x = 0; x < removedVerts.length; x++)
+            removedVerts[x] = cursor.readPos(buf).asLong();
+
+        final int edgeCount = buf.readVarInt();
+        this.edgeTypes = new ArrayList<>(edgeCount);
+        this.edges = new ArrayList<>(edgeCount);
+        for(int x = 0; x < edgeCount; x++) {
+            edgeTypes.add(GridSyncPacketType.get(buf.readByte()));
+            GID sideA = cursor.readGID(buf);
+            GID sideB = cursor.readGID(buf);
+            edges.add(new GridClientEdge(sideA, sideB, buf.readVarInt(), true));
+        }
+
+        this.clearPaths = buf.readBoolean();
+
+        final int pathCount = buf.readVarInt();
+        this.pathTypes = new ArrayList<>(pathCount);
+        this.paths = new ArrayList<>(pathCount);
+        for(int x = 0; x < pathCount; x++) {
+            pathTypes.add(GridSyncPacketType.get(buf.readByte()));
+            GID[] path = new GID[buf.readVarInt()];
+            for(int y = 0; y < path.length; y++)
+                path[y] = cursor.readGID(buf);
+            paths.add(path);
+        }
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf) {
+        final Cursor cursor = new Cursor();
+
+        buf.writeVarInt(removedVerts.length);
+        for(long pos : removedVerts)
+            cursor.writePos(buf, BlockPos.of(pos));
+
+        buf.writeVarInt(edges.size());
+        for(int x = 0; x < edges.size(); x++) {
+            GridClientEdge edge = edges.get(x);
+            buf.writeByte(edgeTypes.get(x).ordinal());
+            cursor.writeGID(buf, edge.getSideA());
+            cursor.writeGID(buf, edge.getSideB());
+            buf.writeVarInt(edge.getTypeID());
+        }
+
+        buf.writeBoolean(clearPaths);
+
+        buf.writeVarInt(paths.size());
+        for(int x = 0; x < paths.size(); x++) {
+            GID[] path = paths.get(x);
+            buf.writeByte(pathTypes.get(x).ordinal());
+            buf.writeVarInt(path.length);
+            for(GID id : path)
+                cursor.writeGID(buf, id);
+        }
+    }
+
+    @Override
+    public boolean handle(Supplier<NetworkEvent.Context> supplier) {
+        NetworkEvent.Context context = supplier.get();
+        context.enqueueWork(() -> {
+            final GridClientCache cache = GridClientCache.ofInstance();
+            if(clearPaths) cache.clearAll();
+
+            for(long pos : removedVerts)
+                cache.clearAllOccurancesOf(BlockPos.of(pos));
+
+            for(int x = 0; x < edges.size(); x++)
+                GridEdgeUpdateSyncS2CPacket.apply(edgeTypes.get(x), edges.get(x));
+
+            for(int x = 0; x < paths.size(); x++) {
+                if(pathTypes.get(x) == GridSyncPacketType.REMOVE) cache.unmarkPath(paths.get(x));
+                else cache.markValidPath(paths.get(x));
+            }
+        });
+        return true;
+    }
+
+    public int getRecordCount() {
+        return removedVerts.length + edges.size() + paths.size();
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Tracks the last position that was written or read, so that each position can be written relative to the one before it.
+     */
+    private static class Cursor {
+
+        private int x = 0;
+        private int y = 0;
+        private int z = 0;
+
+        private void writePos(FriendlyByteBuf buf, BlockPos pos) {
+            buf.writeVarInt(zigzag(pos.getX() - x));
+            buf.writeVarInt(zigzag(pos.getY() - y));
+            buf.writeVarInt(zigzag(pos.getZ() - z));
+            x = pos.getX();
+            y = pos.getY();
+            z = pos.getZ();
+        }
+
+        private BlockPos readPos(FriendlyByteBuf buf) {
+            x += unzigzag(buf.readVarInt());
+            y += unzigzag(buf.readVarInt());
+            z += unzigzag(buf.readVarInt());
+            return new BlockPos(x, y, z);
+        }
+
+        private void writeGID(FriendlyByteBuf buf, GID id) {
+            writePos(buf, id.getBlockPos());
+            buf.writeVarInt(zigzag(id.getSubIndex()));
+        }
+
+        private GID readGID(FriendlyByteBuf buf) {
+            BlockPos pos = readPos(buf);
+            return new GID(pos, unzigzag(buf.readVarInt()));
+        }
+    }
+
+    /**
+     * Accumulates records for a single GridSyncBundleS2CPacket.
+     * Callers should check {@link Builder#isFull() <code>isFull()</code>} before adding records, and start
+     * a new Builder once it returns <code>TRUE</code>.
+     */
+    public static class Builder {
+
+        private final LongArrayList removedVerts = new LongArrayList();
+        private final List<GridSyncPacketType> edgeTypes = new ArrayList<>();
+        private final List<GridClientEdge> edges = new ArrayList<>();
+        private boolean clearPaths = false;
+        private final List<GridSyncPacketType> pathTypes = new ArrayList<>();
+        private final List<GID[]> paths = new ArrayList<>();
+
+        private int gidCount = 0;
+
+        public Builder removeVertex(long pos) {
+            removedVerts.add(pos);
+            gidCount++;
+            return this;
+        }
+
+        public Builder edge(GridSyncPacketType type, GridClientEdge edge) {
+            edgeTypes.add(type);
+            edges.add(edge);
+            gidCount += 2;
+            return this;
+        }
+
+        public Builder clearPaths() {
+            clearPaths = true;
+            return this;
+        }
+
+        public Builder path(GridSyncPacketType type, GID[] path) {
+            pathTypes.add(type);
+            paths.add(path);
+            gidCount += path.length;
+            return this;
+        }
+
+        public boolean isFull() {
+            return gidCount >= MAX_GIDS_PER_BUNDLE;
+        }
+
+        public boolean isEmpty() {
+            return gidCount == 0 && !clearPaths;
+        }
+
+        public GridSyncBundleS2CPacket build() {
+            return new GridSyncBundleS2CPacket(this);
+        }
+    }
+}
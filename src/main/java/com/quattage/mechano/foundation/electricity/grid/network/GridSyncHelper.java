@@ -1,23 +1,31 @@
 package com.quattage.mechano.foundation.electricity.grid.network;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
 
-import com.google.common.collect.HashMultimap;
 import com.quattage.mechano.Mechano;
 import com.quattage.mechano.MechanoPackets;
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.content.item.DebugButter;
 import com.quattage.mechano.foundation.electricity.grid.GlobalTransferGrid;
-import com.quattage.mechano.foundation.electricity.grid.LocalTransferGrid;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridClientEdge;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
 import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
-import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
@@ -25,36 +33,174 @@ import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.level.ChunkWatchEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 /**
  * The GridSyncHelper does a few things: <p>
  * - Contains helper methods for marking chunks and sending packets<p>
  * - Maintains a Hashmap of chunks and what players are looking at them<p>
  * - Automatically sends packets to players when they look at chunks containing Grid info<p>
+ * - Only sends grid changes to players who are looking at the chunks they happened in<p>
+ * - Only sends path changes to players who have {@link GridSyncHelper#setPathSubscription(ServerPlayer, boolean) subscribed} to them,
+ * and only for paths that start in chunks they're looking at<p>
  */
 @EventBusSubscriber(modid = Mechano.MOD_ID)
 public class GridSyncHelper {
 
-    private static final HashMultimap<UUID, ChunkPos> targetedGridChunks = HashMultimap.create();
+    // packed ChunkPos of every chunk each player is watching
+    private static final Object2ObjectOpenHashMap<UUID, LongOpenHashSet> targetedGridChunks = new Object2ObjectOpenHashMap<>();
+
+    // players who display paths (such as through the GridEdgeDebugBehavior) and want to receive them
+    private static final Set<UUID> pathSubscribers = new HashSet<>();
+
+    // the earliest tick each player can be sent every path again, and the subscribers still waiting for it
+    private static final Object2LongOpenHashMap<UUID> nextPathSync = new Object2LongOpenHashMap<>();
+    private static final Set<UUID> deferredPathSyncs = new HashSet<>();
+
+    // changes are held here until the end of the tick, and then sent to the players in that dimension who can see them
+    private static final Map<ResourceKey<Level>, GridSyncQueue> outboundQueues = new HashMap<>();
     
     public GridSyncHelper() {}
 
-    public static void informPlayerEdgeUpdate(GridSyncPacketType type, GridClientEdge edge) {
-        MechanoPackets.sendToAllClients(new GridEdgeUpdateSyncS2CPacket(type, edge));
+    public static void informPlayerEdgeUpdate(Level world, GridSyncPacketType type, GridClientEdge edge) {
+        GridSyncQueue queue = getQueue(world);
+        if(queue != null) queue.queueEdge(type, edge);
+    }
+
+    public static void informPlayerVertexUpdate(Level world, GridSyncPacketType type, GID vert) {
+        GridSyncQueue queue = getQueue(world);
+        if(queue == null) return;
+        if(type == GridSyncPacketType.REMOVE) queue.queueVertexRemoval(vert.getBlockPos());
+    }
+
+    public static void informPlayerPathUpdate(Level world, GridSyncPacketType type, @Nullable GridPath path) {
+        GridSyncQueue queue = getQueue(world);
+        if(queue != null) queue.queuePath(type, path);
+    }
+
+    @Nullable
+    private static GridSyncQueue getQueue(Level world) {
+        if(world == null || world.isClientSide()) return null;
+        return outboundQueues.computeIfAbsent(world.dimension(), dim -> new GridSyncQueue());
+    }
+
+    /**
+     * Sends everything that was queued during this tick. Each player in a dimension is sent 
+     * the changes made in the chunks they're watching as a single {@link GridSyncBundleS2CPacket <code>GridSyncBundleS2CPacket</code>},
+     * unless there are enough of them to need more than one. Players who aren't watching any changed chunks are sent nothing.
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if(event.phase != TickEvent.Phase.END) return;
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(server == null) return;
+
+        if(!deferredPathSyncs.isEmpty()) sendDeferredPaths(server);
+
+        for(Map.Entry<ResourceKey<Level>, GridSyncQueue> entry : outboundQueues.entrySet()) {
+            GridSyncQueue queue = entry.getValue();
+            if(queue.isEmpty()) continue;
+
+            ServerLevel world = server.getLevel(entry.getKey());
+            if(world != null) {
+                for(ServerPlayer player : world.players()) {
+                    final LongOpenHashSet chunks = targetedGridChunks.get(player.getUUID());
+                    final boolean wantsPaths = pathSubscribers.contains(player.getUUID());
+                    // most players are nowhere near this tick's changes, so they're skipped before anything is built for them
+                    if(!queue.overlaps(chunks, wantsPaths)) continue;
+                    for(GridSyncBundleS2CPacket bundle : queue.build(getInterest(chunks, wantsPaths)))
+                        MechanoPackets.sendToClient(bundle, player);
+                }
+            }
+            queue.clear();
+        }
     }
 
-    public static void informPlayerVertexUpdate(GridSyncPacketType type, GID edge) {
-        MechanoPackets.sendToAllClients(new GridVertUpdateSyncS2CPacket(type, edge.getBlockPos()));
+    private static GridSyncQueue.Interest getInterest(@Nullable LongOpenHashSet chunks, boolean wantsPaths) {
+        return new GridSyncQueue.Interest() {
+            public boolean isTracking(long pos) { 
+                return chunks != null && chunks.contains(GridSyncQueue.chunkOf(pos)); 
+            }
+            public boolean wantsPaths() { return wantsPaths; }
+        };
     }
 
-    public static void informPlayerPathUpdate(GridSyncPacketType type, @Nullable GridPath path) {
-        MechanoPackets.sendToAllClients(new GridPathUpdateSyncS2CPacket(path, type));
+    /**
+     * Subscribes or unsubscribes the given player from path updates. Path updates are only useful to
+     * clients that display paths, so players receive none of them unless they've subscribed. 
+     * Only players who are holding the DebugButter, or who have {@link MechanoSettings#PATH_VIEW_PERMISSION <code>PATH_VIEW_PERMISSION</code>},
+     * can subscribe. <p>
+     * When a player subscribes, every path that starts in a chunk they're watching is sent to them. Players who subscribe
+     * again and again only get this once every {@link MechanoSettings#PATH_SYNC_COOLDOWN <code>PATH_SYNC_COOLDOWN</code>} ticks,
+     * anything sooner is put off until the cooldown is over.
+     * @param player Player to subscribe
+     * @param subscribed <code>TRUE</code> to start receiving path updates, <code>FALSE</code> to stop.
+     */
+    public static void setPathSubscription(ServerPlayer player, boolean subscribed) {
+        if(player == null) throw new NullPointerException("Error setting path subscription - Player is null!");
+        if(!subscribed) {
+            pathSubscribers.remove(player.getUUID());
+            deferredPathSyncs.remove(player.getUUID());
+            return;
+        }
+        if(!canViewPaths(player)) return;
+        if(pathSubscribers.add(player.getUUID())) requestAllPaths(player);
     }
 
+    private static boolean canViewPaths(ServerPlayer player) {
+        return player.hasPermissions(MechanoSettings.PATH_VIEW_PERMISSION) 
+            || player.isHolding(stack -> stack.getItem() instanceof DebugButter);
+    }
+
+    // sends every path to the given subscriber, or defers it until their cooldown is over
+    private static void requestAllPaths(ServerPlayer player) {
+        final long now = player.server.getTickCount();
+        if(now < nextPathSync.getLong(player.getUUID())) {
+            deferredPathSyncs.add(player.getUUID());
+            return;
+        }
+        deferredPathSyncs.remove(player.getUUID());
+        nextPathSync.put(player.getUUID(), now + MechanoSettings.PATH_SYNC_COOLDOWN);
+        sendAllPaths(player.level(), player);
+    }
+
+    private static void sendDeferredPaths(MinecraftServer server) {
+        final long now = server.getTickCount();
+        final Iterator<UUID> deferred = deferredPathSyncs.iterator();
+        while(deferred.hasNext()) {
+            UUID id = deferred.next();
+            if(now < nextPathSync.getLong(id)) continue;
+            deferred.remove();
+            ServerPlayer player = server.getPlayerList().getPlayer(id);
+            if(player == null || !pathSubscribers.contains(id)) continue;
+            nextPathSync.put(id, now + MechanoSettings.PATH_SYNC_COOLDOWN);
+            sendAllPaths(player.level(), player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        outboundQueues.clear();
+        targetedGridChunks.clear();
+        pathSubscribers.clear();
+        nextPathSync.clear();
+        deferredPathSyncs.clear();
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLeave(PlayerEvent.PlayerLoggedOutEvent event) {
+        targetedGridChunks.remove(event.getEntity().getUUID());
+        pathSubscribers.remove(event.getEntity().getUUID());
+        nextPathSync.removeLong(event.getEntity().getUUID());
+        deferredPathSyncs.remove(event.getEntity().getUUID());
+    }
 
     public static void markChunksChanged(Level world, BlockPos pos) {
         BlockState state = world.getBlockState(pos);
@@ -63,34 +209,45 @@ public class GridSyncHelper {
 
     private static void syncGridChunkWithPlayer(Level world, ChunkPos chunkPos, Player player, GridSyncPacketType type) {
 
+        if(!(player instanceof ServerPlayer sPlayer)) return;
         GlobalTransferGrid grid = GlobalTransferGrid.of(world);
         final Set<GridClientEdge> edgesToSend = new HashSet<>();
 
-        // TODO this is slow as balls
-        if(!(player instanceof ServerPlayer sPlayer)) return;
-        for(LocalTransferGrid sys : grid.getSubgrids()) {
-            for(GridVertex vert : sys.allVerts()) {
-                if(chunkPos.equals(new ChunkPos(vert.getID().getBlockPos()))) {
-                    for(GridEdge edge : vert.links)
-                        edgesToSend.add(edge.toLightweight());
-                }
+        for(GridEdge edge : grid.getEdgesInChunk(chunkPos))
+            edgesToSend.add(edge.toLightweight());
+
+        GridSyncBundleS2CPacket.Builder bundle = new GridSyncBundleS2CPacket.Builder();
+        for(GridClientEdge edge : edgesToSend) {
+            if(bundle.isFull()) {
+                MechanoPackets.sendToClient(bundle.build(), sPlayer);
+                bundle = new GridSyncBundleS2CPacket.Builder();
             }
+            bundle.edge(type, edge);
         }
+        if(!bundle.isEmpty()) MechanoPackets.sendToClient(bundle.build(), sPlayer);
 
-        for(GridClientEdge edge : edgesToSend) 
-            MechanoPackets.sendToClient(new GridEdgeUpdateSyncS2CPacket(type, edge), sPlayer);
+        // subscribers see the paths that start in every chunk they're watching, so they come and go with the chunk
+        if(pathSubscribers.contains(sPlayer.getUUID())) {
+            final GridSyncPacketType pathType = type == GridSyncPacketType.REMOVE ? GridSyncPacketType.REMOVE : GridSyncPacketType.ADD_NEW;
+            final GridSyncQueue queue = new GridSyncQueue();
+            for(GridPath path : grid.getPathsInChunk(chunkPos))
+                queue.queuePath(pathType, path);
+            for(GridSyncBundleS2CPacket paths : queue.drain())
+                MechanoPackets.sendToClient(paths, sPlayer);
+        }
     }
     
 
     @SubscribeEvent
     public static void onChunkEnterPlayerView(ChunkWatchEvent.Watch event) {
-        if(targetedGridChunks.put(event.getPlayer().getUUID(), event.getPos()))
+        if(targetedGridChunks.computeIfAbsent(event.getPlayer().getUUID(), uuid -> new LongOpenHashSet()).add(event.getPos().toLong()))
             syncGridChunkWithPlayer(event.getLevel(), event.getPos(), event.getPlayer(), GridSyncPacketType.ADD_WORLD);
     }
 
     @SubscribeEvent
     public static void onChunkLeavePlayerView(ChunkWatchEvent.UnWatch event) {
-        if(targetedGridChunks.remove(event.getPlayer().getUUID(), event.getPos()))
+        LongOpenHashSet chunks = targetedGridChunks.get(event.getPlayer().getUUID());
+        if(chunks != null && chunks.remove(event.getPos().toLong()))
             syncGridChunkWithPlayer(event.getLevel(), event.getPos(), event.getPlayer(), GridSyncPacketType.REMOVE);
     }
 
@@ -101,14 +258,24 @@ public class GridSyncHelper {
         if(world.isClientSide()) return;
         if(!(entity instanceof ServerPlayer player)) return;
 
+        // the client's path cache belongs to the level it just left, so subscribers need every path in their new one
+        if(pathSubscribers.contains(player.getUUID())) requestAllPaths(player);
+    }
+
+    // sends every path that starts in a chunk the given player is watching
+    private static void sendAllPaths(Level world, ServerPlayer player) {
+        final LongOpenHashSet chunks = targetedGridChunks.get(player.getUUID());
+        if(chunks == null || chunks.isEmpty()) return;
+
+        // paths are queued into a throwaway queue so that they're bundled the same way as regular updates
+        final GridSyncQueue queue = new GridSyncQueue();
         GlobalTransferGrid allGrids = GlobalTransferGrid.of(world);
-        for(LocalTransferGrid grid : allGrids.getSubgrids()) {
-            grid.getPathManager().forEachPath(
-                path -> {
-                    MechanoPackets.sendToClient(new GridPathUpdateSyncS2CPacket(
-                        path, GridSyncPacketType.ADD_NEW), player);
-                }
-            );
+        for(long chunk : chunks) {
+            for(GridPath path : allGrids.getPathsInChunk(new ChunkPos(chunk)))
+                queue.queuePath(GridSyncPacketType.ADD_NEW, path);
         }
+
+        for(GridSyncBundleS2CPacket bundle : queue.drain())
+            MechanoPackets.sendToClient(bundle, player);
     }
 }
@@ -0,0 +1,260 @@
+package com.quattage.mechano.foundation.electricity.grid.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GIDPair;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridClientEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * A GridSyncQueue collects every grid change made in a single dimension over the course of a tick,
+ * so that they can be sent to each player as one {@link GridSyncBundleS2CPacket <code>GridSyncBundleS2CPacket</code>}
+ * instead of one packet per change. <p>
+ * Changes to the same edge or path are coalesced: an edge that is added and then removed within the same tick
+ * is never sent at all, and an edge that is removed and then re-added is sent as a removal followed by an addition. <p>
+ * Paths are placed at the chunk their first vertex is in, so a recipient is only sent the paths that start in chunks they're watching.
+ */
+public class GridSyncQueue {
+
+    private final LongLinkedOpenHashSet removedVerts = new LongLinkedOpenHashSet();
+    private final Object2ObjectLinkedOpenHashMap<GIDPair, Pending<GridClientEdge>> edges = new Object2ObjectLinkedOpenHashMap<>();
+    private final Object2ObjectLinkedOpenHashMap<GIDPair, Pending<GID[]>> paths = new Object2ObjectLinkedOpenHashMap<>();
+    private boolean clearPaths = false;
+
+    // packed ChunkPos of every chunk touched by a queued change, so recipients who can't see any of them are skipped cheaply
+    private final LongOpenHashSet changedChunks = new LongOpenHashSet();
+    private final LongOpenHashSet pathChunks = new LongOpenHashSet();
+
+    public GridSyncQueue() {}
+
+    public void queueVertexRemoval(BlockPos pos) {
+        removedVerts.add(pos.asLong());
+        changedChunks.add(chunkOf(pos.asLong()));
+    }
+
+    public void queueEdge(GridSyncPacketType type, GridClientEdge edge) {
+        if(edge == null) throw new NullPointerException("Error queueing edge update - The provided edge is null!");
+        final GIDPair key = new GIDPair(edge.getSideA(), edge.getSideB());
+        changedChunks.add(chunkOf(edge.getSideA().getBlockPos().asLong()));
+        changedChunks.add(chunkOf(edge.getSideB().getBlockPos().asLong()));
+
+        switch(type) {
+            case ADD_NEW:
+            case ADD_WORLD:
+                edges.computeIfAbsent(key, k -> new Pending<>()).add(type, edge);
+                break;
+            case REMOVE:
+                Pending<GridClientEdge> pending = edges.get(key);
+                if(pending == null) edges.put(key, new Pending<GridClientEdge>().remove(edge));
+                else if(pending.remove(edge).isEmpty()) edges.remove(key);
+                break;
+            default:
+                throw new IllegalArgumentException("Error queueing edge update - '" + type + "' is not a valid edge update!");
+        }
+    }
+
+    public void queuePath(GridSyncPacketType type, @Nullable GridPath path) {
+        if(type == GridSyncPacketType.CLEAR) {
+            clearPaths = true;
+            paths.clear();
+            return;
+        }
+
+        if(path == null) throw new NullPointerException("Error queueing path update - The provided path is null!");
+        final GID[] members = new GID[path.size() + 1];
+        path.forEachVertex(vert -> {
+            members[vert.getFirst()] = vert.getSecond().getID();
+        });
+        final GIDPair key = new GIDPair(members[0], members[members.length - 1]);
+        pathChunks.add(chunkOf(members[0].getBlockPos().asLong()));
+
+        switch(type) {
+            case ADD_NEW:
+                paths.computeIfAbsent(key, k -> new Pending<>()).add(type, members);
+                break;
+            case REMOVE:
+                Pending<GID[]> pending = paths.get(key);
+                if(pending == null) paths.put(key, new Pending<GID[]>().remove(members));
+                else if(pending.remove(members).isEmpty()) paths.remove(key);
+                break;
+            default:
+                throw new IllegalArgumentException("Error queueing path update - '" + type + "' is not a valid path update!");
+        }
+    }
+
+    public boolean isEmpty() {
+        return removedVerts.isEmpty() && edges.isEmpty() && paths.isEmpty() && !clearPaths;
+    }
+
+    /**
+     * Checks whether anything queued could be sent to a recipient watching the given chunks, without building any packets.
+     * @param chunks Packed ChunkPos of every chunk the recipient is watching, or <code>null</code> if they aren't watching any
+     * @param wantsPaths <code>TRUE</code> if the recipient receives path updates
+     * @return <code>FALSE</code> if {@link GridSyncQueue#build(Interest) <code>build()</code>} would certainly return nothing for this recipient.
+     */
+    public boolean overlaps(@Nullable LongSet chunks, boolean wantsPaths) {
+        if(clearPaths && wantsPaths) return true;
+        if(chunks == null || chunks.isEmpty()) return false;
+        return overlaps(changedChunks, chunks) || (wantsPaths && overlaps(pathChunks, chunks));
+    }
+
+    // iterates whichever set is smaller
+    private static boolean overlaps(LongSet a, LongSet b) {
+        if(a.size() > b.size()) return overlaps(b, a);
+        for(long chunk : a)
+            if(b.contains(chunk)) return true;
+        return false;
+    }
+
+    /**
+     * @param pos A BlockPos packed with {@link BlockPos#asLong()}
+     * @return The ChunkPos containing it, packed with {@link ChunkPos#toLong() <code>ChunkPos.toLong()</code>}
+     */
+    public static long chunkOf(long pos) {
+        return ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4);
+    }
+
+    /**
+     * Writes every queued change into as few packets as possible and empties this queue.
+     * @return A list of packets, which is empty if nothing was queued.
+     */
+    public List<GridSyncBundleS2CPacket> drain() {
+        final List<GridSyncBundleS2CPacket> out = build(Interest.ALL);
+        clear();
+        return out;
+    }
+
+    /**
+     * Writes the queued changes that the given Interest cares about into as few packets as possible.
+     * This queue is left unchanged, so it can be built once for each recipient before being {@link GridSyncQueue#clear() cleared}. <p>
+     * Removals are always written before additions, so the client never drops something that was just added.
+     * @param interest Decides which changes are included
+     * @return A list of packets, which is empty if nothing was relevant to the given Interest.
+     */
+    public List<GridSyncBundleS2CPacket> build(Interest interest) {
+        final List<GridSyncBundleS2CPacket> out = new ArrayList<>();
+        if(isEmpty()) return out;
+
+        final boolean wantsPaths = interest.wantsPaths();
+        GridSyncBundleS2CPacket.Builder bundle = new GridSyncBundleS2CPacket.Builder();
+        if(clearPaths && wantsPaths) bundle.clearPaths();
+
+        for(long pos : removedVerts) {
+            if(!interest.isTracking(pos)) continue;
+            if(bundle.isFull()) bundle = flush(bundle, out);
+            bundle.removeVertex(pos);
+        }
+
+        for(Pending<GridClientEdge> pending : edges.values()) {
+            if(pending.removed == null || !isTracking(interest, pending.removed)) continue;
+            if(bundle.isFull()) bundle = flush(bundle, out);
+            bundle.edge(GridSyncPacketType.REMOVE, pending.removed);
+        }
+
+        for(Pending<GridClientEdge> pending : edges.values()) {
+            if(pending.added == null || !isTracking(interest, pending.added)) continue;
+            if(bundle.isFull()) bundle = flush(bundle, out);
+            bundle.edge(pending.addType, pending.added);
+        }
+
+        if(wantsPaths) {
+            for(Pending<GID[]> pending : paths.values()) {
+                if(pending.removed == null || !interest.isTracking(pending.removed[0].getBlockPos().asLong())) continue;
+                if(bundle.isFull()) bundle = flush(bundle, out);
+                bundle.path(GridSyncPacketType.REMOVE, pending.removed);
+            }
+
+            for(Pending<GID[]> pending : paths.values()) {
+                if(pending.added == null || !interest.isTracking(pending.added[0].getBlockPos().asLong())) continue;
+                if(bundle.isFull()) bundle = flush(bundle, out);
+                bundle.path(GridSyncPacketType.ADD_NEW, pending.added);
+            }
+        }
+
+        if(!bundle.isEmpty()) out.add(bundle.build());
+        return out;
+    }
+
+    public void clear() {
+        removedVerts.clear();
+        edges.clear();
+        paths.clear();
+        clearPaths = false;
+        changedChunks.clear();
+        pathChunks.clear();
+    }
+
+    private static boolean isTracking(Interest interest, GridClientEdge edge) {
+        return interest.isTracking(edge.getSideA().getBlockPos().asLong()) 
+            || interest.isTracking(edge.getSideB().getBlockPos().asLong());
+    }
+
+    private static GridSyncBundleS2CPacket.Builder flush(GridSyncBundleS2CPacket.Builder bundle, List<GridSyncBundleS2CPacket> out) {
+        out.add(bundle.build());
+        return new GridSyncBundleS2CPacket.Builder();
+    }
+
+    /**
+     * The net change made to a single edge or path during a tick.
+     */
+    private static class Pending<T> {
+
+        @Nullable private T removed = null;
+        @Nullable private T added = null;
+        private GridSyncPacketType addType = GridSyncPacketType.ADD_NEW;
+
+        private Pending<T> add(GridSyncPacketType type, T value) {
+            this.added = value;
+            this.addType = type;
+            return this;
+        }
+
+        private Pending<T> remove(T value) {
+            // removing something that was added this tick cancels the addition.
+            // anything that existed before this tick still has to be removed.
+            if(added != null) added = null;
+            else removed = value;
+            return this;
+        }
+
+        private boolean isEmpty() {
+            return removed == null && added == null;
+        }
+    }
+
+    /**
+     * Decides which queued changes are sent to a given recipient.
+     */
+    public interface Interest {
+
+        /**
+         * An Interest that accepts every change.
+         */
+        public static final Interest ALL = new Interest() {
+            public boolean isTracking(long pos) { return true; }
+            public boolean wantsPaths() { return true; }
+        };
+
+        /**
+         * @param pos A BlockPos packed with {@link BlockPos#asLong()}
+         * @return <code>TRUE</code> if changes at this position should be sent.
+         */
+        boolean isTracking(long pos);
+
+        /**
+         * @return <code>TRUE</code> if path updates should be sent. 
+         */
+        boolean wantsPaths();
+    }
+}
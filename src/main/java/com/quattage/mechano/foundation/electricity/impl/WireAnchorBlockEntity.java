@@ -3,17 +3,11 @@ package com.quattage.mechano.foundation.electricity.impl;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import org.joml.Vector3f;
 
 import com.quattage.mechano.foundation.electricity.AnchorPointBank;
-import com.quattage.mechano.foundation.electricity.WattBatteryHandler;
 import com.quattage.mechano.foundation.electricity.grid.GridClientCache;
-import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
-import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
-import com.quattage.mechano.foundation.electricity.watt.WattSendSummary;
-import com.quattage.mechano.foundation.block.anchor.AnchorPoint;
 import com.quattage.mechano.foundation.block.orientation.CombinedOrientation;
 import com.quattage.mechano.foundation.block.orientation.Relative;
 import com.quattage.mechano.foundation.block.orientation.RelativeDirection;
@@ -75,8 +69,6 @@ public abstract class WireAnchorBlockEntity extends ElectricBlockEntity {
 
     @Override
     public void tick() {
-        if(getLevel().isClientSide()) return;
-        tickPaths();
         super.tick();
     }
 
@@ -114,60 +106,6 @@ public abstract class WireAnchorBlockEntity extends ElectricBlockEntity {
         return super.getRenderBoundingBox();
     }
 
-    private void tickPaths() {
-        if(getLevel().isClientSide()) return;
-        if(!battery.getEnergyHolder().canExtract()) return;
-        
-        for(AnchorPoint anchor : anchors.getAll()) {
-            GridVertex participant = anchor.getParticipant();
-            if(participant == null) continue;
-            sendWattsAcross(participant.getConnectedPaths());
-        }
-    }
-
-    /**
-     * Sends watts through the given set of paths.
-     * @param paths Paths that watts will follow - Can be acquired in the BE context via <code>participant.getConnectedPaths()</code>
-     */
-    public void sendWattsAcross(final Set<GridPath> paths) {
-
-
-        if(paths == null || paths.isEmpty()) return;
-        final List<WattSendSummary> sends = new ArrayList<>();
-        GridVertex startVert = null;
-
-        for(GridPath path : paths) {
-            if(startVert == null)
-                startVert = path.getStart();
-            else if(!startVert.getID().getBlockPos().equals(this.getBlockPos())) {
-                throw new IllegalStateException("Error ticking path (" + path + ") at GridVertex " + startVert.getID() 
-                    + " - This vertex's path set has conflicting start points! (Bad data has populated this LocalTransferGrid, you may need to reset)");
-            }
-
-            final GridVertex endVert = path.getEnd();
-            if(startVert.getID().getBlockPos().equals(endVert.getID().getBlockPos())) {
-                throw new IllegalStateException("Error ticking path (" + path 
-                    + ") - Start and ending positions are the same! (Bad data has populated this LocalTransferGrid, you may need to reset))");
-            }
-
-            if(!startVert.canFormPathTo(endVert)) continue;
-
-            WattBatteryHandler<?> destination = endVert.getHost().battery;
-            if(destination != null) {
-                sends.add(
-                    new WattSendSummary(
-                        destination, this.getBlockPos(), 
-                        endVert.getID().getBlockPos(), 
-                        path
-                    )
-                );
-            }
-        }
-
-        if(sends.isEmpty()) return;
-        battery.distributeWattsTo(sends);
-    }
-
     public ChevronTransform[] getChevronLocations() {
         return chevrons;
     }
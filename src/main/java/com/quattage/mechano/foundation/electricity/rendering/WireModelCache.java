@@ -0,0 +1,111 @@
+package com.quattage.mechano.foundation.electricity.rendering;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.quattage.mechano.foundation.electricity.rendering.WirePipeline.BakedModelHashKey;
+
+/**
+ * A least-recently-used cache of static WireModels, bounded by how much memory the cached models take up
+ * rather than by how many there are, since long wires are many times larger than short ones. <p>
+ * Wire meshes can be built off of the render thread (by Embeddium, for example), so every access is synchronized.
+ * Models are built outside of the lock, which means two threads missing on the same key at once may both build it.
+ */
+public class WireModelCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<BakedModelHashKey, WireModel> models = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param maxBytes Roughly how much memory cached models are allowed to take up before the least recently used ones are evicted
+     */
+    public WireModelCache(long maxBytes) {
+        if(maxBytes <= 0) throw new IllegalArgumentException("Error creating WireModelCache - Maximum size must be positive! (got " + maxBytes + ")");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the WireModel stored at the given key, or builds and stores one if none exists.
+     * @param key Key describing the model's geometry
+     * @param builder Builds the model on a miss. May return null, in which case nothing is cached.
+     * @return The cached or newly built WireModel, or null if it couldn't be built
+     */
+    @Nullable
+    public WireModel getOrBuild(BakedModelHashKey key, Supplier<WireModel> builder) {
+        synchronized(this) {
+            WireModel model = models.get(key);
+            if(model != null) {
+                hits++;
+                return model;
+            }
+            misses++;
+        }
+
+        final WireModel built = builder.get();
+        if(built == null) return null;
+
+        synchronized(this) {
+            WireModel existing = models.putIfAbsent(key, built);
+            if(existing != null) return existing;
+            bytes += sizeOf(built);
+            trim();
+        }
+        return built;
+    }
+
+    // evicts the least recently used models until the cache fits in its budget again, always keeping the newest model
+    private void trim() {
+        final Iterator<Map.Entry<BakedModelHashKey, WireModel>> iterator = models.entrySet().iterator();
+        while(bytes > maxBytes && models.size() > 1 && iterator.hasNext()) {
+            bytes -= sizeOf(iterator.next().getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static long sizeOf(WireModel model) {
+        return 4L * (model.vertices().length + model.uvs().length);
+    }
+
+    public synchronized void clear() {
+        models.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return models.size();
+    }
+
+    /**
+     * @return Roughly how much memory the cached models take up, in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized String toString() {
+        return "WireModelCache[" + models.size() + " models, " + (bytes / 1024) + "/" + (maxBytes / 1024) + " KiB, "
+            + hits + " hits, " + misses + " misses, " + evictions + " evictions]";
+    }
+}
@@ -2,15 +2,13 @@
 
 package com.quattage.mechano.foundation.electricity.rendering;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 import javax.annotation.Nullable;
 
 import org.joml.Vector3f;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.quattage.mechano.MechanoSettings;
 import com.quattage.mechano.foundation.helper.VectorHelper;
 
 // import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
@@ -44,34 +42,78 @@ public class WirePipeline {
     private static final int LOD_LIMIT = 512;
 
     /***
-     * Represents a hash, used as an identifier for a WireModel's place in the cache.
+     * How finely the dimensions of a static wire are quantized before they're used as a key. Wires whose 
+     * dimensions round to the same key share one model, which is built from the rounded dimensions.
+     */
+    private static final float KEY_QUANTUM = 1 / 1024f;
+
+    /***
+     * Identifies a WireModel's place in the cache. Every value that the model's geometry depends on is quantized
+     * and compared exactly, so two different wires can never share a key by collision.
      */
     public static class BakedModelHashKey {
-        private final int hash;
+        private final int horizontal;
+        private final int vertical;
+        private final int sag;
+        private final int wireType;
 
         public BakedModelHashKey(Vec3 fromPos, Vec3 toPos) {
-            float verticalDistance = (float) (fromPos.y - toPos.y);
-            float horizontalDistance = (float)new Vec3(fromPos.x, 0, fromPos.z)
-                .distanceTo(new Vec3(toPos.x, 0, toPos.z));
-            int hash = Float.floatToIntBits(verticalDistance);
-            hash = 31 * hash + Float.floatToIntBits(horizontalDistance);
-            this.hash = hash;
+            this(fromPos, toPos, 1f, 0);
+        }
+
+        public BakedModelHashKey(Vec3 fromPos, Vec3 toPos, float sag, int wireType) {
+            double dX = toPos.x - fromPos.x;
+            double dZ = toPos.z - fromPos.z;
+            this.horizontal = quantize((float)Math.sqrt(dX * dX + dZ * dZ));
+            this.vertical = quantize((float)(toPos.y - fromPos.y));
+            this.sag = quantize(sag);
+            this.wireType = wireType;
+        }
+
+        private static int quantize(float value) {
+            return Math.round(value / KEY_QUANTUM);
+        }
+
+        /**
+         * @return The horizontal length of the wire this key describes, after quantization
+         */
+        public float getHorizontal() {
+            return horizontal * KEY_QUANTUM;
+        }
+
+        /**
+         * @return The height of the wire this key describes, after quantization
+         */
+        public float getVertical() {
+            return vertical * KEY_QUANTUM;
+        }
+
+        public float getSag() {
+            return sag * KEY_QUANTUM;
+        }
+
+        public int getWireType() {
+            return wireType;
         }
 
         @Override
         public boolean equals(Object obj) {
             if(!(obj instanceof BakedModelHashKey that)) 
                 return false;
-            return this.hash == that.hash;
+            return this.horizontal == that.horizontal && this.vertical == that.vertical 
+                && this.sag == that.sag && this.wireType == that.wireType;
         }
 
         @Override
         public int hashCode() {
-            return hash;
+            int hash = horizontal;
+            hash = 31 * hash + vertical;
+            hash = 31 * hash + sag;
+            return 31 * hash + wireType;
         }
 
         public String toString() {
-            return "[" + hash + "]";
+            return "[" + getHorizontal() + " x " + getVertical() + ", sag " + getSag() + ", type " + wireType + "]";
         }
     }
 
@@ -82,7 +124,7 @@ public class WirePipeline {
     // It has been adapted in some subtle (rather distinct) ways, but it still remains 
     // extremely similar. This approach is really nice and I probably wouldn't have been
     // able to figure this out without direct reference from this mod.
-    public static final Map<BakedModelHashKey, WireModel> modelCache = new ConcurrentHashMap<>(256);
+    public static final WireModelCache modelCache = new WireModelCache(MechanoSettings.WIRE_MODEL_CACHE_KB * 1024L);
     public static final WirePipeline INSTANCE = new WirePipeline();
 
     /***
@@ -100,13 +142,8 @@ public class WirePipeline {
     public void renderStatic(BakedModelHashKey key, VertexConsumer buffer, PoseStack matrix, Vector3f origin, 
         int fromBlockLight, int toBlockLight, int fromSkyLight, int toSkyLight, TextureAtlasSprite sprite) {
 
-        WireModel model;
-        if(modelCache.containsKey(key)) 
-            model = modelCache.get(key);
-        else {
-            model = buildWireModel(1f, origin, true);
-            modelCache.putIfAbsent(key, model);
-        }
+        WireModel model = modelCache.getOrBuild(key, () -> buildStaticModel(key));
+        if(model == null) return;
         model.render(buffer, matrix, fromBlockLight, toBlockLight, fromSkyLight, toSkyLight, sprite);
     }
 
@@ -158,9 +195,21 @@ public class WirePipeline {
         modelCache.clear();
     }
 
+    /***
+     * Builds the model for a static wire from its key alone, without touching the cache. 
+     * The wire's geometry only depends on its horizontal length, height, and sag, so the model is built 
+     * along the X axis - which is the same orientation <code>renderStatic</code> rotates into.
+     * @param key Key describing the wire
+     * @return A new WireModel, or null if the key describes a wire that is too short or too long to build
+     */
+    @Nullable
+    public WireModel buildStaticModel(BakedModelHashKey key) {
+        return buildWireModel(key.getSag(), new Vector3f(key.getHorizontal(), key.getVertical(), 0), true);
+    }
+
     // builds a wire model and returns the result
     @Nullable
-    private WireModel buildWireModel(float sagOverride,  Vector3f origin, boolean backface) {
+    WireModel buildWireModel(float sagOverride,  Vector3f origin, boolean backface) {
         int capacity = (int)(2 * new Vec3(origin).lengthSqr());
 
         if(capacity <= 0 || capacity >= Integer.MAX_VALUE) return null;
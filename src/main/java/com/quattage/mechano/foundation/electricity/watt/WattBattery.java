@@ -4,6 +4,7 @@ import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
+import com.quattage.mechano.foundation.electricity.watt.unit.PackedWatts;
 import com.quattage.mechano.foundation.electricity.watt.unit.Voltage;
 import com.quattage.mechano.foundation.electricity.watt.unit.WattUnit;
 
@@ -91,11 +92,16 @@ public class WattBattery<T extends DirectionalWattProvidable> implements WattSto
 
     @Override
     public WattUnit extractWatts(final WattUnit maxWattsToExtract, boolean simulate) {
+        return PackedWatts.toUnit(extractWatts(PackedWatts.of(maxWattsToExtract), simulate));
+    }
+
+    @Override
+    public long extractWatts(final long maxWattsToExtract, boolean simulate) {
 
-        if(!canExtract() || maxWattsToExtract.hasNoPotential()) 
-            return WattUnit.EMPTY;
+        if(!canExtract() || PackedWatts.hasNoPotential(maxWattsToExtract)) 
+            return PackedWatts.EMPTY;
 
-        float wattsExtracted  = Math.min(storedWattTicks, Math.min(maxWattsToExtract.getWatts(), maxDischarge));
+        float wattsExtracted  = Math.min(storedWattTicks, Math.min(PackedWatts.getWatts(maxWattsToExtract), maxDischarge));
         if(!simulate && wattsExtracted > WattUnit.MIN_WATTS) {
             float oldWatts = storedWattTicks;
             storedWattTicks -= wattsExtracted;
@@ -105,42 +111,47 @@ public class WattBattery<T extends DirectionalWattProvidable> implements WattSto
         float roundedDiff = getCloseEnoughToEmpty();
         wattsExtracted += roundedDiff;
 
-        return WattUnit.of(maxFlux.copy(), wattsExtracted);
+        return PackedWatts.of(maxFlux, wattsExtracted);
     }
 
     @Override
     public WattUnit receiveWatts(final WattUnit maxWattsToRecieve, boolean simulate) {
+        return PackedWatts.toUnit(receiveWatts(PackedWatts.of(maxWattsToRecieve), simulate));
+    }
+
+    @Override
+    public long receiveWatts(final long maxWattsToRecieve, boolean simulate) {
 
-        if(!canReceive() || maxWattsToRecieve.hasNoPotential())
-            return WattUnit.EMPTY;
+        if(!canReceive() || PackedWatts.hasNoPotential(maxWattsToRecieve))
+            return PackedWatts.EMPTY;
 
         float wattsReceived = 0;
-        int volts = maxWattsToRecieve.getVoltage().get();
+        int volts = PackedWatts.getVolts(maxWattsToRecieve);
 
         boolean hasBeenOvervolted = false;
-        WattUnit actualReceievedWatts = maxWattsToRecieve.copy();
+        long actualReceievedWatts = maxWattsToRecieve;
 
         if(volts <= maxTolerance.get()) {
-            wattsReceived = Math.min((float)maxStoredWattTicks - storedWattTicks, Math.min(maxWattsToRecieve.getWatts(), maxCharge));
+            wattsReceived = Math.min((float)maxStoredWattTicks - storedWattTicks, Math.min(PackedWatts.getWatts(maxWattsToRecieve), maxCharge));
         } else {
             if(overvoltBehavior == OvervoltBehavior.SOFT_DENY) {
                 hasBeenOvervolted = true;
-                return WattUnit.EMPTY;
+                return PackedWatts.EMPTY;
             }
             else if(overvoltBehavior == OvervoltBehavior.LIMIT_LOSSY) {
                 hasBeenOvervolted = true;
-                actualReceievedWatts.setVoltageLossy(maxFlux.get());
-                volts = actualReceievedWatts.getVoltage().get();
+                actualReceievedWatts = PackedWatts.setVoltageLossy(actualReceievedWatts, maxFlux.get());
+                volts = PackedWatts.getVolts(actualReceievedWatts);
             }
             else if(overvoltBehavior == OvervoltBehavior.TRANSFORM_LOSSLESS) {
                 hasBeenOvervolted = true;
-                actualReceievedWatts.adjustVoltage(maxFlux.get());
-                volts = actualReceievedWatts.getVoltage().get();
+                actualReceievedWatts = PackedWatts.adjustVoltage(actualReceievedWatts, maxFlux.get());
+                volts = PackedWatts.getVolts(actualReceievedWatts);
             }
             else throw new UnsupportedOperationException("OvervoltBehavior type " + overvoltBehavior + " has no implementation!");
 
             // TOOD some other stuff perhaps
-            wattsReceived = Math.min(maxStoredWattTicks - storedWattTicks, Math.min(actualReceievedWatts.getWatts(), maxCharge));
+            wattsReceived = Math.min(maxStoredWattTicks - storedWattTicks, Math.min(PackedWatts.getWatts(actualReceievedWatts), maxCharge));
         }
 
         if(!simulate && wattsReceived > WattUnit.MIN_WATTS) {
@@ -150,7 +161,7 @@ public class WattBattery<T extends DirectionalWattProvidable> implements WattSto
             if(hasBeenOvervolted) onOvervolt(new OvervoltEvent(maxFlux.get(), volts));
         }
 
-        return WattUnit.of(volts, wattsReceived);
+        return PackedWatts.of(volts, wattsReceived);
     }
 
     @Override
@@ -2,6 +2,7 @@ package com.quattage.mechano.foundation.electricity.watt;
 
 import javax.annotation.Nullable;
 
+import com.quattage.mechano.foundation.electricity.watt.unit.PackedWatts;
 import com.quattage.mechano.foundation.electricity.watt.unit.Voltage;
 import com.quattage.mechano.foundation.electricity.watt.unit.WattUnit;
 
@@ -32,6 +33,28 @@ public interface WattStorable {
     */
     WattUnit extractWatts(final WattUnit maxWattsToExtract, boolean simulate);
 
+    /**
+    * Adds watts to the energy store, passing power as a {@link PackedWatts <code>PackedWatts</code>} value.
+    * Implementations that sit on the transfer path should override this so that it allocates nothing.
+    * @param maxWattsToRecieve Packed value representing the maximum amount of watts to be inserted.
+    * @param simulate If TRUE, the insertion will only be simulated.
+    * @return Packed value representing the watt-ticks that were (or would have been, if simulated) accepted by the storage.
+    */
+    default long receiveWatts(final long maxWattsToRecieve, boolean simulate) {
+        return PackedWatts.of(receiveWatts(PackedWatts.toUnit(maxWattsToRecieve), simulate));
+    }
+
+    /**
+    * Removes watt-ticks from the energy store, passing power as a {@link PackedWatts <code>PackedWatts</code>} value.
+    * Implementations that sit on the transfer path should override this so that it allocates nothing.
+    * @param maxWattsToExtract Packed value representing the maximum amount of watt-ticks to be extracted.
+    * @param simulate If TRUE, the extraction will only be simulated.
+    * @return Packed value representing the watt-ticks that were (or would have been, if simulated) extracted from the storage.
+    */
+    default long extractWatts(final long maxWattsToExtract, boolean simulate) {
+        return PackedWatts.of(extractWatts(PackedWatts.toUnit(maxWattsToExtract), simulate));
+    }
+
     /**
      * Replaces the current amount of energy in the energy store with the WattUnit provided.
      * Used to override the amount of energy in this store without needing an explicit source.
@@ -0,0 +1,158 @@
+package com.quattage.mechano.foundation.electricity.watt.unit;
+
+/**
+ * PackedWatts stores the same values as a {@link WattUnit <code>WattUnit</code>} inside a single primitive <code>long</code>,
+ * so that power can be passed around the transfer hot path without allocating anything. <p>
+ * The upper 32 bits hold the stored (raw) voltage as used by {@link Voltage <code>Voltage</code>}, and the lower 32 bits
+ * hold the bits of the float current. Packed values are immutable - every operation here returns a new value rather than
+ * modifying the one it was given. <p>
+ * Each operation mirrors the WattUnit method of the same name, including the rule that a value with no potential is always
+ * {@link PackedWatts#EMPTY <code>EMPTY</code>}.
+ */
+public final class PackedWatts {
+
+    /**
+     * Equivalent to {@link WattUnit#EMPTY <code>WattUnit.EMPTY</code>} - zero volts, zero amps.
+     */
+    public static final long EMPTY = pack(WattUnitConversions.toStoredVolts(0), 0);
+
+    /**
+     * Equivalent to {@link WattUnit#MAX <code>WattUnit.MAX</code>}
+     */
+    public static final long MAX = pack(WattUnit.MAX.getVoltage().getRaw(), WattUnit.MAX.getCurrent());
+
+    private PackedWatts() {}
+
+    /**
+     * Packs a stored voltage and a current into a long without any validation.
+     * @param rawVolts Voltage as returned by {@link Voltage#getRaw() <code>Voltage.getRaw()</code>}
+     * @param amps Current
+     */
+    public static long pack(short rawVolts, float amps) {
+        return ((long)rawVolts << 32) | (Float.floatToRawIntBits(amps) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs a stored voltage and a current into a long, returning <code>EMPTY</code> if the result has no potential.
+     */
+    public static long of(short rawVolts, float amps) {
+        return zeroIfNoPotential(pack(rawVolts, amps));
+    }
+
+    /**
+     * Make a new packed value from total power in watts.
+     * See {@link WattUnit#of(Voltage, float) <code>WattUnit.of()</code>}
+     * @param volts Voltage of this value
+     * @param watts Total power. Used to derive the current of the resulting value
+     */
+    public static long of(Voltage volts, float watts) {
+        if(WattUnit.hasNoPotential(watts)) return EMPTY;
+        return of(volts.getRaw(), watts / (float)volts.get());
+    }
+
+    /**
+     * Make a new packed value from total power in watts.
+     * See {@link WattUnit#of(int, float) <code>WattUnit.of()</code>}
+     * @param volts Voltage of this value
+     * @param watts Total power. Used to derive the current of the resulting value
+     */
+    public static long of(int volts, float watts) {
+        return of(WattUnitConversions.toStoredVolts(volts), watts / (float)volts);
+    }
+
+    /**
+     * @return The given WattUnit as a packed value
+     */
+    public static long of(WattUnit unit) {
+        if(unit == null) return EMPTY;
+        return of(unit.getVoltage().getRaw(), unit.getCurrent());
+    }
+
+    /**
+     * @return A new WattUnit holding the given packed value. The WattUnit is never shared, so it is safe to modify.
+     */
+    public static WattUnit toUnit(long packed) {
+        return new WattUnit(new Voltage(getRawVolts(packed)), getAmps(packed));
+    }
+
+    public static short getRawVolts(long packed) {
+        return (short)(packed >> 32);
+    }
+
+    /**
+     * @return The real voltage of the given packed value
+     */
+    public static int getVolts(long packed) {
+        return WattUnitConversions.toRealVolts(getRawVolts(packed));
+    }
+
+    public static float getAmps(long packed) {
+        return Float.intBitsToFloat((int)packed);
+    }
+
+    /**
+     * @return <code>watts = voltage * current</code>
+     */
+    public static float getWatts(long packed) {
+        return (float)getVolts(packed) * getAmps(packed);
+    }
+
+    public static boolean hasNoPotential(long packed) {
+        return getWatts(packed) < WattUnit.MIN_WATTS;
+    }
+
+    public static long zeroIfNoPotential(long packed) {
+        return hasNoPotential(packed) ? EMPTY : packed;
+    }
+
+    /**
+     * Adds two packed values by combining their currents and taking the larger voltage.
+     * See {@link WattUnit#add(WattUnit) <code>WattUnit.add()</code>}
+     */
+    public static long add(long a, long b) {
+        return pack((short)Math.max(getRawVolts(a), getRawVolts(b)), getAmps(a) + getAmps(b));
+    }
+
+    /**
+     * Lowers the current of the given value so that it carries no more than <code>watts</code>.
+     * See {@link WattUnit#clampToMax(float) <code>WattUnit.clampToMax()</code>}
+     */
+    public static long clampToMax(long packed, float watts) {
+        return pack(getRawVolts(packed), Math.min(getAmps(packed), watts / (float)getVolts(packed)));
+    }
+
+    /**
+     * @return A packed value containing the lowest current and voltage between <code>a</code> and <code>b</code>.
+     * See {@link WattUnit#getLowerStats(WattUnit) <code>WattUnit.getLowerStats()</code>}
+     */
+    public static long getLowerStats(long a, long b) {
+        return of((short)Math.min(getRawVolts(a), getRawVolts(b)), Math.min(getAmps(a), getAmps(b)));
+    }
+
+    /**
+     * Changes the voltage of the given value without adjusting its current, so the total power changes.
+     * See {@link WattUnit#setVoltageLossy(int) <code>WattUnit.setVoltageLossy()</code>}
+     */
+    public static long setVoltageLossy(long packed, int newVoltage) {
+        return of(WattUnitConversions.toStoredVolts(newVoltage), getAmps(packed));
+    }
+
+    /**
+     * Changes the voltage of the given value and adjusts its current so the total power stays the same.
+     * See {@link WattUnit#adjustVoltage(int) <code>WattUnit.adjustVoltage()</code>}
+     */
+    public static long adjustVoltage(long packed, int newVoltage) {
+        if(packed == MAX) 
+            return setVoltageLossy(packed, newVoltage);
+
+        if(getAmps(packed) == 0) return packed;
+        if(newVoltage < 1) return EMPTY;
+
+        short volts = WattUnitConversions.toStoredVolts(newVoltage < 4 ? 4 : newVoltage);
+        return pack(volts, getWatts(packed) / (float)WattUnitConversions.toRealVolts(volts));
+    }
+
+    public static String toString(long packed) {
+        return getWatts(packed) + " Watts: [" + getVolts(packed) + " V,  " + getAmps(packed) + " A]";
+    }
+}
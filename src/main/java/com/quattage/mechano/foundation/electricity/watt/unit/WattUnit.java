@@ -299,10 +299,21 @@ public class WattUnit implements Comparable<WattUnit> {
     }
 
     /**
-     * Adds this WattUnit with <code>other</code>. Adding WattUnits
-     * is as simple as combining current values and taking the larger 
-     * voltage value between the two
-     * @param other WattUnit to add
+     * Adds a {@link PackedWatts <code>PackedWatts</code>} value to this WattUnit without allocating anything.
+     * See {@link WattUnit#add(WattUnit) <code>add()</code>}
+     * @param packed Packed value to add
+     * @return This WattUnit, modified as a result of this call.
+     */
+    public WattUnit add(long packed) {
+        this.amps += PackedWatts.getAmps(packed);
+        if(PackedWatts.getRawVolts(packed) >= volts.getRaw()) 
+            volts.setTo(PackedWatts.getVolts(packed));
+        return this;
+    }
+
+    /**
+     * Lowers the current of this WattUnit so that it carries no more than the given amount of watts.
+     * @param watts Maximum watts
      * @return This WattUnit, modified as a result of this call.
      */
     public WattUnit clampToMax(float watts) {
@@ -99,6 +99,10 @@ public abstract class BlockUpdateMixin implements BlockPreUpdatable {
                     Mechano.LOGGER.error("Exception encountered processing post-place block change: " + ExceptionUtils.getStackTrace(e));
                 }
             }
+
+            // capabilities only come from BlockEntities, so other changes can't affect what neighbors are connected to
+            if(!world.isClientSide() && (oldBlockState.hasBlockEntity() || newBlockState.hasBlockEntity()))
+                BlockChangeListenable.notifyAdjacent(world, pos);
         }
 
         ((BlockPreUpdatable)(world)).mechano_resetPreUpdate();
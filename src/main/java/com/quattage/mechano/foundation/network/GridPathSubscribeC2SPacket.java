@@ -0,0 +1,40 @@
+package com.quattage.mechano.foundation.network;
+
+import java.util.function.Supplier;
+
+import com.quattage.mechano.foundation.electricity.grid.network.GridSyncHelper;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+/**
+ * Sent by clients that start or stop displaying GridPaths, so that path updates are only sent to players who use them.
+ * The server still decides whether the sender is allowed to see paths at all. See {@link GridSyncHelper#setPathSubscription(net.minecraft.server.level.ServerPlayer, boolean) <code>setPathSubscription()</code>}.
+ */
+public class GridPathSubscribeC2SPacket implements Packetable {
+
+    private final boolean subscribed;
+
+    public GridPathSubscribeC2SPacket(boolean subscribed) {
+        this.subscribed = subscribed;
+    }
+
+    public GridPathSubscribeC2SPacket(FriendlyByteBuf buf) {
+        this.subscribed = buf.readBoolean();
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf) {
+        buf.writeBoolean(subscribed);
+    }
+
+    @Override
+    public boolean handle(Supplier<NetworkEvent.Context> supplier) {
+        NetworkEvent.Context context = supplier.get();
+        context.enqueueWork(() -> {
+            if(context.getSender() == null) return;
+            GridSyncHelper.setPathSubscription(context.getSender(), subscribed);
+        });
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package com.quattage.mechano.foundation.network;
+
+import java.util.function.Supplier;
+
+import com.quattage.mechano.foundation.electricity.WattBatteryHandlable;
+
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+/**
+ * Carries the stored watts of every electric BlockEntity in a single chunk that changed since it was last synced.
+ * Built by the {@link com.quattage.mechano.foundation.electricity.WattSyncScheduler <code>WattSyncScheduler</code>}. <p>
+ * The chunk is written once, and each BlockEntity's position is written relative to it.
+ */
+public class WattSyncBundleS2CPacket implements Packetable {
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final int[] positions; // (x << 4 | z) in the lowest byte, y in the rest
+    private final float[] watts;
+
+    private WattSyncBundleS2CPacket(ChunkPos chunk, Builder builder) {
+        this.chunkX = chunk.x;
+        this.chunkZ = chunk.z;
+        this.positions = builder.positions.toIntArray();
+        this.watts = builder.watts.toFloatArray();
+    }
+
+    public WattSyncBundleS2CPacket(FriendlyByteBuf buf) {
+        this.chunkX = buf.readVarInt();
+        this.chunkZ = buf.readVarInt();
+        int count = buf.readVarInt();
+        this.positions = new int[count];
+        this.watts = new float[count];
+        for(int x = 0; x < count; x++) {
+            positions[x] = buf.readVarInt();
+            watts[x] = buf.readFloat();
+        }
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf) {
+        buf.writeVarInt(chunkX);
+        buf.writeVarInt(chunkZ);
+        buf.writeVarInt(positions.length);
+        for(int x = 0; x < positions.length; x++) {
+            buf.writeVarInt(positions[x]);
+            buf.writeFloat(watts[x]);
+        }
+    }
+
+    @Override
+    public boolean handle(Supplier<NetworkEvent.Context> supplier) {
+        NetworkEvent.Context context = supplier.get();
+        context.enqueueWork(() -> DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> handleAsClient(this)));
+        return true;
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    @SuppressWarnings("resource")
+    public static void handleAsClient(WattSyncBundleS2CPacket packet) {
+        if(Minecraft.getInstance().level == null) return;
+        for(int x = 0; x < packet.positions.length; x++) {
+            if(Minecraft.getInstance().level.getBlockEntity(packet.getBlockPos(x)) instanceof WattBatteryHandlable wbh)
+                wbh.getWattBatteryHandler().getEnergyHolder().setStoredWatts(packet.watts[x], false);
+        }
+    }
+
+    private BlockPos getBlockPos(int index) {
+        int packed = positions[index];
+        int local = packed & 0xFF;
+        return new BlockPos((chunkX << 4) + (local >> 4), packed >> 8, (chunkZ << 4) + (local & 15));
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * Accumulates stored watt values for a single chunk.
+     */
+    public static class Builder {
+
+        private final ChunkPos chunk;
+        private final IntArrayList positions = new IntArrayList();
+        private final FloatArrayList watts = new FloatArrayList();
+
+        public Builder(ChunkPos chunk) {
+            this.chunk = chunk;
+        }
+
+        public Builder add(BlockPos pos, float stored) {
+            if(pos.getX() >> 4 != chunk.x || pos.getZ() >> 4 != chunk.z)
+                throw new IllegalArgumentException("Error adding watt sync - " + pos + " isn't inside chunk " + chunk + "!");
+            positions.add((pos.getY() << 8) | ((pos.getX() & 15) << 4) | (pos.getZ() & 15));
+            watts.add(stored);
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return positions.isEmpty();
+        }
+
+        public WattSyncBundleS2CPacket build() {
+            return new WattSyncBundleS2CPacket(chunk, this);
+        }
+    }
+}
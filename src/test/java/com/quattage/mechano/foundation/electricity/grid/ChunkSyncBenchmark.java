@@ -0,0 +1,135 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * A player flying in a straight line across a 128 by 128 chunk map with 50k wires, in 5000 subgrids of 10 wires each. <p>
+ * Every operation moves the player one chunk east, which watches the column of chunks that came into view and unwatches
+ * the column that left it, with a view distance of 10. <code>index</code> finds each chunk's edges through the GridIndex,
+ * like <code>GlobalTransferGrid.getEdgesInChunk()</code> does now, and <code>scan</code> checks every vertex of every
+ * subgrid, like <code>syncGridChunkWithPlayer()</code> did before the index existed. <p>
+ * Run with <code>./gradlew jmh -Pbench=ChunkSync</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSyncBenchmark {
+
+    private static final int MAP_CHUNKS = 128;
+    private static final int SUBGRIDS = 5000;
+    private static final int WIRES_PER_GRID = 10;
+    private static final int VIEW_DISTANCE = 10;
+
+    private final List<LocalTransferGrid> subgrids = new ArrayList<>();
+    private final GridIndex<LocalTransferGrid> index = new GridIndex<>();
+    private int playerX = 0;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(12);
+        final int mapBlocks = MAP_CHUNKS * 16;
+
+        for(int g = 0; g < SUBGRIDS; g++) {
+            // each subgrid runs east from a random spot, and is moved if it would overlap another one
+            int x, y, z;
+            do {
+                x = random.nextInt(mapBlocks - WIRES_PER_GRID * 4);
+                y = 64 + random.nextInt(64);
+                z = random.nextInt(mapBlocks);
+            } while(overlaps(x, y, z));
+
+            final LocalTransferGrid grid = TestGrids.empty();
+            GridVertex last = null;
+            for(int v = 0; v <= WIRES_PER_GRID; v++) {
+                GridVertex vert = TestGrids.vertex(grid, x + v * 4, y, z, v == 0 || v == WIRES_PER_GRID);
+                if(last != null) TestGrids.link(grid, last, vert);
+                index.put(vert.getID(), grid);
+                last = vert;
+            }
+            subgrids.add(grid);
+        }
+    }
+
+    private boolean overlaps(int x, int y, int z) {
+        for(int v = 0; v <= WIRES_PER_GRID; v++)
+            if(index.get(new GID(new BlockPos(x + v * 4, y, z), 0)) != null) return true;
+        return false;
+    }
+
+    // moves the player one chunk east, wrapping around at the edge of the map
+    private int step() {
+        playerX = (playerX + 1) % MAP_CHUNKS;
+        return playerX;
+    }
+
+    @Benchmark
+    public int index() {
+        final int x = step();
+        int found = 0;
+        for(int z = MAP_CHUNKS / 2 - VIEW_DISTANCE; z <= MAP_CHUNKS / 2 + VIEW_DISTANCE; z++) {
+            found += edgesInChunk(new ChunkPos(x + VIEW_DISTANCE, z)).size();
+            found += edgesInChunk(new ChunkPos(x - VIEW_DISTANCE - 1, z)).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int scan() {
+        final int x = step();
+        int found = 0;
+        for(int z = MAP_CHUNKS / 2 - VIEW_DISTANCE; z <= MAP_CHUNKS / 2 + VIEW_DISTANCE; z++) {
+            found += scanChunk(new ChunkPos(x + VIEW_DISTANCE, z)).size();
+            found += scanChunk(new ChunkPos(x - VIEW_DISTANCE - 1, z)).size();
+        }
+        return found;
+    }
+
+    // the same as GlobalTransferGrid.getEdgesInChunk()
+    private List<GridEdge> edgesInChunk(ChunkPos chunk) {
+        final List<GridEdge> out = new ArrayList<>();
+        Set<GID> inChunk = index.getInChunk(chunk.toLong());
+        if(inChunk == null) return out;
+        for(GID id : inChunk) {
+            LocalTransferGrid grid = index.get(id);
+            GridVertex vert = grid == null ? null : grid.getVertAt(id);
+            if(vert != null) out.addAll(vert.links);
+        }
+        return out;
+    }
+
+    private List<GridEdge> scanChunk(ChunkPos chunk) {
+        final List<GridEdge> out = new ArrayList<>();
+        for(LocalTransferGrid grid : subgrids) {
+            for(GridVertex vert : grid.allVerts()) {
+                if(chunk.equals(new ChunkPos(vert.getID().getBlockPos())))
+                    out.addAll(vert.links);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,36 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+/**
+ * Measures the heap footprint of a CompactGridGraph against the GridVertex and GridEdge objects it was built from, using JOL. <p>
+ * The live graph is everything reachable from the grid's vertices (their links, edges, loads, GIDs and the grid's own maps).
+ * The compact graph is only what it adds on top of that, since the GIDs it indexes by are shared with the vertices. <p>
+ * Run with <code>./gradlew test --tests CompactGridGraphFootprintTest -i</code> to see the numbers.
+ */
+public class CompactGridGraphFootprintTest {
+
+    @Test
+    public void compactGraphIsSmallerThanTheObjectGraph() {
+        measure("chain", TestGrids.chain(10000, 8));
+        measure("mesh", TestGrids.mesh(100, 8));
+        measure("star", TestGrids.star(4096));
+    }
+
+    private static void measure(String shape, LocalTransferGrid grid) {
+        final GridVertex[] verts = grid.allVerts().toArray(new GridVertex[0]);
+        final CompactGridGraph graph = CompactGridGraph.of(grid);
+
+        final long live = GraphLayout.parseInstance((Object)verts).totalSize();
+        final long compact = GraphLayout.parseInstance(verts, graph).totalSize() - live;
+
+        System.out.println(String.format("%-5s %6d vertices %6d wires: object graph %9d bytes (%4d/vertex), compact graph %8d bytes (%4d/vertex)",
+            shape, graph.size(), graph.edgeCount() / 2, live, live / graph.size(), compact, compact / graph.size()));
+        assertTrue(compact < live, shape + " compact graph (" + compact + " bytes) isn't smaller than the object graph (" + live + " bytes)");
+    }
+}
@@ -0,0 +1,129 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quattage.mechano.foundation.electricity.grid.GridFlowNetwork.Route;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+/**
+ * One tick of max-flow allocation over a grid with 1000 wires, 100 generators and 100 machines, where every generator
+ * may supply every machine. With <code>storage</code> set, 20 batteries that can both send and receive are added,
+ * which costs two more max-flow rounds. <p>
+ * Run with <code>./gradlew jmh -Pbench=GridFlowNetwork</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridFlowNetworkBenchmark {
+
+    private static final int VERTICES = 500;
+    private static final int WIRES = 1000;
+    private static final int PAIRS = 100;
+
+    @Param({"0", "20"})
+    public int storage;
+
+    private CompactGridGraph graph;
+    private int[] vertSender;
+    private int[] vertConsumer;
+    private float[] supply;
+    private float[] acceptable;
+    private int[] senderStorage;
+    private float[] wireRemaining;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(12);
+
+        // a random tree so everything is connected, with the remaining wires strung between random vertices
+        final int[] ends = new int[WIRES * 2];
+        final float[] distances = new float[WIRES];
+        final float[] capacities = new float[WIRES];
+        final LongOpenHashSet wired = new LongOpenHashSet();
+        for(int w = 0; w < WIRES; w++) {
+            int a, b;
+            do {
+                a = w < VERTICES - 1 ? w + 1 : random.nextInt(VERTICES);
+                b = w < VERTICES - 1 ? random.nextInt(w + 1) : random.nextInt(VERTICES);
+            } while(a == b || !wired.add(((long)Math.min(a, b) << 32) | Math.max(a, b)));
+            ends[w * 2] = a;
+            ends[w * 2 + 1] = b;
+            distances[w] = 1 + random.nextInt(16);
+            capacities[w] = 200 + random.nextInt(2000);
+        }
+        graph = CompactGridGraph.ofWires(VERTICES, ends, distances, capacities);
+
+        final int senders = PAIRS + storage;
+        final int consumers = PAIRS + storage;
+        vertSender = new int[VERTICES];
+        vertConsumer = new int[VERTICES];
+        Arrays.fill(vertSender, -1);
+        Arrays.fill(vertConsumer, -1);
+        supply = new float[senders];
+        acceptable = new float[consumers];
+        senderStorage = new int[senders];
+        Arrays.fill(senderStorage, -1);
+
+        // members are spread across distinct vertices, generators first, then machines, then batteries
+        final int[] order = shuffled(random);
+        for(int x = 0; x < PAIRS; x++) {
+            vertSender[order[x]] = x;
+            supply[x] = 100 + random.nextInt(900);
+            vertConsumer[order[PAIRS + x]] = x;
+            acceptable[x] = 100 + random.nextInt(900);
+        }
+        for(int x = 0; x < storage; x++) {
+            int v = order[PAIRS * 2 + x];
+            vertSender[v] = PAIRS + x;
+            vertConsumer[v] = PAIRS + x;
+            senderStorage[PAIRS + x] = PAIRS + x;
+            supply[PAIRS + x] = 500;
+            acceptable[PAIRS + x] = 500;
+        }
+
+        wireRemaining = new float[graph.edgeCount()];
+        for(int e = 0; e < wireRemaining.length; e++)
+            wireRemaining[e] = graph.getEdgeCapacity(e);
+    }
+
+    private static int[] shuffled(Random random) {
+        final int[] out = new int[VERTICES];
+        for(int x = 0; x < VERTICES; x++) out[x] = x;
+        for(int x = VERTICES - 1; x > 0; x--) {
+            int swap = random.nextInt(x + 1);
+            int held = out[x];
+            out[x] = out[swap];
+            out[swap] = held;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<Route> route() {
+        final GridFlowNetwork network = new GridFlowNetwork(graph, vertSender, vertConsumer, supply, acceptable, senderStorage, wireRemaining);
+        for(int s = 0; s < supply.length; s++) {
+            for(int c = 0; c < acceptable.length; c++)
+                if(senderStorage[s] != c) network.allowPair(s, c);
+        }
+        return network.route();
+    }
+}
@@ -0,0 +1,211 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.quattage.mechano.foundation.electricity.grid.GridFlowNetwork.Route;
+
+public class GridFlowNetworkTest {
+
+    private static final float TOLERANCE = 1e-2f;
+
+    private static CompactGridGraph chain(int size, float capacity) {
+        final int[] ends = new int[(size - 1) * 2];
+        final float[] distances = new float[size - 1];
+        final float[] capacities = new float[size - 1];
+        for(int x = 0; x < size - 1; x++) {
+            ends[x * 2] = x;
+            ends[x * 2 + 1] = x + 1;
+            distances[x] = 1;
+            capacities[x] = capacity;
+        }
+        return CompactGridGraph.ofWires(size, ends, distances, capacities);
+    }
+
+    private static float[] remaining(CompactGridGraph graph) {
+        final float[] out = new float[graph.edgeCount()];
+        for(int e = 0; e < out.length; e++)
+            out[e] = graph.getEdgeCapacity(e);
+        return out;
+    }
+
+    private static float routed(List<Route> routes, int sender, int consumer) {
+        float total = 0;
+        for(Route route : routes)
+            if(route.sender == sender && route.consumer == consumer) total += route.amount;
+        return total;
+    }
+
+    @Test
+    public void chargesStorageBetweenAGeneratorAndAMachine() {
+        // generator at 0, a battery at 1, and a machine at 2. The generator has enough for both
+        final CompactGridGraph graph = chain(3, 1000);
+        final GridFlowNetwork network = new GridFlowNetwork(graph, new int[] {0, 1, -1}, new int[] {-1, 0, 1},
+            new float[] {100, 40}, new float[] {50, 30}, new int[] {-1, 0}, remaining(graph));
+        network.allowPair(0, 0);
+        network.allowPair(0, 1);
+        network.allowPair(1, 1);
+
+        final List<Route> routes = network.route();
+        assertEquals(30, routed(routes, 0, 1), TOLERANCE);
+        assertEquals(50, routed(routes, 0, 0), TOLERANCE);
+        assertEquals(0, routed(routes, 1, 1), TOLERANCE);
+    }
+
+    @Test
+    public void storageCoversWhatTheGeneratorCant() {
+        final CompactGridGraph graph = chain(3, 1000);
+        final GridFlowNetwork network = new GridFlowNetwork(graph, new int[] {0, 1, -1}, new int[] {-1, 0, 1},
+            new float[] {10, 40}, new float[] {50, 30}, new int[] {-1, 0}, remaining(graph));
+        network.allowPair(0, 0);
+        network.allowPair(0, 1);
+        network.allowPair(1, 1);
+
+        final List<Route> routes = network.route();
+        assertEquals(10, routed(routes, 0, 1), TOLERANCE);
+        assertEquals(20, routed(routes, 1, 1), TOLERANCE);
+        assertEquals(0, routed(routes, 0, 0), TOLERANCE);
+    }
+
+    @Test
+    public void machinesAreServedBeforeStorage() {
+        // the battery sits right next to the generator, but the machine still gets its share first
+        final CompactGridGraph graph = chain(3, 1000);
+        final GridFlowNetwork network = new GridFlowNetwork(graph, new int[] {0, 1, -1}, new int[] {-1, 0, 1},
+            new float[] {40, 100}, new float[] {100, 30}, new int[] {-1, 0}, remaining(graph));
+        network.allowPair(0, 0);
+        network.allowPair(0, 1);
+        network.allowPair(1, 1);
+
+        final List<Route> routes = network.route();
+        assertEquals(30, routed(routes, 0, 1), TOLERANCE);
+        assertEquals(10, routed(routes, 0, 0), TOLERANCE);
+        assertEquals(0, routed(routes, 1, 1), TOLERANCE);
+    }
+
+    @Test
+    public void batteriesNeverSupplyThemselves() {
+        // one battery with two wire anchors, wired to each other
+        final CompactGridGraph graph = chain(2, 1000);
+        final GridFlowNetwork network = new GridFlowNetwork(graph, new int[] {0, 0}, new int[] {0, 0},
+            new float[] {100}, new float[] {100}, new int[] {0}, remaining(graph));
+        network.allowPair(0, 0);
+        assertTrue(network.route().isEmpty());
+    }
+
+    @Test
+    public void onlyAllowedPairsAreRouted() {
+        // two senders (0, 1) and two consumers (2, 3) around a hub at 4.
+        // Each sender may only supply the consumer that pairing them in order would have skipped
+        final CompactGridGraph graph = CompactGridGraph.ofWires(5, new int[] {0, 4, 1, 4, 4, 2, 4, 3},
+            new float[] {1, 1, 1, 1}, new float[] {1000, 1000, 1000, 1000});
+        final GridFlowNetwork network = new GridFlowNetwork(graph, new int[] {0, 1, -1, -1, -1}, new int[] {-1, -1, 0, 1, -1},
+            new float[] {10, 10}, new float[] {10, 10}, new int[] {-1, -1}, remaining(graph));
+        network.allowPair(0, 1);
+        network.allowPair(1, 0);
+
+        final List<Route> routes = network.route();
+        assertEquals(10, routed(routes, 0, 1), TOLERANCE);
+        assertEquals(10, routed(routes, 1, 0), TOLERANCE);
+        assertEquals(0, routed(routes, 0, 0), TOLERANCE);
+        assertEquals(0, routed(routes, 1, 1), TOLERANCE);
+    }
+
+    @Test
+    public void routesMatchTheMaximumFlowOfRandomGrids() {
+        final Random random = new Random(12);
+        for(int trial = 0; trial < 200; trial++) {
+            final int size = 4 + random.nextInt(20);
+            final int attempts = size - 1 + random.nextInt(size * 2);
+            final int[] ends = new int[attempts * 2];
+            final float[] distances = new float[attempts];
+            final float[] capacities = new float[attempts];
+            final float[][] wireAt = new float[size][size];
+            int wires = 0;
+            for(int w = 0; w < attempts; w++) {
+                // the first wires form a tree, so every vertex is connected. Two vertices can only be wired together once
+                int a = w < size - 1 ? w + 1 : random.nextInt(size);
+                int b = w < size - 1 ? random.nextInt(w + 1) : random.nextInt(size);
+                if(a == b || wireAt[a][b] > 0) continue;
+                ends[wires * 2] = a;
+                ends[wires * 2 + 1] = b;
+                distances[wires] = 1;
+                capacities[wires] = 1 + random.nextInt(50);
+                wireAt[a][b] = wireAt[b][a] = capacities[wires];
+                wires++;
+            }
+            final CompactGridGraph graph = CompactGridGraph.ofWires(size, Arrays.copyOf(ends, wires * 2), Arrays.copyOf(distances, wires), Arrays.copyOf(capacities, wires));
+
+            // every vertex gets its own sender or consumer (or both, or neither)
+            final int[] vertSender = new int[size];
+            final int[] vertConsumer = new int[size];
+            final float[] supply = new float[size];
+            final float[] acceptable = new float[size];
+            int senders = 0, consumers = 0;
+            for(int v = 0; v < size; v++) {
+                int role = random.nextInt(4);
+                vertSender[v] = (role & 1) != 0 ? senders++ : -1;
+                vertConsumer[v] = (role & 2) != 0 ? consumers++ : -1;
+                if(vertSender[v] >= 0) supply[vertSender[v]] = random.nextInt(80);
+                if(vertConsumer[v] >= 0) acceptable[vertConsumer[v]] = random.nextInt(80);
+            }
+            final int[] senderStorage = new int[senders];
+            Arrays.fill(senderStorage, -1);
+
+            final GridFlowNetwork network = new GridFlowNetwork(graph, vertSender, vertConsumer,
+                Arrays.copyOf(supply, senders), Arrays.copyOf(acceptable, consumers), senderStorage, remaining(graph));
+            for(int s = 0; s < senders; s++)
+                for(int c = 0; c < consumers; c++)
+                    network.allowPair(s, c);
+            final List<Route> routes = network.route();
+
+            final float[][] wireLoad = new float[size][size];
+            final float[] sent = new float[senders];
+            final float[] received = new float[consumers];
+            float total = 0;
+            for(Route route : routes) {
+                assertTrue(route.amount > 0, "trial " + trial);
+                int at = -1;
+                for(int v = 0; v < size; v++) if(vertSender[v] == route.sender) at = v;
+                for(int e : route.edges) {
+                    assertEquals(at, graph.getEdgeSource(e), "trial " + trial + " has a route with a gap in it");
+                    at = graph.getEdgeTarget(e);
+                    wireLoad[Math.min(graph.getEdgeSource(e), at)][Math.max(graph.getEdgeSource(e), at)] += route.amount;
+                }
+                assertEquals(route.consumer, vertConsumer[at], "trial " + trial + " has a route that ends at the wrong consumer");
+                sent[route.sender] += route.amount;
+                received[route.consumer] += route.amount;
+                total += route.amount;
+            }
+
+            for(int s = 0; s < senders; s++) assertTrue(sent[s] <= supply[s] + TOLERANCE, "trial " + trial);
+            for(int c = 0; c < consumers; c++) assertTrue(received[c] <= acceptable[c] + TOLERANCE, "trial " + trial);
+            assertEquals(maxFlow(graph, vertSender, vertConsumer, supply, acceptable), total, TOLERANCE * 10, "trial " + trial);
+
+            for(int a = 0; a < size; a++)
+                for(int b = a + 1; b < size; b++)
+                    assertTrue(wireLoad[a][b] <= wireAt[a][b] + TOLERANCE, "trial " + trial + " overloads the wire between " + a + " and " + b);
+        }
+    }
+
+    // the same grid as a plain single source, single sink max-flow
+    private static float maxFlow(CompactGridGraph graph, int[] vertSender, int[] vertConsumer, float[] supply, float[] acceptable) {
+        final int source = graph.size(), sink = source + 1;
+        final GridMaxFlow network = new GridMaxFlow(sink + 1, graph.edgeCount());
+        for(int v = 0; v < graph.size(); v++) {
+            if(vertSender[v] >= 0) network.addArc(source, v, supply[vertSender[v]]);
+            if(vertConsumer[v] >= 0) network.addArc(v, sink, acceptable[vertConsumer[v]]);
+        }
+        for(int e = 0; e < graph.edgeCount(); e++) {
+            if(graph.getEdgeSource(e) < graph.getEdgeTarget(e))
+                network.addUndirected(graph.getEdgeSource(e), graph.getEdgeTarget(e), graph.getEdgeCapacity(e));
+        }
+        return network.solve(source, sink);
+    }
+}
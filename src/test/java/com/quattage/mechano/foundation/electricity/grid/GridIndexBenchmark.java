@@ -0,0 +1,87 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+/**
+ * Finding the LocalTransferGrid that holds a GID, among many small subgrids of 10 wired vertices each. <p>
+ * <code>index</code> asks the GridIndex, like <code>GlobalTransferGrid.getGridContaining()</code> does now, and
+ * <code>scan</code> checks every subgrid in turn, like it did before the index existed. <p>
+ * Run with <code>./gradlew jmh -Pbench=GridIndex</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridIndexBenchmark {
+
+    private static final int VERTS_PER_GRID = 10;
+    private static final int LOOKUPS = 1024;
+
+    @Param({"10000", "100000"})
+    public int vertices;
+
+    private final List<LocalTransferGrid> subgrids = new ArrayList<>();
+    private final GridIndex<LocalTransferGrid> index = new GridIndex<>();
+    private GID[] lookups;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        final List<GID> ids = new ArrayList<>(vertices);
+        for(int g = 0; g < vertices / VERTS_PER_GRID; g++) {
+            final LocalTransferGrid grid = TestGrids.empty();
+            GridVertex last = null;
+            for(int v = 0; v < VERTS_PER_GRID; v++) {
+                GridVertex vert = TestGrids.vertex(grid, (g % 1000) * 16 + v, 64, (g / 1000) * 16, true);
+                if(last != null) TestGrids.link(grid, last, vert);
+                index.put(vert.getID(), grid);
+                ids.add(vert.getID());
+                last = vert;
+            }
+            subgrids.add(grid);
+        }
+
+        final Random random = new Random(12);
+        lookups = new GID[LOOKUPS];
+        for(int x = 0; x < LOOKUPS; x++)
+            lookups[x] = ids.get(random.nextInt(ids.size()));
+    }
+
+    private GID nextLookup() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return lookups[next];
+    }
+
+    @Benchmark
+    public LocalTransferGrid index() {
+        return index.get(nextLookup());
+    }
+
+    @Benchmark
+    public LocalTransferGrid scan() {
+        final GID id = nextLookup();
+        for(LocalTransferGrid grid : subgrids)
+            if(grid.hasVertAt(id)) return grid;
+        return null;
+    }
+}
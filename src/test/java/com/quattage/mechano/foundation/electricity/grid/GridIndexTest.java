@@ -0,0 +1,131 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+public class GridIndexTest {
+
+    private static GID gid(int x, int y, int z, int sub) {
+        return new GID(new BlockPos(x, y, z), sub);
+    }
+
+    @Test
+    public void findsOwnerByGID() {
+        final GridIndex<String> index = new GridIndex<>();
+        assertTrue(index.put(gid(0, 64, 0, 0), "a"));
+        assertTrue(index.put(gid(0, 64, 0, 1), "b"));
+
+        assertEquals("a", index.get(gid(0, 64, 0, 0)));
+        assertEquals("b", index.get(gid(0, 64, 0, 1)));
+        assertNull(index.get(gid(0, 64, 0, 2)));
+        assertNull(index.get(null));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void puttingAgainMovesTheGID() {
+        final GridIndex<String> index = new GridIndex<>();
+        final GID id = gid(5, 70, 5, 0);
+        assertTrue(index.put(id, "a"));
+        assertFalse(index.put(id, "b"));
+
+        assertEquals("b", index.get(id));
+        assertEquals(1, index.size());
+        assertEquals(1, index.getInChunk(ChunkPos.asLong(id.getBlockPos())).size());
+    }
+
+    @Test
+    public void onlyTheCurrentOwnerCanRemove() {
+        final GridIndex<String> index = new GridIndex<>();
+        final GID id = gid(1, 2, 3, 0);
+        index.put(id, "a");
+        index.put(id, "b");
+
+        // a grid that the vertex was moved out of doesn't unindex it
+        assertFalse(index.remove(id, "a"));
+        assertEquals("b", index.get(id));
+
+        assertTrue(index.remove(id, "b"));
+        assertNull(index.get(id));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void groupsGIDsByChunk() {
+        final GridIndex<String> index = new GridIndex<>();
+        final GID a = gid(0, 64, 0, 0);
+        final GID b = gid(15, 10, 15, 0);
+        final GID c = gid(16, 64, 0, 0);
+        final GID d = gid(-1, 64, -1, 0);
+        index.put(a, "grid");
+        index.put(b, "grid");
+        index.put(c, "grid");
+        index.put(d, "grid");
+
+        assertEquals(Set.of(a, b), index.getInChunk(ChunkPos.asLong(0, 0)));
+        assertEquals(Set.of(c), index.getInChunk(ChunkPos.asLong(1, 0)));
+        assertEquals(Set.of(d), index.getInChunk(ChunkPos.asLong(-1, -1)));
+        assertNull(index.getInChunk(ChunkPos.asLong(0, -1)));
+        assertEquals(3, index.chunkCount());
+    }
+
+    @Test
+    public void emptyChunksAreForgotten() {
+        final GridIndex<String> index = new GridIndex<>();
+        final GID a = gid(0, 64, 0, 0);
+        final GID b = gid(1, 64, 1, 0);
+        index.put(a, "grid");
+        index.put(b, "grid");
+
+        final long chunk = ChunkPos.asLong(0, 0);
+        index.remove(a, "grid");
+        assertTrue(index.hasChunk(chunk));
+        index.remove(b, "grid");
+        assertFalse(index.hasChunk(chunk));
+        assertEquals(0, index.chunkCount());
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        final GridIndex<String> index = new GridIndex<>();
+        for(int x = 0; x < 100; x++)
+            index.put(gid(x * 7, 64, x * 3, x % 4), "grid" + (x % 5));
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.chunkCount());
+        assertNull(index.get(gid(0, 64, 0, 0)));
+    }
+
+    @Test
+    public void findsEveryGIDAcrossManyOwners() {
+        final GridIndex<Integer> index = new GridIndex<>();
+        final int owners = 50;
+        for(int grid = 0; grid < owners; grid++)
+            for(int v = 0; v < 20; v++)
+                index.put(gid(grid * 40 + v, 64, grid * 3, 0), grid);
+
+        for(int grid = 0; grid < owners; grid++)
+            for(int v = 0; v < 20; v++)
+                assertEquals(grid, index.get(gid(grid * 40 + v, 64, grid * 3, 0)));
+    }
+
+    @Test
+    public void rejectsNulls() {
+        final GridIndex<String> index = new GridIndex<>();
+        assertThrows(NullPointerException.class, () -> index.put(null, "grid"));
+        assertThrows(NullPointerException.class, () -> index.put(gid(0, 0, 0, 0), null));
+    }
+}
@@ -0,0 +1,175 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class GridMaxFlowTest {
+
+    private static final float TOLERANCE = 1e-3f;
+
+    @Test
+    public void singleArcCarriesItsCapacity() {
+        final GridMaxFlow network = new GridMaxFlow(2, 1);
+        final int arc = network.addArc(0, 1, 7.5f);
+        assertEquals(7.5f, network.solve(0, 1), TOLERANCE);
+        assertEquals(7.5f, network.getFlow(arc), TOLERANCE);
+    }
+
+    @Test
+    public void seriesArcsAreLimitedByTheirBottleneck() {
+        final GridMaxFlow network = new GridMaxFlow(3, 2);
+        network.addArc(0, 1, 10);
+        network.addArc(1, 2, 3);
+        assertEquals(3, network.solve(0, 2), TOLERANCE);
+    }
+
+    @Test
+    public void parallelPathsAdd() {
+        final GridMaxFlow network = new GridMaxFlow(4, 4);
+        network.addArc(0, 1, 5);
+        network.addArc(0, 2, 7);
+        network.addArc(1, 3, 10);
+        network.addArc(2, 3, 4);
+        assertEquals(9, network.solve(0, 3), TOLERANCE);
+    }
+
+    @Test
+    public void solvesTheTextbookNetwork() {
+        final GridMaxFlow network = new GridMaxFlow(6, 9);
+        network.addArc(0, 1, 16);
+        network.addArc(0, 2, 13);
+        network.addArc(2, 1, 4);
+        network.addArc(1, 3, 12);
+        network.addArc(3, 2, 9);
+        network.addArc(2, 4, 14);
+        network.addArc(4, 3, 7);
+        network.addArc(3, 5, 20);
+        network.addArc(4, 5, 4);
+        assertEquals(23, network.solve(0, 5), TOLERANCE);
+    }
+
+    @Test
+    public void undirectedArcsCarryFlowEitherWay() {
+        final GridMaxFlow forward = new GridMaxFlow(2, 1);
+        final int a = forward.addUndirected(0, 1, 6);
+        assertEquals(6, forward.solve(0, 1), TOLERANCE);
+        assertEquals(6, forward.getFlow(a), TOLERANCE);
+
+        final GridMaxFlow backward = new GridMaxFlow(2, 1);
+        final int b = backward.addUndirected(1, 0, 6);
+        assertEquals(6, backward.solve(0, 1), TOLERANCE);
+        assertEquals(-6, backward.getFlow(b), TOLERANCE);
+    }
+
+    @Test
+    public void routesAroundABottleneckWire() {
+        // a sender at 1 and a consumer at 4. The shortest route (1-2-4) has a weak wire,
+        // but the rest of the supply can still go around it through 3
+        final int source = 0, sink = 5;
+        final GridMaxFlow network = new GridMaxFlow(6, 7);
+        network.addArc(source, 1, 20);
+        network.addUndirected(1, 2, 10);
+        final int weak = network.addUndirected(2, 4, 2);
+        network.addUndirected(1, 3, 10);
+        network.addUndirected(3, 4, 10);
+        network.addUndirected(2, 3, 10);
+        network.addArc(4, sink, 20);
+
+        assertEquals(12, network.solve(source, sink), TOLERANCE);
+        assertEquals(2, network.getFlow(weak), TOLERANCE);
+    }
+
+    @Test
+    public void raisingACapacityKeepsTheFlowAlreadyPushed() {
+        final GridMaxFlow network = new GridMaxFlow(3, 2);
+        final int in = network.addArc(0, 1, 5);
+        network.addArc(1, 2, 10);
+        assertEquals(5, network.solve(0, 2), TOLERANCE);
+
+        network.setCapacity(in, 8);
+        assertEquals(3, network.solve(0, 2), TOLERANCE);
+        assertEquals(8, network.getFlow(in), TOLERANCE);
+
+        // freezing an arc at its current flow stops it from carrying any more
+        network.setCapacity(in, network.getFlow(in));
+        assertEquals(0, network.solve(0, 2), TOLERANCE);
+        assertThrows(IllegalArgumentException.class, () -> network.setCapacity(in, 2));
+    }
+
+    @Test
+    public void matchesTheMinimumCutOfRandomNetworks() {
+        final Random random = new Random(12);
+        for(int trial = 0; trial < 200; trial++) {
+            final int nodes = 3 + random.nextInt(6);
+            final List<int[]> arcs = new ArrayList<>();
+            final List<Float> caps = new ArrayList<>();
+            final List<Boolean> undirected = new ArrayList<>();
+            final List<Integer> ids = new ArrayList<>();
+
+            final GridMaxFlow network = new GridMaxFlow(nodes, 4);
+            final int arcCount = random.nextInt(nodes * 3);
+            for(int x = 0; x < arcCount; x++) {
+                int from = random.nextInt(nodes), to = random.nextInt(nodes);
+                if(from == to) continue;
+                float cap = random.nextInt(20) + random.nextFloat();
+                boolean wire = random.nextBoolean();
+                arcs.add(new int[] {from, to});
+                caps.add(cap);
+                undirected.add(wire);
+                ids.add(wire ? network.addUndirected(from, to, cap) : network.addArc(from, to, cap));
+            }
+
+            final int source = 0, sink = nodes - 1;
+            final float flow = network.solve(source, sink);
+            assertEquals(minCut(nodes, source, sink, arcs, caps, undirected), flow, TOLERANCE * 10, "trial " + trial);
+
+            // nothing is created or lost anywhere but the source and sink, and no arc carries more than it can
+            final float[] net = new float[nodes];
+            for(int x = 0; x < arcs.size(); x++) {
+                float f = network.getFlow(ids.get(x));
+                assertTrue(Math.abs(f) <= caps.get(x) + TOLERANCE, "trial " + trial + " arc " + x + " is over capacity");
+                if(!undirected.get(x)) assertTrue(f >= -TOLERANCE, "trial " + trial + " arc " + x + " runs backwards");
+                net[arcs.get(x)[0]] -= f;
+                net[arcs.get(x)[1]] += f;
+            }
+            for(int v = 0; v < nodes; v++) {
+                if(v == source) assertEquals(-flow, net[v], TOLERANCE * 10);
+                else if(v == sink) assertEquals(flow, net[v], TOLERANCE * 10);
+                else assertEquals(0, net[v], TOLERANCE * 10, "trial " + trial + " node " + v);
+            }
+        }
+    }
+
+    @Test
+    public void solvesLongChainsWithoutRecursion() {
+        final int nodes = 200_000;
+        final GridMaxFlow network = new GridMaxFlow(nodes, 1);
+        for(int x = 0; x < nodes - 1; x++)
+            network.addUndirected(x, x + 1, 5 + (x % 7));
+        assertEquals(5, network.solve(0, nodes - 1), TOLERANCE);
+    }
+
+    // the cheapest way to separate the sink from the source, found by trying every split of the other nodes
+    private static float minCut(int nodes, int source, int sink, List<int[]> arcs, List<Float> caps, List<Boolean> undirected) {
+        float best = Float.MAX_VALUE;
+        for(int mask = 0; mask < (1 << nodes); mask++) {
+            if((mask & (1 << source)) == 0 || (mask & (1 << sink)) != 0) continue;
+            float cut = 0;
+            for(int x = 0; x < arcs.size(); x++) {
+                boolean fromIn = (mask & (1 << arcs.get(x)[0])) != 0;
+                boolean toIn = (mask & (1 << arcs.get(x)[1])) != 0;
+                if(fromIn && !toIn) cut += caps.get(x);
+                else if(!fromIn && toIn && undirected.get(x)) cut += caps.get(x);
+            }
+            best = Math.min(best, cut);
+        }
+        return best;
+    }
+}
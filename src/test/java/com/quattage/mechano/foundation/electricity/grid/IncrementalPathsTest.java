@@ -0,0 +1,143 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+/**
+ * Random sequences of links and unlinks, where paths are kept up to date by <code>onEdgeAdded()</code>, <code>onEdgeRemoved()</code>
+ * and <code>splitAround()</code> the same way the GlobalTransferGrid does it. After every step, the paths of every grid are checked
+ * against a copy of the same vertices and wires whose paths were all found again from scratch with <code>findAllPaths()</code>.
+ */
+public class IncrementalPathsTest {
+
+    private static final float TOLERANCE = 1e-3f;
+
+    @BeforeEach
+    public void setup() {
+        MechanoSettings.ASYNC_PATHFINDING = false;
+        MechanoSettings.COMPACT_GRID_GRAPH = false;
+    }
+
+    @Test
+    public void incrementalPathsMatchAFullRecompute() {
+        final Random random = new Random(12);
+        for(int trial = 0; trial < 40; trial++)
+            runTrial(random, trial, 6 + random.nextInt(14), 60);
+    }
+
+    private static void runTrial(Random random, int trial, int size, int steps) {
+
+        // every vertex starts out in a grid of its own, like a GlobalTransferGrid that's about to be wired up
+        final List<LocalTransferGrid> grids = new ArrayList<>();
+        final GridVertex[] verts = new GridVertex[size];
+        final LocalTransferGrid reference = TestGrids.empty();
+        final GridVertex[] refVerts = new GridVertex[size];
+        for(int v = 0; v < size; v++) {
+            int x = random.nextInt(48), y = 64 + random.nextInt(16), z = random.nextInt(48);
+            boolean member = random.nextInt(3) != 0;
+            LocalTransferGrid grid = TestGrids.empty();
+            verts[v] = TestGrids.vertex(grid, x, y, z, member);
+            refVerts[v] = TestGrids.vertex(reference, x, y, z, member);
+            grids.add(grid);
+        }
+
+        for(int step = 0; step < steps; step++) {
+            int a = random.nextInt(size), b = random.nextInt(size);
+            if(a == b || reference.getVertAt(verts[a].getID()) == null) continue;
+
+            if(verts[a].isLinkedTo(verts[b])) {
+                unlink(grids, verts[a], verts[b]);
+                refVerts[a].popLink(refVerts[b]);
+                refVerts[b].popLink(refVerts[a]);
+            } else {
+                link(grids, verts[a], verts[b]);
+                TestGrids.link(reference, refVerts[a], refVerts[b]);
+            }
+
+            reference.getPathManager().skipUpdates().clearAllPaths();
+            reference.findAllPaths(false);
+            assertSamePaths(reference, grids, "trial " + trial + " step " + step);
+        }
+    }
+
+    // the same as GlobalTransferGrid.link(), where the smaller grid is absorbed by the larger one
+    private static void link(List<LocalTransferGrid> grids, GridVertex a, GridVertex b) {
+        LocalTransferGrid gridA = a.getOrFindParent();
+        LocalTransferGrid gridB = b.getOrFindParent();
+        if(gridA != gridB) {
+            LocalTransferGrid larger = gridA.size() >= gridB.size() ? gridA : gridB;
+            LocalTransferGrid smaller = larger == gridA ? gridB : gridA;
+            grids.remove(smaller);
+            larger.absorb(smaller, false);
+            gridA = larger;
+        }
+
+        TestGrids.link(gridA, a, b);
+        gridA.onEdgeAdded(a, b, false);
+    }
+
+    // the same as GlobalTransferGrid.unlink(), which splits the grid if the wire was holding it together
+    private static void unlink(List<LocalTransferGrid> grids, GridVertex a, GridVertex b) {
+        LocalTransferGrid grid = a.getOrFindParent();
+        a.popLink(b);
+        b.popLink(a);
+        grid.markChanged();
+        grid.onEdgeRemoved(a, b, false);
+        grids.addAll(grid.splitAround(List.of(a, b)));
+    }
+
+    private static void assertSamePaths(LocalTransferGrid reference, List<LocalTransferGrid> grids, String context) {
+        final Map<String, Float> expected = new HashMap<>();
+        reference.getPathManager().forEachPath(path -> expected.put(keyOf(path), path.getLength()));
+
+        final Map<String, Float> actual = new HashMap<>();
+        for(LocalTransferGrid grid : grids) {
+            grid.getPathManager().forEachPath(path -> {
+                assertValid(grid, path, context);
+                actual.put(keyOf(path), path.getLength());
+            });
+        }
+
+        assertEquals(expected.keySet(), actual.keySet(), context + " has different pairs of members with paths");
+        for(Map.Entry<String, Float> entry : expected.entrySet())
+            assertEquals(entry.getValue(), actual.get(entry.getKey()), TOLERANCE, context + " has a longer path than it should between " + entry.getKey());
+    }
+
+    // every edge of the path is a wire that still exists in the grid holding the path, and each edge leads into the next one
+    private static void assertValid(LocalTransferGrid grid, GridPath path, String context) {
+        final GridEdge[] edges = path.members();
+        GridVertex at = edges[0].getOriginVertex();
+        for(GridEdge edge : edges) {
+            assertSame(at, edge.getOriginVertex(), context + " has a path with a gap in it: " + path);
+            assertSame(grid, at.getOrFindParent(), context + " has a path that leaves its grid: " + path);
+            GridEdge wire = at.getLinkTo(edge.getDestinationVertex());
+            assertNotNull(wire, context + " has a path across a removed wire: " + path);
+            assertSame(wire, edge, context + " has a path across a replaced wire: " + path);
+            at = edge.getDestinationVertex();
+        }
+        assertTrue(grid.getVertAt(at.getID()) == at, context + " has a path that ends outside of its grid: " + path);
+    }
+
+    // paths are found in either orientation, so each pair of members is keyed the same way regardless of which end is the start
+    private static String keyOf(GridPath path) {
+        String start = path.getStart().getID().toString();
+        String end = path.getEnd().getID().toString();
+        return start.compareTo(end) < 0 ? start + " - " + end : end + " - " + start;
+    }
+}
@@ -0,0 +1,95 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * Finding every path from one member of a grid with about 2000 vertices and 250 other members. <p>
+ * <code>tree</code> and <code>compact</code> are <code>pathfindFrom()</code> growing one shortest path tree over the GridVertex
+ * objects and over the CompactGridGraph respectively, and <code>astar</code> is the loop it replaced, which ran a separate
+ * A* search for every member it could reach. <p>
+ * Run with <code>./gradlew jmh -Pbench=PathfindFrom</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfindFromBenchmark {
+
+    @Param({"chain", "mesh", "star"})
+    public String shape;
+
+    private LocalTransferGrid grid;
+    private GridVertex origin;
+
+    @Setup
+    public void setup() {
+        switch(shape) {
+            case "chain":
+                grid = TestGrids.chain(2000, 8);
+                origin = grid.getVertAt(new GID(new BlockPos(0, 64, 0), 0));
+                break;
+            case "mesh":
+                grid = TestGrids.mesh(45, 8);
+                origin = grid.getVertAt(new GID(new BlockPos(0, 64, 0), 0));
+                break;
+            case "star":
+                grid = TestGrids.star(250);
+                origin = grid.getVertAt(new GID(new BlockPos(-128, 80, -128), 0));
+                break;
+            default:
+                throw new IllegalArgumentException("Error setting up PathfindFromBenchmark - '" + shape + "' isn't a known shape!");
+        }
+    }
+
+    @Benchmark
+    public boolean tree() {
+        MechanoSettings.COMPACT_GRID_GRAPH = false;
+        return grid.pathfindFrom(origin, false, false);
+    }
+
+    @Benchmark
+    public boolean compact() {
+        MechanoSettings.COMPACT_GRID_GRAPH = true;
+        return grid.pathfindFrom(origin, false, false);
+    }
+
+    @Benchmark
+    public boolean astar() {
+        final Set<GridVertex> targets = new HashSet<>();
+        for(GridVertex vert : grid.allVerts())
+            if(vert.canFormPathTo(origin)) targets.add(vert);
+
+        boolean exists = false;
+        for(GridVertex target : targets) {
+            GridPath path = grid.astar(origin, target);
+            if(path != null) {
+                exists = true;
+                grid.getPathManager().shouldUpdate(false).putPath(path);
+            }
+        }
+        return exists;
+    }
+}
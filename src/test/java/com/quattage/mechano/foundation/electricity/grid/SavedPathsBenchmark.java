@@ -0,0 +1,81 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * Loading the paths of a save with 20480 vertices, in 80 subgrids that are each a 16 by 16 mesh with 32 members. <p>
+ * <code>restore</code> reads the paths that were saved with each subgrid, and <code>repath</code> finds them all again,
+ * which is what every load did before paths were saved. Reading the vertices and wires themselves needs a world,
+ * and takes the same time either way, so each invocation starts from subgrids that already have them. <p>
+ * Run with <code>./gradlew jmh -Pbench=SavedPaths</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SavedPathsBenchmark {
+
+    private static final int SUBGRIDS = 80;
+    private static final int SIDE = 16;
+    private static final int MEMBER_EVERY = 8;
+
+    private final CompoundTag[] saved = new CompoundTag[SUBGRIDS];
+    private final CompoundTag[] unsolved = new CompoundTag[SUBGRIDS];
+    private final GID[][] orders = new GID[SUBGRIDS][];
+    private final LocalTransferGrid[] loading = new LocalTransferGrid[SUBGRIDS];
+
+    @Setup(Level.Trial)
+    public void save() {
+        MechanoSettings.ASYNC_PATHFINDING = false;
+        MechanoSettings.COMPACT_GRID_GRAPH = false;
+        MechanoSettings.PERSIST_GRID_PATHS = true;
+
+        for(int g = 0; g < SUBGRIDS; g++) {
+            final LocalTransferGrid grid = TestGrids.mesh(SIDE, MEMBER_EVERY);
+            grid.findAllPaths(false);
+            saved[g] = grid.writeTo(new CompoundTag());
+            unsolved[g] = saved[g].copy();
+            unsolved[g].remove("pt");
+            orders[g] = TestGrids.savedOrder(saved[g]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void read() {
+        for(int g = 0; g < SUBGRIDS; g++)
+            loading[g] = TestGrids.mesh(SIDE, MEMBER_EVERY);
+    }
+
+    @Benchmark
+    public LocalTransferGrid[] restore() {
+        for(int g = 0; g < SUBGRIDS; g++)
+            loading[g].loadPaths(saved[g], orders[g]);
+        return loading;
+    }
+
+    @Benchmark
+    public LocalTransferGrid[] repath() {
+        for(int g = 0; g < SUBGRIDS; g++)
+            loading[g].loadPaths(unsolved[g], orders[g]);
+        return loading;
+    }
+}
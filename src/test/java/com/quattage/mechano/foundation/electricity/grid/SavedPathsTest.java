@@ -0,0 +1,172 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.quattage.mechano.MechanoSettings;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridPath;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * Saving a grid's paths, and loading them into a grid with the same vertices and wires. A grid that loads its paths
+ * as they were saved isn't dirty afterwards, while one that had to find them again is.
+ */
+public class SavedPathsTest {
+
+    @BeforeEach
+    public void setup() {
+        MechanoSettings.ASYNC_PATHFINDING = false;
+        MechanoSettings.COMPACT_GRID_GRAPH = false;
+        MechanoSettings.PERSIST_GRID_PATHS = true;
+    }
+
+    private static CompoundTag save(LocalTransferGrid grid) {
+        grid.findAllPaths(false);
+        return grid.writeTo(new CompoundTag());
+    }
+
+    private static LocalTransferGrid load(LocalTransferGrid into, CompoundTag saved) {
+        into.loadPaths(saved, TestGrids.savedOrder(saved));
+        return into;
+    }
+
+    // every path in expected is in actual, along the same route, and actual has nothing else
+    private static void assertSamePaths(LocalTransferGrid expected, LocalTransferGrid actual) {
+        assertEquals(expected.getPathManager().getUniquePathCount(), actual.getPathManager().getUniquePathCount());
+        expected.getPathManager().forEachPath(path -> {
+            GridPath loaded = actual.getPathManager().getPathBetween(path.getStart().getID(), path.getEnd().getID());
+            assertTrue(path.isSameRouteAs(loaded), "path " + path + " was loaded as " + loaded);
+        });
+    }
+
+    @Test
+    public void restoresSavedPaths() {
+        final LocalTransferGrid saved = TestGrids.mesh(6, 3);
+        final CompoundTag tag = save(saved);
+        assertTrue(tag.contains("pt"));
+
+        final LocalTransferGrid loaded = load(TestGrids.mesh(6, 3), tag);
+        assertFalse(loaded.isDirty());
+        assertSamePaths(saved, loaded);
+    }
+
+    @Test
+    public void checksumIgnoresTheOrderOfLinks() {
+        final LocalTransferGrid saved = TestGrids.mesh(6, 3);
+        final CompoundTag tag = save(saved);
+
+        final LocalTransferGrid loaded = TestGrids.mesh(6, 3);
+        for(GridVertex vert : loaded.allVerts())
+            Collections.reverse(vert.links);
+        load(loaded, tag);
+
+        assertFalse(loaded.isDirty());
+        assertSamePaths(saved, loaded);
+    }
+
+    @Test
+    public void addedWireFallsBackToPathfinding() {
+        final CompoundTag tag = save(TestGrids.chain(12, 3));
+
+        // a shortcut from one end of the chain to the other changes the route of most paths
+        final LocalTransferGrid loaded = TestGrids.chain(12, 3);
+        TestGrids.link(loaded, first(loaded, 0), first(loaded, 11 * 4));
+        load(loaded, tag);
+
+        final LocalTransferGrid expected = TestGrids.chain(12, 3);
+        TestGrids.link(expected, first(expected, 0), first(expected, 11 * 4));
+        expected.findAllPaths(false);
+
+        assertTrue(loaded.isDirty());
+        assertSamePaths(expected, loaded);
+    }
+
+    @Test
+    public void changedMembershipFallsBackToPathfinding() {
+        final CompoundTag tag = save(TestGrids.chain(12, 3));
+
+        final LocalTransferGrid loaded = TestGrids.chain(12, 3);
+        first(loaded, 3 * 4).setMemberStatus(false);
+        load(loaded, tag);
+
+        final LocalTransferGrid expected = TestGrids.chain(12, 3);
+        first(expected, 3 * 4).setMemberStatus(false);
+        expected.findAllPaths(false);
+
+        assertTrue(loaded.isDirty());
+        assertSamePaths(expected, loaded);
+    }
+
+    @Test
+    public void mismatchedChecksumFallsBackToPathfinding() {
+        final LocalTransferGrid saved = TestGrids.mesh(5, 2);
+        final CompoundTag tag = save(saved);
+        tag.getCompound("pt").putInt("c", tag.getCompound("pt").getInt("c") + 1);
+
+        final LocalTransferGrid loaded = load(TestGrids.mesh(5, 2), tag);
+        assertTrue(loaded.isDirty());
+        assertSamePaths(saved, loaded);
+    }
+
+    @Test
+    public void olderFormatFallsBackToPathfinding() {
+        final LocalTransferGrid saved = TestGrids.mesh(5, 2);
+        final CompoundTag tag = save(saved);
+        tag.getCompound("pt").putInt("v", 0);
+
+        final LocalTransferGrid loaded = load(TestGrids.mesh(5, 2), tag);
+        assertTrue(loaded.isDirty());
+        assertSamePaths(saved, loaded);
+    }
+
+    @Test
+    public void malformedPathsFallBackToPathfinding() {
+        final LocalTransferGrid saved = TestGrids.mesh(5, 2);
+        final CompoundTag tag = save(saved);
+
+        // the first path claims to be longer than everything that was saved
+        final int[] flat = tag.getCompound("pt").getIntArray("p").clone();
+        flat[0] = flat.length + 1;
+        tag.getCompound("pt").putIntArray("p", flat);
+
+        final LocalTransferGrid loaded = load(TestGrids.mesh(5, 2), tag);
+        assertTrue(loaded.isDirty());
+        assertSamePaths(saved, loaded);
+    }
+
+    @Test
+    public void missingPathsFallBackToPathfinding() {
+        final LocalTransferGrid saved = TestGrids.mesh(5, 2);
+        final CompoundTag tag = save(saved);
+        tag.remove("pt");
+
+        final LocalTransferGrid loaded = load(TestGrids.mesh(5, 2), tag);
+        assertTrue(loaded.isDirty());
+        assertSamePaths(saved, loaded);
+    }
+
+    @Test
+    public void pathsArentSavedWhenDisabled() {
+        MechanoSettings.PERSIST_GRID_PATHS = false;
+        try {
+            assertFalse(save(TestGrids.chain(6, 2)).contains("pt"));
+        } finally {
+            MechanoSettings.PERSIST_GRID_PATHS = true;
+        }
+    }
+
+    // the vertex at the given x along the first row of a chain or mesh
+    private static GridVertex first(LocalTransferGrid grid, int x) {
+        for(GridVertex vert : grid.allVerts())
+            if(vert.getID().getBlockPos().getX() == x && vert.getID().getBlockPos().getZ() == 0) return vert;
+        throw new IllegalArgumentException("Error finding vertex - nothing is at x " + x + "!");
+    }
+}
@@ -0,0 +1,120 @@
+package com.quattage.mechano.foundation.electricity.grid;
+
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GID;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridEdge;
+import com.quattage.mechano.foundation.electricity.grid.landmarks.GridVertex;
+import com.quattage.mechano.foundation.electricity.impl.WireAnchorBlockEntity;
+import com.quattage.mechano.foundation.electricity.watt.unit.Voltage;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * Builds LocalTransferGrids without a world, for tests and benchmarks. <p>
+ * Vertices made here have no host BlockEntity, so {@link TestVertex} stands in for the host's capability check,
+ * and grids made here have no GlobalTransferGrid, so nothing that syncs with players can be called on them.
+ * Paths must always be found with <code>shouldSendPackets</code> set to <code>FALSE</code>.
+ */
+public class TestGrids {
+
+    public static final int WIRE_TYPE = 0;
+    public static final Voltage WIRE_VOLTAGE = new Voltage(240);
+    public static final float WIRE_WATTS = 1000;
+
+    /**
+     * A GridVertex that can form paths to any other member, as if every host could both send and receive.
+     */
+    public static class TestVertex extends GridVertex {
+
+        public TestVertex(LocalTransferGrid parent, GID id) {
+            super((WireAnchorBlockEntity)null, parent, id);
+        }
+
+        @Override
+        public boolean canFormPathTo(GridVertex o) {
+            return isMember() && o.isMember() && !equals(o);
+        }
+    }
+
+    public static LocalTransferGrid empty() {
+        return new LocalTransferGrid((GlobalTransferGrid)null);
+    }
+
+    /**
+     * Adds a new vertex to <code>grid</code> at the given position.
+     * @param member If <code>TRUE</code>, paths will be formed to and from the new vertex
+     */
+    public static GridVertex vertex(LocalTransferGrid grid, int x, int y, int z, boolean member) {
+        final GridVertex vert = new TestVertex(grid, new GID(new BlockPos(x, y, z), 0));
+        vert.setMemberStatus(member);
+        grid.addVert(vert);
+        return vert;
+    }
+
+    /**
+     * Wires <code>a</code> and <code>b</code> together without finding any paths, the same way
+     * {@link LocalTransferGrid#linkVerts(GridVertex, GridVertex, int, boolean) <code>linkVerts()</code>} does.
+     */
+    public static GridEdge link(LocalTransferGrid grid, GridVertex a, GridVertex b) {
+        final GridEdge edge = new GridEdge(a, b, WIRE_TYPE, WIRE_VOLTAGE, WIRE_WATTS, null);
+        a.addLink(edge);
+        b.addLink(edge.getInverse());
+        grid.markChanged();
+        return edge;
+    }
+
+    /**
+     * @return <code>size</code> vertices wired in a line, with members at both ends and every <code>memberEvery</code> vertices between
+     */
+    public static LocalTransferGrid chain(int size, int memberEvery) {
+        final LocalTransferGrid grid = empty();
+        GridVertex last = null;
+        for(int x = 0; x < size; x++) {
+            GridVertex vert = vertex(grid, x * 4, 64, 0, x == 0 || x == size - 1 || x % memberEvery == 0);
+            if(last != null) link(grid, last, vert);
+            last = vert;
+        }
+        return grid;
+    }
+
+    /**
+     * @return A square of <code>side * side</code> vertices, each wired to the vertex beside and below it, with every
+     * <code>memberEvery</code>th vertex being a member
+     */
+    public static LocalTransferGrid mesh(int side, int memberEvery) {
+        final LocalTransferGrid grid = empty();
+        final GridVertex[] verts = new GridVertex[side * side];
+        for(int x = 0; x < side; x++) {
+            for(int z = 0; z < side; z++) {
+                int at = x * side + z;
+                verts[at] = vertex(grid, x * 4, 64, z * 4, at % memberEvery == 0);
+                if(x > 0) link(grid, verts[at - side], verts[at]);
+                if(z > 0) link(grid, verts[at - 1], verts[at]);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * @return A hub wired to <code>arms</code> member vertices, each at the end of a single wire
+     */
+    public static LocalTransferGrid star(int arms) {
+        final LocalTransferGrid grid = empty();
+        final GridVertex hub = vertex(grid, 0, 64, 0, true);
+        for(int x = 0; x < arms; x++)
+            link(grid, hub, vertex(grid, (x % 64) * 4 - 128, 80, (x / 64) * 4 - 128, true));
+        return grid;
+    }
+
+    /**
+     * @return The GID of every vertex in a grid saved by {@link LocalTransferGrid#writeTo(CompoundTag) <code>writeTo()</code>}, in the order they were saved
+     */
+    public static GID[] savedOrder(CompoundTag saved) {
+        final long[] positions = saved.getLongArray("pos");
+        final byte[] subIndices = saved.getByteArray("sub");
+        final GID[] order = new GID[positions.length];
+        for(int x = 0; x < positions.length; x++)
+            order[x] = new GID(BlockPos.of(positions[x]), subIndices[x]);
+        return order;
+    }
+}
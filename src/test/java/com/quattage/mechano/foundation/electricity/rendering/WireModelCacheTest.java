@@ -0,0 +1,98 @@
+package com.quattage.mechano.foundation.electricity.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.quattage.mechano.foundation.electricity.rendering.WirePipeline.BakedModelHashKey;
+
+import net.minecraft.world.phys.Vec3;
+
+public class WireModelCacheTest {
+
+    private static BakedModelHashKey key(double length) {
+        return new BakedModelHashKey(new Vec3(0, 0, 0), new Vec3(length, 0, 0));
+    }
+
+    // 4 bytes for every float
+    private static WireModel modelOfBytes(int bytes) {
+        return new WireModel(new float[bytes / 8], new float[bytes / 8]);
+    }
+
+    @Test
+    public void buildsOnlyOnMiss() {
+        final WireModelCache cache = new WireModelCache(1024);
+        final AtomicInteger builds = new AtomicInteger();
+        final WireModel model = modelOfBytes(64);
+
+        assertSame(model, cache.getOrBuild(key(4), () -> { builds.incrementAndGet(); return model; }));
+        assertSame(model, cache.getOrBuild(key(4), () -> { builds.incrementAndGet(); return modelOfBytes(64); }));
+        assertEquals(1, builds.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(64, cache.getBytes());
+    }
+
+    @Test
+    public void modelsThatCantBeBuiltAreNotCached() {
+        final WireModelCache cache = new WireModelCache(1024);
+        assertNull(cache.getOrBuild(key(4), () -> null));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedModel() {
+        final WireModelCache cache = new WireModelCache(1000);
+        cache.getOrBuild(key(1), () -> modelOfBytes(400));
+        cache.getOrBuild(key(2), () -> modelOfBytes(400));
+
+        // touching the first model makes the second one the oldest
+        cache.getOrBuild(key(1), () -> modelOfBytes(400));
+        cache.getOrBuild(key(3), () -> modelOfBytes(400));
+
+        assertEquals(2, cache.size());
+        assertEquals(800, cache.getBytes());
+        assertEquals(1, cache.getEvictions());
+
+        final AtomicInteger builds = new AtomicInteger();
+        cache.getOrBuild(key(1), () -> { builds.incrementAndGet(); return modelOfBytes(400); });
+        cache.getOrBuild(key(3), () -> { builds.incrementAndGet(); return modelOfBytes(400); });
+        assertEquals(0, builds.get());
+        cache.getOrBuild(key(2), () -> { builds.incrementAndGet(); return modelOfBytes(400); });
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void keepsTheNewestModelEvenIfItIsTooLarge() {
+        final WireModelCache cache = new WireModelCache(100);
+        cache.getOrBuild(key(1), () -> modelOfBytes(80));
+        final WireModel large = cache.getOrBuild(key(2), () -> modelOfBytes(400));
+
+        assertEquals(1, cache.size());
+        assertEquals(400, cache.getBytes());
+        assertSame(large, cache.getOrBuild(key(2), () -> modelOfBytes(400)));
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        final WireModelCache cache = new WireModelCache(1024);
+        cache.getOrBuild(key(1), () -> modelOfBytes(64));
+        cache.getOrBuild(key(2), () -> modelOfBytes(64));
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void rejectsEmptyBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new WireModelCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new WireModelCache(-1));
+    }
+}
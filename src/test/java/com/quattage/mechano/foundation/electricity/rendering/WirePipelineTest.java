@@ -0,0 +1,131 @@
+package com.quattage.mechano.foundation.electricity.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import com.quattage.mechano.foundation.electricity.rendering.WirePipeline.BakedModelHashKey;
+
+import net.minecraft.world.phys.Vec3;
+
+public class WirePipelineTest {
+
+    // a 16th of a pixel
+    private static final float OFF_QUANTUM_TOLERANCE = 1 / 256f;
+
+    private final WirePipeline pipeline = new WirePipeline();
+
+    // built straight from the wire's real offset, the same way renderDynamic builds it
+    private WireModel buildUncached(Vec3 from, Vec3 to, float sag) {
+        return pipeline.buildWireModel(sag, new Vector3f((float)(to.x - from.x), (float)(to.y - from.y), (float)(to.z - from.z)), true);
+    }
+
+    private WireModel buildCached(WireModelCache cache, Vec3 from, Vec3 to, float sag) {
+        final BakedModelHashKey key = new BakedModelHashKey(from, to, sag, 0);
+        return cache.getOrBuild(key, () -> pipeline.buildStaticModel(key));
+    }
+
+    @Test
+    public void cachedContoursMatchUncachedOnTheQuantum() {
+        // offsets whose horizontal lengths are whole, so the key holds the wire's real dimensions
+        final double[][] horizontals = {{4, 0}, {0, -7}, {-12, 0}, {3, 4}, {-6, 8}, {5, -12}, {0.5, 0}, {-8, -15}, {0, 0}};
+        final double[] verticals = {0, 1.5, -2.25, 6, -0.5};
+        final double[] starts = {0.5, 0.25, 0.1875, -31.5};
+        final float[] sags = {1f, 0.5f, 1.25f};
+
+        final WireModelCache cache = new WireModelCache(64 * 1024 * 1024);
+        int compared = 0;
+        for(double start : starts)
+            for(double[] h : horizontals)
+                for(double v : verticals)
+                    for(float sag : sags) {
+                        Vec3 from = new Vec3(100 + start, 64 + start, -200 + start);
+                        Vec3 to = new Vec3(from.x + h[0], from.y + v, from.z + h[1]);
+                        WireModel uncached = buildUncached(from, to, sag);
+                        WireModel cached = buildCached(cache, from, to, sag);
+                        if(uncached == null) continue;
+
+                        String wire = from + " -> " + to + ", sag " + sag;
+                        assertNotNull(cached, wire);
+                        assertArrayEquals(uncached.vertices(), cached.vertices(), wire);
+                        assertArrayEquals(uncached.uvs(), cached.uvs(), wire);
+                        compared++;
+                    }
+
+        assertTrue(compared > 400, "only " + compared + " wires could be built");
+        assertTrue(cache.getHits() > 0);
+    }
+
+    @Test
+    public void cachedContoursStayCloseOffTheQuantum() {
+        final Random random = new Random(25);
+        final WireModelCache cache = new WireModelCache(64 * 1024 * 1024);
+        final int samples = 1000;
+        int segmentsDiffer = 0;
+
+        for(int x = 0; x < samples; x++) {
+            Vec3 from = new Vec3(random.nextDouble() * 2000 - 1000, random.nextDouble() * 300, random.nextDouble() * 2000 - 1000);
+            Vec3 to = new Vec3(from.x + random.nextDouble() * 48 - 24, from.y + random.nextDouble() * 16 - 8, from.z + random.nextDouble() * 48 - 24);
+            WireModel uncached = buildUncached(from, to, 1f);
+            WireModel cached = buildCached(cache, from, to, 1f);
+            if(uncached == null || cached == null) {
+                assertSame(uncached, cached);
+                continue;
+            }
+
+            // a wire that ends right on a segment boundary can gain or lose its last sliver of a segment
+            if(uncached.vertices().length != cached.vertices().length) {
+                segmentsDiffer++;
+                continue;
+            }
+
+            for(int v = 0; v < uncached.vertices().length; v++)
+                assertEquals(uncached.vertices()[v], cached.vertices()[v], OFF_QUANTUM_TOLERANCE, from + " -> " + to);
+        }
+
+        assertTrue(segmentsDiffer < samples / 100, segmentsDiffer + " wires had a different amount of segments");
+    }
+
+    @Test
+    public void headingDoesNotChangeTheKey() {
+        final Vec3 from = new Vec3(10.5, 70, 10.5);
+        final BakedModelHashKey east = new BakedModelHashKey(from, from.add(3, 2, 4));
+        final BakedModelHashKey north = new BakedModelHashKey(from, from.add(4, 2, -3));
+        final BakedModelHashKey west = new BakedModelHashKey(from, from.add(-3, 2, -4));
+        assertEquals(east, north);
+        assertEquals(east, west);
+        assertEquals(east.hashCode(), west.hashCode());
+
+        final WireModelCache cache = new WireModelCache(1024 * 1024);
+        final WireModel model = cache.getOrBuild(east, () -> pipeline.buildStaticModel(east));
+        assertSame(model, cache.getOrBuild(north, () -> pipeline.buildStaticModel(north)));
+        assertSame(model, cache.getOrBuild(west, () -> pipeline.buildStaticModel(west)));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void everyDimensionIsPartOfTheKey() {
+        final Vec3 from = new Vec3(0, 64, 0);
+        final Vec3 to = new Vec3(8, 66, 0);
+        final BakedModelHashKey key = new BakedModelHashKey(from, to, 1f, 0);
+
+        assertEquals(key, new BakedModelHashKey(from, to, 1f, 0));
+        assertNotEquals(key, new BakedModelHashKey(from, to, 1f, 1));
+        assertNotEquals(key, new BakedModelHashKey(from, to, 0.5f, 0));
+        assertNotEquals(key, new BakedModelHashKey(from, to.add(1 / 1024d, 0, 0), 1f, 0));
+        assertNotEquals(key, new BakedModelHashKey(from, to.add(0, 1 / 1024d, 0), 1f, 0));
+
+        assertEquals(8, key.getHorizontal());
+        assertEquals(2, key.getVertical());
+        assertEquals(1, key.getSag());
+    }
+}
@@ -0,0 +1,144 @@
+package com.quattage.mechano.foundation.electricity.watt.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PackedWattsTest {
+
+    private static final int SAMPLES = 10000;
+
+    private static void assertMatches(WattUnit expected, long actual) {
+        assertEquals(expected.getVoltage().getRaw(), PackedWatts.getRawVolts(actual), "voltage of " + PackedWatts.toString(actual) + ", expected " + expected);
+        assertEquals(expected.getCurrent(), PackedWatts.getAmps(actual), "current of " + PackedWatts.toString(actual) + ", expected " + expected);
+    }
+
+    private static int randomVolts(Random random) {
+        return random.nextInt(262141);
+    }
+
+    // mostly ordinary amounts, with some that are too small to have any potential
+    private static float randomWatts(Random random) {
+        return random.nextInt(8) == 0 ? random.nextFloat() * WattUnit.MIN_WATTS * 2 : random.nextFloat() * 100000f;
+    }
+
+    @Test
+    public void packingRoundTrips() {
+        for(short raw : new short[] {Short.MIN_VALUE, -1, 0, 1, Short.MAX_VALUE})
+            for(float amps : new float[] {0, -0f, 1.5f, -3f, Float.MAX_VALUE, Float.MIN_VALUE}) {
+                long packed = PackedWatts.pack(raw, amps);
+                assertEquals(raw, PackedWatts.getRawVolts(packed));
+                assertEquals(Float.floatToRawIntBits(amps), Float.floatToRawIntBits(PackedWatts.getAmps(packed)));
+            }
+    }
+
+    @Test
+    public void constantsMatchWattUnit() {
+        assertMatches(WattUnit.EMPTY, PackedWatts.EMPTY);
+        assertMatches(WattUnit.MAX, PackedWatts.MAX);
+        assertEquals(PackedWatts.EMPTY, PackedWatts.of(WattUnit.EMPTY));
+        assertEquals(PackedWatts.EMPTY, PackedWatts.of(null));
+        assertEquals(PackedWatts.MAX, PackedWatts.of(WattUnit.MAX));
+    }
+
+    @Test
+    public void ofMatchesWattUnit() {
+        final Random random = new Random(13);
+        for(int x = 0; x < SAMPLES; x++) {
+            int volts = randomVolts(random) + 1;
+            float watts = randomWatts(random);
+            assertMatches(WattUnit.of(volts, watts), PackedWatts.of(volts, watts));
+            assertMatches(WattUnit.of(new Voltage(volts), watts), PackedWatts.of(new Voltage(volts), watts));
+        }
+    }
+
+    @Test
+    public void valuesWithNoPotentialAreEmpty() {
+        assertEquals(PackedWatts.EMPTY, PackedWatts.of(120, WattUnit.MIN_WATTS * 0.5f));
+        assertEquals(PackedWatts.EMPTY, PackedWatts.of(new Voltage(120), 0));
+        assertEquals(PackedWatts.EMPTY, PackedWatts.zeroIfNoPotential(PackedWatts.pack(WattUnitConversions.toStoredVolts(120), 0)));
+        assertTrue(PackedWatts.hasNoPotential(PackedWatts.EMPTY));
+        assertEquals(0, PackedWatts.getWatts(PackedWatts.EMPTY));
+    }
+
+    @Test
+    public void unitsRoundTrip() {
+        final Random random = new Random(14);
+        for(int x = 0; x < SAMPLES; x++) {
+            WattUnit unit = WattUnit.of(randomVolts(random) + 1, randomWatts(random));
+            long packed = PackedWatts.of(unit);
+            assertEquals(unit, PackedWatts.toUnit(packed));
+            assertEquals(unit.getWatts(), PackedWatts.getWatts(packed));
+            assertEquals(unit.getVoltage().get(), PackedWatts.getVolts(packed));
+        }
+    }
+
+    @Test
+    public void toUnitNeverShares() {
+        final WattUnit a = PackedWatts.toUnit(PackedWatts.EMPTY);
+        a.add(WattUnit.of(120, 500));
+        final WattUnit b = PackedWatts.toUnit(PackedWatts.EMPTY);
+        assertNotSame(a, b);
+        assertEquals(WattUnit.EMPTY, b);
+        assertMatches(WattUnit.EMPTY, PackedWatts.EMPTY);
+    }
+
+    @Test
+    public void arithmeticMatchesWattUnit() {
+        final Random random = new Random(15);
+        for(int x = 0; x < SAMPLES; x++) {
+            WattUnit a = WattUnit.of(randomVolts(random) + 1, randomWatts(random));
+            WattUnit b = WattUnit.of(randomVolts(random) + 1, randomWatts(random));
+            long pa = PackedWatts.of(a);
+            long pb = PackedWatts.of(b);
+            float cap = randomWatts(random);
+            int volts = randomVolts(random) - 100;
+
+            assertMatches(a.copy().add(b), PackedWatts.add(pa, pb));
+            assertMatches(a.copy().add(pb), PackedWatts.add(pa, pb));
+            assertMatches(a.getLowerStats(b), PackedWatts.getLowerStats(pa, pb));
+            assertMatches(a.copy().clampToMax(cap), PackedWatts.clampToMax(pa, cap));
+            assertMatches(a.copy().setVoltageLossy(volts), PackedWatts.setVoltageLossy(pa, volts));
+            assertMatches(a.copy().adjustVoltage(volts), PackedWatts.adjustVoltage(pa, volts));
+
+            // packed values are never modified by the operations that use them
+            assertEquals(PackedWatts.of(a), pa);
+        }
+    }
+
+    @Test
+    public void adjustingTheVoltageOfMaxIsLossy() {
+        assertMatches(WattUnit.MAX.copy().adjustVoltage(480), PackedWatts.adjustVoltage(PackedWatts.MAX, 480));
+        assertMatches(WattUnit.EMPTY.copy().adjustVoltage(480), PackedWatts.adjustVoltage(PackedWatts.EMPTY, 480));
+        assertEquals(PackedWatts.EMPTY, PackedWatts.adjustVoltage(PackedWatts.of(120, 500), 0));
+    }
+
+    @Test
+    public void arithmeticDoesNotAllocate() {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)threads;
+        assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        final long edge = PackedWatts.of(480, 2000);
+        long total = PackedWatts.EMPTY;
+        final long before = bean.getCurrentThreadAllocatedBytes();
+        for(int x = 0; x < 100000; x++) {
+            long offered = PackedWatts.of(WattUnitConversions.toStoredVolts(120 + (x & 255)), 5 + (x & 15));
+            long sent = PackedWatts.clampToMax(PackedWatts.getLowerStats(offered, edge), 1500);
+            total = PackedWatts.add(total, PackedWatts.adjustVoltage(sent, 240));
+        }
+        final long allocated = bean.getCurrentThreadAllocatedBytes() - before;
+
+        // the bean itself may allocate a little, but 100k WattUnits would be several megabytes
+        assertTrue(allocated < 4096, "allocated " + allocated + " bytes");
+        assertTrue(PackedWatts.getWatts(total) > 0);
+    }
+}